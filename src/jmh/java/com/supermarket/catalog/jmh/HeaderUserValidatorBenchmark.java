@@ -0,0 +1,74 @@
+package com.supermarket.catalog.jmh;
+
+import com.supermarket.catalog.cache.UserAuthCache;
+import com.supermarket.catalog.domain.user.User;
+import com.supermarket.catalog.metrics.CatalogMetrics;
+import com.supermarket.catalog.repository.UserRepository;
+import com.supermarket.catalog.validation.HeaderUserValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The authentication interceptor in front of every product request, on a cache hit
+ * and on a miss. The repository is stubbed, so a miss measures the interceptor and
+ * cache overhead without the database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeaderUserValidatorBenchmark {
+
+    private HeaderUserValidator validator;
+    private UserAuthCache userAuthCache;
+    private UUID userId;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() {
+
+        userId = UUID.randomUUID();
+        User user = User.builder()
+                .id(userId)
+                .username("cashier")
+                .password("secret")
+                .email("cashier@example.com")
+                .insertionTime(Instant.now())
+                .build();
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userAuthCache = new UserAuthCache(Duration.ofMinutes(5), 100_000);
+        validator = new HeaderUserValidator(userRepository, userAuthCache, new CatalogMetrics(new SimpleMeterRegistry()));
+
+        request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("X-Username", "cashier");
+        request.addHeader("X-User-Id", userId.toString());
+    }
+
+    @Benchmark
+    public boolean cacheHit() throws Exception {
+        return validator.preHandle(request, response, null);
+    }
+
+    @Benchmark
+    public boolean cacheMiss() throws Exception {
+        userAuthCache.invalidate(userId);
+        return validator.preHandle(request, response, null);
+    }
+}
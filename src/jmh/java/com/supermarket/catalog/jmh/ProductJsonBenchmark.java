@@ -0,0 +1,86 @@
+package com.supermarket.catalog.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson mapping of the product DTOs, with the mapper configured the way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    private ObjectWriter responseWriter;
+    private ObjectWriter pageWriter;
+    private ObjectReader createReader;
+
+    private ProductResponse response;
+    private ProductPage page;
+    private byte[] createJson;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(ProductResponse.class);
+        pageWriter = objectMapper.writerFor(ProductPage.class);
+        createReader = objectMapper.readerFor(CreateProductRequest.class);
+
+        response = product(0);
+        List<ProductResponse> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(product(i));
+        }
+        page = new ProductPage(items, "bmV4dC1jdXJzb3I");
+
+        createJson = objectMapper.writeValueAsBytes(new CreateProductRequest(
+                "Whole milk 1L", Category.DAIRY, new BigDecimal("5.49"), "Local Supplier", 120, "Fresh milk"));
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePageOf50() throws IOException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public CreateProductRequest deserializeCreateRequest() throws IOException {
+        return createReader.readValue(createJson);
+    }
+
+    private static ProductResponse product(int i) {
+        return new ProductResponse(
+                UUID.randomUUID(),
+                "Product " + i,
+                Category.values()[i % Category.values().length],
+                new BigDecimal("3.99").add(BigDecimal.valueOf(i)),
+                100 + i,
+                "Supplier " + i % 7,
+                "Seeded product " + i,
+                Instant.parse("2024-01-01T10:00:00Z").plusSeconds(i)
+        );
+    }
+}
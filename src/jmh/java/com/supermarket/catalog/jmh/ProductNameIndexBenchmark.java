@@ -0,0 +1,89 @@
+package com.supermarket.catalog.jmh;
+
+import com.supermarket.catalog.cache.ProductNameIndex;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Autocomplete lookups on an index of a million generated products, for a one-letter
+ * prefix, a word prefix and a two-word prefix, with and without locally changed products
+ * in the overlay. Run with {@code -prof gc} to see the allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductNameIndexBenchmark {
+
+    private static final String[] BRANDS = {"Quokka", "Alpine", "Harvest", "Golden", "Nordic", "Sunny", "Meadow", "Coastal"};
+    private static final String[] NOUNS = {"chocolate", "milk", "granola", "coffee", "crackers", "yogurt", "juice", "cheese",
+            "chips", "honey", "pasta", "rice", "tea", "cookies", "butter", "bread"};
+    private static final String[] ADJECTIVES = {"dark", "organic", "crunchy", "fresh", "smoked", "sparkling", "whole", "spicy"};
+
+    @Param({"1000000"})
+    private int products;
+
+    @Param({"0", "1000"})
+    private int overlay;
+
+    private ProductNameIndex index;
+
+    @Setup
+    public void setUp() {
+
+        ProductJdbcRepository repository = mock(ProductJdbcRepository.class);
+        doAnswer(invocation -> {
+            ProductJdbcRepository.NameSink sink = invocation.getArgument(0);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < products; i++) {
+                sink.accept(new UUID(0, i), name(random), random.nextInt(1_000));
+            }
+            return null;
+        }).when(repository).streamNames(any());
+
+        index = new ProductNameIndex(repository, mock(PlatformTransactionManager.class),
+                false, Duration.ofMinutes(10), Integer.MAX_VALUE);
+        index.rebuild();
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < overlay; i++) {
+            index.put(new UUID(1, i), name(random), random.nextInt(1_000));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> oneLetter() {
+        return index.suggest("c", 10);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> wordPrefix() {
+        return index.suggest("choc", 10);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> twoWordPrefix() {
+        return index.suggest("quokka cho", 10);
+    }
+
+    private static String name(SplittableRandom random) {
+        return BRANDS[random.nextInt(BRANDS.length)] + " "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + NOUNS[random.nextInt(NOUNS.length)] + " "
+                + (100 + random.nextInt(900)) + "g";
+    }
+}
@@ -0,0 +1,84 @@
+package com.supermarket.catalog.jmh;
+
+import com.supermarket.catalog.SupermarketApplication;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product create, cached get and stock delta through the real service, transactions
+ * and PostgreSQL container, as one node would run them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final String SUPPLIER = "JMH Supplier";
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private UUID productId;
+
+    private final CreateProductRequest createRequest = new CreateProductRequest(
+            "Benchmark milk", Category.DAIRY, BigDecimal.valueOf(5.5), SUPPLIER, 100, "Fresh milk");
+    private final StockUpdateRequest oneUnit = new StockUpdateRequest(1);
+
+    @Setup(Level.Trial)
+    public void startNode() throws Exception {
+
+        var postgres = PostgresTestContainer.getInstance();
+        context = new SpringApplicationBuilder(SupermarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=validate"
+                )
+                .run();
+
+        productService = context.getBean(ProductService.class);
+        productId = productService.createProduct(createRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopNode() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM products WHERE supplier = ?", SUPPLIER);
+        context.close();
+    }
+
+    @Benchmark
+    public UUID createProduct() throws Exception {
+        return productService.createProduct(createRequest);
+    }
+
+    @Benchmark
+    public VersionedProduct getProduct() throws Exception {
+        return productService.getProduct(productId);
+    }
+
+    // Increase and decrease in turn, so the stock stays put however long the run
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public UUID stockDelta() throws Exception {
+        productService.increaseStock(productId, oneUnit, null);
+        return productService.decreaseStock(productId, oneUnit, null);
+    }
+}
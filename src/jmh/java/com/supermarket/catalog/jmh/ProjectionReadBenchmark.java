@@ -0,0 +1,122 @@
+package com.supermarket.catalog.jmh;
+
+import com.supermarket.catalog.SupermarketApplication;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.domain.user.User;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.VersionedProduct;
+import com.supermarket.catalog.dto.user.CreateUserRequest;
+import com.supermarket.catalog.dto.user.UserResponse;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.repository.UserRepository;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.service.UserService;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One uncached product or user read as a request runs it, by entity and by projection,
+ * each in its own read-only transaction. The entity reads are the former
+ * {@code GET /products/{id}} and {@code GET /users/{id}} paths: load the entity, then copy
+ * its getters into the response. The pom runs JMH with {@code -prof gc}; compare
+ * {@code gc.alloc.rate.norm}, the bytes allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProjectionReadBenchmark {
+
+    private static final String SUPPLIER = "JMH Projection Supplier";
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private ProductRepository productRepository;
+    private ProductJdbcRepository productJdbcRepository;
+    private UserRepository userRepository;
+    private UUID productId;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void startNode() throws Exception {
+
+        var postgres = PostgresTestContainer.getInstance();
+        context = new SpringApplicationBuilder(SupermarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=validate"
+                )
+                .run();
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        productRepository = context.getBean(ProductRepository.class);
+        productJdbcRepository = context.getBean(ProductJdbcRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        productId = context.getBean(ProductService.class).createProduct(new CreateProductRequest(
+                "Benchmark milk", Category.DAIRY, BigDecimal.valueOf(5.5), SUPPLIER, 100, "Fresh milk"));
+        userId = context.getBean(UserService.class).createUser(new CreateUserRequest(
+                "jmh-projection", "secret", "jmh-projection@example.com"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopNode() {
+        productRepository.deleteById(productId);
+        userRepository.deleteById(userId);
+        context.close();
+    }
+
+    @Benchmark
+    public ProductResponse productEntity() {
+        return readOnly.execute(status -> {
+            Product p = productRepository.findById(productId).orElseThrow();
+            return new ProductResponse(
+                    p.getId(),
+                    p.getName(),
+                    p.getCategory(),
+                    p.getPrice(),
+                    p.getStockQuantity(),
+                    p.getSupplier(),
+                    p.getDescription(),
+                    p.getInsertionTime()
+            );
+        });
+    }
+
+    @Benchmark
+    public VersionedProduct productProjection() {
+        return readOnly.execute(status -> productJdbcRepository.findProduct(productId).orElseThrow());
+    }
+
+    @Benchmark
+    public UserResponse userEntity() {
+        return readOnly.execute(status -> {
+            User user = userRepository.findById(userId).orElseThrow();
+            return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getInsertionTime());
+        });
+    }
+
+    @Benchmark
+    public UserResponse userProjection() {
+        return readOnly.execute(status -> userRepository.findResponseById(userId).orElseThrow());
+    }
+}
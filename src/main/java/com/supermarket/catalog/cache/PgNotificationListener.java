@@ -0,0 +1,142 @@
+package com.supermarket.catalog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Holds one dedicated PostgreSQL connection in LISTEN mode and dispatches
+ * notifications to the handler subscribed to their channel. The connection is
+ * kept outside the pool, since it stays checked out for the life of the node.
+ * <p>
+ * After a reconnect every subscriber is told to resynchronise, because
+ * notifications sent while the connection was down are lost.
+ */
+@Slf4j
+@Component
+public class PgNotificationListener implements SmartLifecycle {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final int pollMillis;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public PgNotificationListener(DataSourceProperties dataSourceProperties,
+                                  @Value("${catalog.notifications.enabled:true}") boolean enabled,
+                                  @Value("${catalog.notifications.poll-millis:500}") int pollMillis) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Registers a channel. Must be called before the application context starts.
+     *
+     * @param onMessage receives the payload of every notification on the channel
+     * @param onResync  runs after the connection was re-established
+     */
+    public void subscribe(String channel, Consumer<String> onMessage, Runnable onResync) {
+        subscriptions.put(channel, new Subscription(onMessage, onResync));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || subscriptions.isEmpty()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "pg-notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+
+        boolean firstConnection = true;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : subscriptions.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                log.info("Listening for notifications on {}", subscriptions.keySet());
+
+                if (!firstConnection) {
+                    subscriptions.values().forEach(s -> s.onResync().run());
+                }
+                firstConnection = false;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Notification connection lost, reconnecting", e);
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(PGNotification notification) {
+
+        Subscription subscription = subscriptions.get(notification.getName());
+        if (subscription == null) {
+            return;
+        }
+        try {
+            subscription.onMessage().accept(notification.getParameter());
+        } catch (RuntimeException e) {
+            log.warn("Handler for channel {} failed", notification.getName(), e);
+        }
+    }
+
+    private record Subscription(Consumer<String> onMessage, Runnable onResync) {}
+}
@@ -0,0 +1,111 @@
+package com.supermarket.catalog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supermarket.catalog.dto.cache.CacheStatsResponse;
+import com.supermarket.catalog.dto.product.VersionedProduct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Near-cache of products by id, bounded by size and TTL.
+ * <p>
+ * Every mutation calls {@link #evict}: the local entry is dropped at once and
+ * again after commit, and a NOTIFY on {@value #CHANNEL} tells the other nodes
+ * to drop theirs. PostgreSQL only delivers the notification if the writing
+ * transaction commits.
+ */
+@Component
+public class ProductCache {
+
+    public static final String NAME = "products";
+    public static final String CHANNEL = "product_cache_invalidation";
+
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int IDS_PER_NOTIFICATION = 200;
+
+    private final Cache<UUID, VersionedProduct> products;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductCache(JdbcTemplate jdbcTemplate,
+                        PgNotificationListener notificationListener,
+                        @Value("${catalog.cache.product.ttl:30s}") Duration ttl,
+                        @Value("${catalog.cache.product.max-size:200000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.products = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        notificationListener.subscribe(CHANNEL, this::onNotification, products::invalidateAll);
+    }
+
+    /**
+     * Returns the cached product, loading it on a miss. An eviction that arrives
+     * while the load runs waits for it and then drops the loaded value.
+     *
+     * @return null when the loader finds nothing; misses are not cached
+     */
+    public VersionedProduct get(UUID productId, Function<UUID, VersionedProduct> loader) {
+        return products.get(productId, loader);
+    }
+
+    /**
+     * Returns the cached ones among the products, without loading the others. Unlike
+     * {@link #get}, a bulk load could not wait out a concurrent eviction, so callers
+     * read the rest themselves and leave them uncached.
+     */
+    public Map<UUID, VersionedProduct> getAllPresent(Collection<UUID> productIds) {
+        return products.getAllPresent(productIds);
+    }
+
+    public void evict(UUID productId) {
+        evictAll(List.of(productId));
+    }
+
+    public void evictAll(Collection<UUID> productIds) {
+
+        products.invalidateAll(productIds);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    products.invalidateAll(productIds);
+                }
+            });
+        }
+
+        List<UUID> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += IDS_PER_NOTIFICATION) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + IDS_PER_NOTIFICATION, ids.size()));
+            jdbcTemplate.queryForList(
+                    "SELECT pg_notify(?, ?)",
+                    CHANNEL,
+                    String.join(",", chunk.stream().map(UUID::toString).toList())
+            );
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        return CacheStatsResponse.of(NAME, products.estimatedSize(), products.stats());
+    }
+
+    private void onNotification(String payload) {
+        for (String id : payload.split(",")) {
+            products.invalidate(UUID.fromString(id));
+        }
+    }
+}
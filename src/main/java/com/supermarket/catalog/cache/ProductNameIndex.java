@@ -0,0 +1,341 @@
+package com.supermarket.catalog.cache;
+
+import com.supermarket.catalog.config.ReplicaRoutingContext;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Typeahead over product names, served from memory without touching the database.
+ * Suggestions are the products with a word starting with the prefix, by descending stock.
+ * <p>
+ * A {@link ProductNameSnapshot} is streamed from {@code products} on start and rebuilt every
+ * {@code rebuild-interval}, or sooner once {@code max-overlay} changes piled up. Products
+ * created, renamed or deleted through this node since the snapshot was read live in a small
+ * overlay that masks their snapshot entries; changes made on other nodes, by imports, and
+ * stock movements reach the index with the next rebuild. Until the first build completes,
+ * only the overlay is searched.
+ * <p>
+ * A snapshot holds about 75 MB per million products; a rebuild needs as much again, plus
+ * 8 bytes per indexed word, while the previous snapshot is still being served.
+ */
+@Slf4j
+@Component
+public class ProductNameIndex implements SmartLifecycle, MeterBinder {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    // Above every folded byte, which the overlay keys hold as chars up to 0xFF
+    private static final char KEY_LIMIT = '\u0100';
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration rebuildInterval;
+    private final int maxOverlay;
+
+    private volatile ProductNameSnapshot snapshot = ProductNameSnapshot.EMPTY;
+    private final AtomicLong sequence = new AtomicLong();
+    // Products changed since the snapshot was read; a null name marks a deletion
+    private final Map<UUID, Change> changes = new ConcurrentHashMap<>();
+    // Folded word suffixes of the changed names, each followed by the product id
+    private final ConcurrentSkipListSet<String> overlayKeys = new ConcurrentSkipListSet<>();
+    // Serialises writers of the overlay; readers go without
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    private ScheduledExecutorService builder;
+    private volatile boolean running;
+
+    public ProductNameIndex(ProductJdbcRepository productJdbcRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${catalog.autocomplete.enabled:true}") boolean enabled,
+                            @Value("${catalog.autocomplete.rebuild-interval:10m}") Duration rebuildInterval,
+                            @Value("${catalog.autocomplete.max-overlay:10000}") int maxOverlay) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.rebuildInterval = rebuildInterval;
+        this.maxOverlay = maxOverlay;
+    }
+
+    /**
+     * @param prefix already normalised: lower case, words separated by single spaces
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+
+        byte[] folded = fold(prefix);
+        ProductNameSnapshot current = snapshot;
+        List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+        List<Integer> weights = new ArrayList<>(limit);
+
+        int[] top = current.top(folded, limit,
+                changes.isEmpty() ? product -> false : product -> changes.containsKey(current.id(product)));
+        for (int product : top) {
+            suggestions.add(new ProductSuggestion(current.id(product), current.name(product)));
+            weights.add(current.weight(product));
+        }
+
+        if (!changes.isEmpty()) {
+            mergeOverlay(folded, limit, suggestions, weights);
+        }
+        return suggestions;
+    }
+
+    // ===== CHANGES =====
+    /**
+     * Records a new product once the surrounding transaction commits.
+     */
+    public void put(UUID productId, String name, int stockQuantity) {
+        afterCommit(() -> record(productId, name, stockQuantity));
+    }
+
+    /**
+     * Records a new name for the product once the surrounding transaction commits; it keeps its weight.
+     */
+    public void rename(UUID productId, String name) {
+
+        afterCommit(() -> {
+            Change previous = changes.get(productId);
+            int weight;
+            if (previous != null) {
+                weight = previous.weight();
+            } else {
+                ProductNameSnapshot current = snapshot;
+                int product = current.find(productId);
+                weight = product >= 0 ? current.weight(product) : 0;
+            }
+            record(productId, name, weight);
+        });
+    }
+
+    public void remove(UUID productId) {
+        afterCommit(() -> record(productId, null, 0));
+    }
+
+    /**
+     * Reads a fresh snapshot from the database and drops the changes it already contains.
+     */
+    public void rebuild() {
+
+        rebuildLock.lock();
+        try {
+            // Changes are recorded after their commit, so everything up to here is visible to a
+            // stream on the primary; a replica may not have replayed them yet
+            long watermark = sequence.get();
+            long start = System.nanoTime();
+
+            ProductNameSnapshot.Builder snapshotBuilder = new ProductNameSnapshot.Builder();
+            ReplicaRoutingContext.onPrimary(() -> transactionTemplate.executeWithoutResult(
+                    status -> productJdbcRepository.streamNames(snapshotBuilder::add)));
+            ProductNameSnapshot built = snapshotBuilder.build();
+
+            changeLock.lock();
+            try {
+                snapshot = built;
+                changes.values().removeIf(change -> {
+                    if (change.sequence() > watermark) {
+                        return false;
+                    }
+                    removeKeys(change);
+                    return true;
+                });
+            } finally {
+                changeLock.unlock();
+            }
+
+            log.info("Product name index rebuilt with {} products and {} entries in {} ms, {} MB",
+                    built.products(), built.entries(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    built.sizeInBytes() / (1024 * 1024));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        builder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "product-name-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first build runs at once, without holding up startup
+        builder.scheduleWithFixedDelay(this::rebuildInBackground,
+                0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (builder != null) {
+            builder.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("catalog.autocomplete.products", this, index -> index.snapshot.products())
+                .description("Products in the autocomplete snapshot")
+                .register(registry);
+        Gauge.builder("catalog.autocomplete.size", this, index -> index.snapshot.sizeInBytes())
+                .description("Memory held by the autocomplete snapshot")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("catalog.autocomplete.overlay", this, index -> index.changes.size())
+                .description("Products changed since the autocomplete snapshot was built")
+                .register(registry);
+    }
+
+    // ===== HELPERS =====
+    private void rebuildInBackground() {
+
+        rebuildQueued.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Product name index rebuild failed, keeping the previous snapshot", e);
+        }
+    }
+
+    private void record(UUID productId, String name, int weight) {
+
+        changeLock.lock();
+        try {
+            Change change = new Change(productId, sequence.incrementAndGet(), name, weight);
+            Change previous = changes.put(productId, change);
+            if (previous != null) {
+                removeKeys(previous);
+            }
+            if (name != null) {
+                for (String suffix : wordSuffixes(name)) {
+                    overlayKeys.add(suffix + KEY_SEPARATOR + productId);
+                }
+            }
+        } finally {
+            changeLock.unlock();
+        }
+
+        if (changes.size() >= maxOverlay && running && rebuildQueued.compareAndSet(false, true)) {
+            builder.execute(this::rebuildInBackground);
+        }
+    }
+
+    private void removeKeys(Change change) {
+
+        if (change.name() == null) {
+            return;
+        }
+        for (String suffix : wordSuffixes(change.name())) {
+            overlayKeys.remove(suffix + KEY_SEPARATOR + change.productId());
+        }
+    }
+
+    /**
+     * Adds the changed products matching the prefix and keeps the best {@code limit} of both.
+     */
+    private void mergeOverlay(byte[] prefix, int limit, List<ProductSuggestion> suggestions, List<Integer> weights) {
+
+        String from = new String(prefix, StandardCharsets.ISO_8859_1);
+        Set<UUID> seen = new HashSet<>();
+        for (String key : overlayKeys.subSet(from, from + KEY_LIMIT)) {
+            UUID productId = UUID.fromString(key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1));
+            Change change = changes.get(productId);
+            if (change != null && change.name() != null && seen.add(productId)) {
+                suggestions.add(new ProductSuggestion(productId, change.name()));
+                weights.add(change.weight());
+            }
+        }
+
+        List<Integer> order = new ArrayList<>(suggestions.size());
+        for (int i = 0; i < suggestions.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(weights::get, Comparator.reverseOrder()));
+
+        List<ProductSuggestion> merged = order.stream()
+                .limit(limit)
+                .map(suggestions::get)
+                .toList();
+        suggestions.clear();
+        suggestions.addAll(merged);
+    }
+
+    private static List<String> wordSuffixes(String name) {
+
+        byte[] folded = fold(name);
+        List<String> suffixes = new ArrayList<>();
+        for (int i = 0; i < folded.length; i++) {
+            if (folded[i] != ' ' && (i == 0 || folded[i - 1] == ' ')) {
+                suffixes.add(new String(folded, i, folded.length - i, StandardCharsets.ISO_8859_1));
+            }
+        }
+        return suffixes;
+    }
+
+    private static byte[] fold(String text) {
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ProductNameSnapshot.fold(bytes[i]);
+        }
+        return bytes;
+    }
+
+    private static void afterCommit(Runnable action) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Change(UUID productId, long sequence, String name, int weight) {}
+}
@@ -0,0 +1,492 @@
+package com.supermarket.catalog.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable prefix index over product names, held in a handful of primitive arrays.
+ * <p>
+ * Every word start of a name is an entry, sorted by the name from that word on, so a
+ * prefix selects one contiguous range of entries whichever word it starts at. Names are
+ * kept once as UTF-8; comparisons fold ASCII letters to lower case and ASCII punctuation
+ * to a space. The highest weights of a range are found by skipping 32- and 1024-entry
+ * blocks whose maximum cannot make the top K, so even a one-letter prefix reads a few
+ * thousand ints. Products are numbered in id order, so an id is found by binary search.
+ * <p>
+ * At the average of 30-byte names with four words, this is about 75 bytes per product:
+ * 30 of name, 16 of id, 8 of offset and weight, 20 of entries and 1 of block maxima.
+ */
+final class ProductNameSnapshot {
+
+    static final ProductNameSnapshot EMPTY = new Builder().build();
+
+    // Only words starting within the first 256 bytes of a name are indexed
+    private static final int MAX_WORD_OFFSET = 255;
+    private static final int MAX_WORDS = 8;
+    private static final int BLOCK = 32;
+    private static final int SUPER_BLOCK = BLOCK * BLOCK;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final byte[] names;
+    // Start of each product's name in names, plus one end offset
+    private final int[] nameOffsets;
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final int[] weights;
+    private final int[] entryProducts;
+    private final byte[] entryWordOffsets;
+    private final int[] blockMax;
+    private final int[] superBlockMax;
+
+    private ProductNameSnapshot(byte[] names, int[] nameOffsets, long[] idHigh, long[] idLow, int[] weights,
+                                int[] entryProducts, byte[] entryWordOffsets) {
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.idHigh = idHigh;
+        this.idLow = idLow;
+        this.weights = weights;
+        this.entryProducts = entryProducts;
+        this.entryWordOffsets = entryWordOffsets;
+        this.blockMax = blockMaxima(BLOCK);
+        this.superBlockMax = blockMaxima(SUPER_BLOCK);
+    }
+
+    int products() {
+        return weights.length;
+    }
+
+    int entries() {
+        return entryProducts.length;
+    }
+
+    long sizeInBytes() {
+        return names.length
+                + 4L * nameOffsets.length
+                + 8L * idHigh.length
+                + 8L * idLow.length
+                + 4L * weights.length
+                + 4L * entryProducts.length
+                + entryWordOffsets.length
+                + 4L * blockMax.length
+                + 4L * superBlockMax.length;
+    }
+
+    UUID id(int product) {
+        return new UUID(idHigh[product], idLow[product]);
+    }
+
+    String name(int product) {
+        return new String(names, nameOffsets[product], nameOffsets[product + 1] - nameOffsets[product],
+                StandardCharsets.UTF_8);
+    }
+
+    int weight(int product) {
+        return weights[product];
+    }
+
+    /**
+     * @return the product number of the id, or -1 when it is not in the snapshot
+     */
+    int find(UUID id) {
+
+        int low = 0;
+        int high = weights.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareIds(idHigh[mid], idLow[mid], id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Byte order, as PostgreSQL sorts uuid, rather than the signed order of {@link UUID#compareTo}.
+     */
+    private static int compareIds(long highA, long lowA, long highB, long lowB) {
+        int cmp = Long.compareUnsigned(highA, highB);
+        return cmp != 0 ? cmp : Long.compareUnsigned(lowA, lowB);
+    }
+
+    /**
+     * Finds the products with the highest weights among those with a word that starts with
+     * {@code prefix}, each product once.
+     *
+     * @param prefix  folded with {@link #fold}
+     * @param skipped products left out of the result, e.g. because they changed since the build
+     * @return product numbers by descending weight
+     */
+    int[] top(byte[] prefix, int k, IntPredicate skipped) {
+
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+        TopK top = new TopK(k);
+
+        int entry = from;
+        while (entry < to) {
+            if (entry % SUPER_BLOCK == 0 && entry + SUPER_BLOCK <= to
+                    && superBlockMax[entry / SUPER_BLOCK] <= top.threshold()) {
+                entry += SUPER_BLOCK;
+            } else if (entry % BLOCK == 0 && entry + BLOCK <= to
+                    && blockMax[entry / BLOCK] <= top.threshold()) {
+                entry += BLOCK;
+            } else {
+                int product = entryProducts[entry];
+                if (weights[product] > top.threshold() && !skipped.test(product)) {
+                    top.offer(product, weights[product]);
+                }
+                entry++;
+            }
+        }
+        return top.descending();
+    }
+
+    // ===== KEYS =====
+    /**
+     * Lower-cases ASCII letters and turns ASCII punctuation and whitespace into a space;
+     * other bytes, including all of multi-byte UTF-8, compare as they are.
+     */
+    static int fold(byte b) {
+
+        if (b >= 'A' && b <= 'Z') {
+            return b + ('a' - 'A');
+        }
+        if (b >= 0 && !isWordByte(b)) {
+            return ' ';
+        }
+        return b & 0xFF;
+    }
+
+    private static boolean isWordByte(byte b) {
+        return b < 0 || (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * @param past false for the first entry whose key does not sort before the prefix,
+     *             true for the first entry whose key sorts after every key with the prefix
+     */
+    private int lowerBound(byte[] prefix, boolean past) {
+
+        int low = 0;
+        int high = entryProducts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (past && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the first {@code prefix.length} key bytes of the entry with the prefix.
+     */
+    private int comparePrefix(int entry, byte[] prefix) {
+
+        int product = entryProducts[entry];
+        int position = nameOffsets[product] + (entryWordOffsets[entry] & 0xFF);
+        int end = nameOffsets[product + 1];
+        for (int i = 0; i < prefix.length; i++, position++) {
+            if (position == end) {
+                return -1;
+            }
+            int cmp = Integer.compare(fold(names[position]), prefix[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private int[] blockMaxima(int blockSize) {
+
+        int[] maxima = new int[(entryProducts.length + blockSize - 1) / blockSize];
+        Arrays.fill(maxima, Integer.MIN_VALUE);
+        for (int entry = 0; entry < entryProducts.length; entry++) {
+            int block = entry / blockSize;
+            maxima[block] = Math.max(maxima[block], weights[entryProducts[entry]]);
+        }
+        return maxima;
+    }
+
+    // ===== TOP K =====
+    /**
+     * Min-heap of the best products so far, rooted at the weakest one.
+     */
+    private static final class TopK {
+
+        private final int[] products;
+        private final int[] weights;
+        private int size;
+
+        private TopK(int k) {
+            this.products = new int[k];
+            this.weights = new int[k];
+        }
+
+        int threshold() {
+            return size < products.length ? Integer.MIN_VALUE : weights[0];
+        }
+
+        void offer(int product, int weight) {
+
+            // A product whose name has several matching words enters once; k is small
+            for (int i = 0; i < size; i++) {
+                if (products[i] == product) {
+                    return;
+                }
+            }
+            if (size < products.length) {
+                products[size] = product;
+                weights[size] = weight;
+                siftUp(size++);
+            } else {
+                products[0] = product;
+                weights[0] = weight;
+                siftDown(0);
+            }
+        }
+
+        int[] descending() {
+
+            int[] result = new int[size];
+            while (size > 0) {
+                result[size - 1] = products[0];
+                size--;
+                products[0] = products[size];
+                weights[0] = weights[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0 && weights[(i - 1) / 2] > weights[i]) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (weights[child] < weights[smallest]) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int product = products[a];
+            products[a] = products[b];
+            products[b] = product;
+            int weight = weights[a];
+            weights[a] = weights[b];
+            weights[b] = weight;
+        }
+    }
+
+    // ===== BUILD =====
+    /**
+     * Collects products in ascending id order; {@link #build} sorts the entries once.
+     */
+    static final class Builder {
+
+        private byte[] names = new byte[1 << 16];
+        private int namesLength;
+        private int[] nameOffsets = new int[1 << 10];
+        private long[] idHigh = new long[1 << 10];
+        private long[] idLow = new long[1 << 10];
+        private int[] weights = new int[1 << 10];
+        private int products;
+        private int[] entryProducts = new int[1 << 12];
+        private byte[] entryWordOffsets = new byte[1 << 12];
+        private int entries;
+
+        void add(UUID id, String name, int weight) {
+
+            if (products > 0 && compareIds(idHigh[products - 1], idLow[products - 1],
+                    id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0) {
+                throw new IllegalArgumentException("Products must be added in ascending id order: " + id);
+            }
+
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (products + 1 == nameOffsets.length) {
+                int capacity = nameOffsets.length * 2;
+                nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            if (namesLength + bytes.length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + bytes.length));
+            }
+
+            nameOffsets[products] = namesLength;
+            System.arraycopy(bytes, 0, names, namesLength, bytes.length);
+            namesLength += bytes.length;
+            idHigh[products] = id.getMostSignificantBits();
+            idLow[products] = id.getLeastSignificantBits();
+            weights[products] = weight;
+
+            int words = 0;
+            for (int i = 0; i < bytes.length && i <= MAX_WORD_OFFSET && words < MAX_WORDS; i++) {
+                if (isWordByte(bytes[i]) && (i == 0 || !isWordByte(bytes[i - 1]))) {
+                    if (entries == entryProducts.length) {
+                        entryProducts = Arrays.copyOf(entryProducts, entries * 2);
+                        entryWordOffsets = Arrays.copyOf(entryWordOffsets, entries * 2);
+                    }
+                    entryProducts[entries] = products;
+                    entryWordOffsets[entries] = (byte) i;
+                    entries++;
+                    words++;
+                }
+            }
+            products++;
+        }
+
+        ProductNameSnapshot build() {
+
+            nameOffsets[products] = namesLength;
+            int[] sortedProducts = Arrays.copyOf(entryProducts, entries);
+            byte[] sortedOffsets = Arrays.copyOf(entryWordOffsets, entries);
+            int[] offsets = Arrays.copyOf(nameOffsets, products + 1);
+            byte[] packedNames = Arrays.copyOf(names, namesLength);
+
+            new EntrySorter(packedNames, offsets, sortedProducts, sortedOffsets, new long[entries])
+                    .sort(0, entries - 1, 0);
+
+            return new ProductNameSnapshot(
+                    packedNames,
+                    offsets,
+                    Arrays.copyOf(idHigh, products),
+                    Arrays.copyOf(idLow, products),
+                    Arrays.copyOf(weights, products),
+                    sortedProducts,
+                    sortedOffsets
+            );
+        }
+    }
+
+    /**
+     * Sorts the parallel entry arrays eight key bytes at a time. A range is loaded with one
+     * chunk of each key and quicksorted on those longs, which stay in cache; runs equal on the
+     * chunk then go on with the next one. Each name byte is read about once per level instead
+     * of once per comparison, which matters with the long prefixes product names share.
+     */
+    private record EntrySorter(byte[] names, int[] nameOffsets, int[] products, byte[] wordOffsets, long[] chunks) {
+
+        void sort(int low, int high, int depth) {
+
+            for (int entry = low; entry <= high; entry++) {
+                chunks[entry] = chunk(entry, depth);
+            }
+            sortChunks(low, high);
+
+            int run = low;
+            for (int entry = low + 1; entry <= high + 1; entry++) {
+                if (entry > high || chunks[entry] != chunks[run]) {
+                    // Keys that ended within the chunk are equal
+                    if (entry - run > 1 && (chunks[run] & 0xFF) != 0) {
+                        sort(run, entry - 1, depth + 1);
+                    }
+                    run = entry;
+                }
+            }
+        }
+
+        /**
+         * Three-way quicksort on the loaded chunks, carrying the entries along.
+         */
+        private void sortChunks(int low, int high) {
+
+            while (high - low >= INSERTION_SORT_THRESHOLD) {
+                long pivot = median(chunks[low], chunks[(low + high) >>> 1], chunks[high]);
+
+                int less = low;
+                int greater = high;
+                int i = low;
+                while (i <= greater) {
+                    int cmp = Long.compareUnsigned(chunks[i], pivot);
+                    if (cmp < 0) {
+                        swap(less++, i++);
+                    } else if (cmp > 0) {
+                        swap(i, greater--);
+                    } else {
+                        i++;
+                    }
+                }
+
+                // Recursing into the smaller side bounds the stack depth to log n
+                if (less - low < high - greater) {
+                    sortChunks(low, less - 1);
+                    low = greater + 1;
+                } else {
+                    sortChunks(greater + 1, high);
+                    high = less - 1;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && Long.compareUnsigned(chunks[j - 1], chunks[j]) > 0; j--) {
+                    swap(j - 1, j);
+                }
+            }
+        }
+
+        /**
+         * Key bytes {@code 8 * depth} to {@code 8 * depth + 7} of the entry, zero past its end.
+         */
+        private long chunk(int entry, int depth) {
+
+            int position = nameOffsets[products[entry]] + (wordOffsets[entry] & 0xFF) + depth * Long.BYTES;
+            int end = nameOffsets[products[entry] + 1];
+            long chunk = 0;
+            for (int i = 0; i < Long.BYTES; i++, position++) {
+                chunk = (chunk << 8) | (position < end ? fold(names[position]) : 0);
+            }
+            return chunk;
+        }
+
+        private static long median(long a, long b, long c) {
+
+            if (Long.compareUnsigned(a, b) > 0) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            if (Long.compareUnsigned(b, c) <= 0) {
+                return b;
+            }
+            return Long.compareUnsigned(a, c) >= 0 ? a : c;
+        }
+
+        private void swap(int a, int b) {
+            long chunk = chunks[a];
+            chunks[a] = chunks[b];
+            chunks[b] = chunk;
+            int product = products[a];
+            products[a] = products[b];
+            products[b] = product;
+            byte offset = wordOffsets[a];
+            wordOffsets[a] = wordOffsets[b];
+            wordOffsets[b] = offset;
+        }
+    }
+}
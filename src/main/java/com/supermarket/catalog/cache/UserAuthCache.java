@@ -0,0 +1,62 @@
+package com.supermarket.catalog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supermarket.catalog.dto.cache.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Usernames by user id, for header authentication. Bounded by size and TTL;
+ * {@link com.supermarket.catalog.service.UserService} evicts an entry as soon
+ * as the user is renamed or deleted. Unknown ids are never cached.
+ */
+@Component
+public class UserAuthCache {
+
+    public static final String NAME = "user-auth";
+
+    private final Cache<UUID, String> usernames;
+
+    public UserAuthCache(@Value("${catalog.cache.user-auth.ttl:5m}") Duration ttl,
+                         @Value("${catalog.cache.user-auth.max-size:100000}") long maxSize) {
+        this.usernames = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<String> username(UUID userId, Function<UUID, Optional<String>> loader) {
+        return Optional.ofNullable(usernames.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Inside a transaction, evicts again once it commits: a load in between still reads the
+     * row as it was.
+     */
+    public void invalidate(UUID userId) {
+
+        usernames.invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usernames.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        return CacheStatsResponse.of(NAME, usernames.estimatedSize(), usernames.stats());
+    }
+}
@@ -0,0 +1,83 @@
+package com.supermarket.catalog.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConcurrencyLimitingDataSource} in front of the connection pool. Meant for
+ * virtual-thread mode, where request concurrency is no longer capped by the Tomcat pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "catalog.datasource.limiter.enabled", havingValue = "true")
+public class DataSourceLimiterConfig {
+
+    // Static, so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor dataSourceLimiterPostProcessor(Environment environment) {
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !isLimited(dataSource)
+                        ? limit(dataSource, beanName, environment)
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Wraps one pool in a limiter sized from the {@code catalog.datasource.limiter} properties.
+     */
+    static DataSource limit(DataSource dataSource, String name, Environment environment) {
+
+        // Zero means one permit per pooled connection, so the pool itself never queues
+        int permits = environment.getProperty("catalog.datasource.limiter.permits", Integer.class, 0);
+        if (permits <= 0 && dataSource instanceof HikariDataSource hikari) {
+            permits = hikari.getMaximumPoolSize();
+        }
+        if (permits <= 0) {
+            log.warn("No permit count for DataSource {}, leaving it unlimited", name);
+            return dataSource;
+        }
+        Duration acquireTimeout = environment.getProperty(
+                "catalog.datasource.limiter.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+
+        log.info("Limiting DataSource {} to {} concurrent connections", name, permits);
+        return new ConcurrencyLimitingDataSource(dataSource, permits, acquireTimeout);
+    }
+
+    // The replica routing limits each of its pools itself
+    private static boolean isLimited(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Bean
+    public MeterBinder dataSourceLimiterMetrics(ObjectProvider<DataSource> dataSources) {
+
+        return registry -> dataSources.forEach(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)) {
+                    dataSource.unwrap(ConcurrencyLimitingDataSource.class).bindTo(registry);
+                }
+            } catch (SQLException e) {
+                log.warn("Could not bind DataSource limiter metrics", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.supermarket.catalog.config;
+
+import com.supermarket.catalog.id.IdGenerator;
+import com.supermarket.catalog.id.UuidV7Generator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.util.UUID;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Time-ordered v7 ids by default; {@code catalog.ids.version=4} goes back to random ones.
+     */
+    @Bean
+    public IdGenerator idGenerator(Clock clock, @Value("${catalog.ids.version:7}") int version) {
+        return switch (version) {
+            case 4 -> UUID::randomUUID;
+            case 7 -> new UuidV7Generator(clock);
+            default -> throw new IllegalArgumentException("Unsupported UUID version: " + version);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.supermarket.catalog.config;
+
+import com.supermarket.catalog.metrics.RequestStatementsFilter;
+import com.supermarket.catalog.metrics.StatementCounter;
+import com.supermarket.catalog.metrics.StatementListeningDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // Static, so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor statementCounterPostProcessor(StatementCounter statementCounter) {
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? new StatementListeningDataSource(dataSource, statementCounter, false)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestStatementsFilter> requestStatementsFilter(StatementCounter statementCounter,
+                                                                                   MeterRegistry registry) {
+        FilterRegistrationBean<RequestStatementsFilter> registration =
+                new FilterRegistrationBean<>(new RequestStatementsFilter(statementCounter, registry));
+        registration.addUrlPatterns("/products/*", "/users/*", "/reservations/*", "/inventory/*");
+        return registration;
+    }
+}
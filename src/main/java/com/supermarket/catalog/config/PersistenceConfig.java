@@ -1,4 +1,91 @@
 package com.supermarket.catalog.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
 public class PersistenceConfig {
+
+    private static final String REPLICAS_ENABLED = "catalog.datasource.replicas.enabled";
+
+    // ===== READ REPLICAS =====
+    /**
+     * The primary pool, built from {@code spring.datasource} as Spring Boot would, and one pool
+     * per replica URL sharing its settings and credentials.
+     */
+    @Bean
+    @ConditionalOnProperty(name = REPLICAS_ENABLED, havingValue = "true")
+    public ReplicaRouting replicaRouting(DataSourceProperties properties,
+                                         Environment environment,
+                                         @Value("${catalog.datasource.replicas.urls}") List<String> urls,
+                                         @Value("${catalog.datasource.replicas.pool-size:10}") int poolSize,
+                                         @Value("${catalog.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                                         @Value("${catalog.datasource.replicas.read-your-writes-window:5s}") Duration readYourWritesWindow,
+                                         @Value("${catalog.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval,
+                                         @Value("${catalog.datasource.replicas.max-lag:30s}") Duration maxLag) {
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            // Short, so a replica that went away costs a read little more than this before it fails over
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        boolean limited = environment.getProperty("catalog.datasource.limiter.enabled", Boolean.class, false);
+        List<DataSource> replicaPools = replicas.stream()
+                .map(replica -> limited ? DataSourceLimiterConfig.limit(replica, replica.getPoolName(), environment) : replica)
+                .toList();
+
+        return new ReplicaRouting(
+                limited ? DataSourceLimiterConfig.limit(primary, "primary", environment) : primary,
+                replicaPools,
+                readYourWritesWindow,
+                healthCheckInterval,
+                maxLag);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = REPLICAS_ENABLED, havingValue = "true")
+    public DataSource dataSource(ReplicaRouting replicaRouting) {
+        return replicaRouting.dataSource();
+    }
+
+    // Each transaction takes its own connection, so a session that read from a replica writes to the primary
+    @Bean
+    @ConditionalOnProperty(name = REPLICAS_ENABLED, havingValue = "true")
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = REPLICAS_ENABLED, havingValue = "true")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter());
+    }
 }
@@ -0,0 +1,51 @@
+package com.supermarket.catalog.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Binds the user a request acts for, so {@link ReplicaRouting} can keep their reads on the
+ * primary right after they write. The header is not verified yet at this point; a forged
+ * one can only move its own reads to the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        UUID userId = parse(request.getHeader(USER_ID_HEADER));
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaRoutingContext.bindUser(userId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingContext.unbindUser();
+        }
+    }
+
+    private static UUID parse(String userId) {
+
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
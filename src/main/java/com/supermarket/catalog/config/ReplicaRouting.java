@@ -0,0 +1,323 @@
+package com.supermarket.catalog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends read-only transactions to the replicas, round robin over the healthy ones, and
+ * everything else to the primary.
+ * <p>
+ * The connection behind {@link #dataSource()} is only taken once the transaction runs its
+ * first statement, when it is known to be read-only. A replica that fails to hand out a
+ * connection, or that a health check finds unreachable or more than {@code max-lag} behind,
+ * is skipped until a later check finds it well again; with no healthy replica, reads go to
+ * the primary.
+ * <p>
+ * A user whose transaction wrote reads from the primary for the read-your-writes window
+ * after its commit, so they see their own change before the replicas do. The window is
+ * kept per node.
+ */
+@Slf4j
+public class ReplicaRouting implements SmartLifecycle, MeterBinder, DisposableBean {
+
+    // Zero unless the server replays WAL that it has received but not yet applied
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END::bigint
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Cache<UUID, Boolean> pinnedUsers;
+    private final Duration healthCheckInterval;
+    private final Duration maxLag;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    private ScheduledExecutorService healthChecker;
+    private volatile boolean running;
+
+    public ReplicaRouting(DataSource primary,
+                          List<DataSource> replicas,
+                          Duration readYourWritesWindow,
+                          Duration healthCheckInterval,
+                          Duration maxLag) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.pinnedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.healthCheckInterval = healthCheckInterval;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * The application DataSource: a lazy proxy that routes each connection once it is first used.
+     */
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource());
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Checks every replica now, rather than waiting for the next scheduled check.
+     */
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    @Override
+    public void start() {
+
+        running = true;
+        if (replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void destroy() {
+
+        close(primary);
+        replicas.forEach(replica -> close(replica.dataSource));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("catalog.datasource.replicas.healthy", this, ReplicaRouting::healthyReplicas)
+                .description("Replicas currently receiving read-only transactions")
+                .register(registry);
+        FunctionCounter.builder("catalog.datasource.reads", replicaReads, AtomicLong::get)
+                .description("Read-only transactions by where they ran")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("catalog.datasource.reads", pinnedReads, AtomicLong::get)
+                .description("Read-only transactions by where they ran")
+                .tag("target", "primary-pinned")
+                .register(registry);
+        FunctionCounter.builder("catalog.datasource.reads", fallbackReads, AtomicLong::get)
+                .description("Read-only transactions by where they ran")
+                .tag("target", "primary-fallback")
+                .register(registry);
+
+        // Spring Boot binds the pool behind the DataSource bean, which unwraps to the primary;
+        // the replica pools are not beans, so their hikaricp metrics are bound here
+        replicas.forEach(replica -> bindPoolMetrics(replica, registry));
+    }
+
+    // ===== ROUTING =====
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection from(DataSource dataSource) throws SQLException;
+    }
+
+    private Connection connection(ConnectionSource source) throws SQLException {
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pinAfterWrite();
+            return source.from(primary);
+        }
+
+        UUID user = ReplicaRoutingContext.currentUser();
+        if (ReplicaRoutingContext.primaryRequired() || (user != null && pinnedUsers.getIfPresent(user) != null)) {
+            pinnedReads.incrementAndGet();
+            return source.from(primary);
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = source.from(replica.dataSource);
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+        fallbackReads.incrementAndGet();
+        return source.from(primary);
+    }
+
+    /**
+     * Starts the user's window once the writing transaction commits, or at once without one.
+     */
+    private void pinAfterWrite() {
+
+        UUID user = ReplicaRoutingContext.currentUser();
+        if (user == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pinnedUsers.put(user, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pinnedUsers.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    // ===== HEALTH =====
+    private void check(Replica replica) {
+
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(LAG_SQL)) {
+
+            lag.next();
+            long lagMillis = lag.getLong(1);
+            if (lagMillis > maxLag.toMillis()) {
+                markUnhealthy(replica, "replication lag of " + lagMillis + " ms");
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is healthy again, resuming reads", replica.name);
+            }
+        } catch (SQLException | RuntimeException e) {
+            markUnhealthy(replica, e.getMessage());
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    // ===== METRICS =====
+    private static void bindPoolMetrics(Replica replica, MeterRegistry registry) {
+
+        try {
+            if (!replica.dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            HikariDataSource pool = replica.dataSource.unwrap(HikariDataSource.class);
+            if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Hikari refuses a tracker once the pool has started
+            log.warn("Could not bind pool metrics of {}", replica.name, e);
+        }
+    }
+
+    private static void close(DataSource dataSource) {
+
+        try {
+            if (dataSource.isWrapperFor(Closeable.class)) {
+                dataSource.unwrap(Closeable.class).close();
+            }
+        } catch (SQLException | IOException e) {
+            log.warn("Could not close DataSource", e);
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Unwraps to the primary, so pool metrics and the limiter see it as they would without replicas.
+     */
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(dataSource -> dataSource.getConnection(username, password));
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+}
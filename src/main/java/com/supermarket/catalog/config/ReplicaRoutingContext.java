@@ -0,0 +1,62 @@
+package com.supermarket.catalog.config;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * What {@link ReplicaRouting} needs to know about the current thread: the user it acts for,
+ * whose reads stay on the primary for a while after they write, and whether the caller asked
+ * for the primary outright. Has no effect when no replicas are configured.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<UUID> USER = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void bindUser(UUID userId) {
+        USER.set(userId);
+    }
+
+    public static void unbindUser() {
+        USER.remove();
+    }
+
+    /**
+     * Runs the action with every connection it opens taken from the primary, for a read that
+     * must see what was committed a moment ago. A connection already held by the surrounding
+     * transaction stays where it is.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * {@link #onPrimary(Supplier)} for an action without a result.
+     */
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static UUID currentUser() {
+        return USER.get();
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
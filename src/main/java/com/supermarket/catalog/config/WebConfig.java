@@ -15,6 +15,7 @@ public class WebConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(headerUserValidator)
-                .addPathPatterns("/products", "/products/**");
+                .addPathPatterns("/products", "/products/**", "/reservations", "/reservations/**",
+                        "/inventory", "/inventory/**", "/caches", "/caches/**");
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.cache.UserAuthCache;
+import com.supermarket.catalog.dto.cache.CacheStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final UserAuthCache userAuthCache;
+    private final ProductCache productCache;
+
+    @GetMapping
+    public List<CacheStatsResponse> stats() {
+        return List.of(userAuthCache.stats(), productCache.stats());
+    }
+}
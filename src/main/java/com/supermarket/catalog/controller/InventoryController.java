@@ -0,0 +1,35 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.dto.inventory.InventoryAggregateResponse;
+import com.supermarket.catalog.dto.inventory.InventoryReconciliationResponse;
+import com.supermarket.catalog.exception.ConflictException;
+import com.supermarket.catalog.service.InventoryAggregateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/inventory")
+@RequiredArgsConstructor
+public class InventoryController {
+
+    private final InventoryAggregateService inventoryAggregateService;
+
+    @GetMapping("/categories")
+    public List<InventoryAggregateResponse> byCategory() {
+        return inventoryAggregateService.byCategory();
+    }
+
+    @GetMapping("/suppliers")
+    public List<InventoryAggregateResponse> bySupplier() {
+        return inventoryAggregateService.bySupplier();
+    }
+
+    @PostMapping("/reconcile")
+    public InventoryReconciliationResponse reconcile()
+            throws ConflictException {
+
+        return inventoryAggregateService.reconcile();
+    }
+}
@@ -0,0 +1,61 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.dto.product.LowStockResponse;
+import com.supermarket.catalog.dto.product.ReorderThresholdRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.service.LowStockService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/products")
+public class LowStockController {
+
+    private final LowStockService lowStockService;
+    private final Duration streamTimeout;
+
+    public LowStockController(LowStockService lowStockService,
+                              @Value("${catalog.low-stock.stream-timeout:30m}") Duration streamTimeout) {
+        this.lowStockService = lowStockService;
+        this.streamTimeout = streamTimeout;
+    }
+
+    @PutMapping("/{id}/stock/reorder-threshold")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public UUID setReorderThreshold(@PathVariable UUID id,
+                                    @RequestBody @Valid ReorderThresholdRequest request)
+            throws EntityNotFoundException {
+
+       return lowStockService.setReorderThreshold(id, request);
+    }
+
+    @GetMapping("/low-stock")
+    public List<LowStockResponse> lowStock(@RequestParam(defaultValue = "100") int limit)
+            throws InvalidInputException {
+
+        return lowStockService.listLowStock(limit);
+    }
+
+    @GetMapping(value = "/low-stock/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter lowStockEvents() {
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        LowStockService.Subscription subscription = lowStockService.subscribe((name, data) -> {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name);
+            emitter.send(data == null ? event.data("") : event.data(data, MediaType.APPLICATION_JSON));
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+}
@@ -0,0 +1,76 @@
+package com.supermarket.catalog.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.supermarket.catalog.dto.product.ProductChangeWindow;
+import com.supermarket.catalog.exception.GoneException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.service.ProductChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+public class ProductChangeController {
+
+    public static final String CHANGE_TOKEN = "X-Change-Token";
+    public static final String HELD_BACK = "X-Change-Held-Back";
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ProductChangeService productChangeService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams the products changed since the token, one JSON object per line. The
+     * {@value #CHANGE_TOKEN} header resumes the feed once the whole body was applied;
+     * a client cut off halfway resumes from the token of the last line it applied.
+     * <p>
+     * The feed stops at the oldest transaction still writing anywhere on the primary, since
+     * it could yet commit a change behind that point. A long writer, such as a bulk import or
+     * a session left idle in a transaction, stalls the feed for every client until it ends;
+     * the changes are then all returned, none is lost. Transactions that only read take no
+     * transaction id and never stall it. {@value #HELD_BACK} counts the transactions started
+     * since the returned token's position: zero or small when the feed is current, and
+     * growing across reads while it is held back.
+     */
+    @GetMapping(value = "/changes", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> changes(@RequestParam(required = false) String since)
+            throws InvalidInputException, GoneException {
+
+        ProductChangeWindow window = productChangeService.openWindow(since);
+
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+
+                productChangeService.streamChanges(window, change -> {
+                    try {
+                        writer.write(change);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(CHANGE_TOKEN, window.until().encode())
+                .header(HELD_BACK, Long.toString(window.heldBack()))
+                .body(body);
+    }
+}
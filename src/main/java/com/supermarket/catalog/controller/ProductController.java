@@ -1,18 +1,45 @@
 package com.supermarket.catalog.controller;
 
-import com.supermarket.catalog.domain.product.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
 import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductImportFormat;
+import com.supermarket.catalog.dto.product.ProductImportResult;
+import com.supermarket.catalog.dto.product.ProductLookupRequest;
+import com.supermarket.catalog.dto.product.ProductLookupResponse;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
 import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
 import com.supermarket.catalog.dto.product.StockUpdateRequest;
 import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
 import com.supermarket.catalog.exception.InvalidInputException;
 import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.PreconditionFailedException;
+import com.supermarket.catalog.service.ProductImportService;
 import com.supermarket.catalog.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -20,7 +47,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -31,48 +63,134 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ProductResponse get(@PathVariable UUID id)
+    public ResponseEntity<ProductResponse> get(@PathVariable UUID id, WebRequest webRequest)
             throws EntityNotFoundException {
 
-        Product p = productService.getProduct(id);
-
-        return new ProductResponse(
-                p.getId(),
-                p.getName(),
-                p.getCategory(),
-                p.getPrice(),
-                p.getStockQuantity(),
-                p.getSupplier(),
-                p.getDescription(),
-                p.getInsertionTime()
-        );
+        VersionedProduct product = productService.getProduct(id);
+
+        String eTag = ProductETags.of(product.version());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(product.product());
+    }
+
+    @PostMapping("/lookup")
+    public ProductLookupResponse lookup(@RequestBody @Valid ProductLookupRequest request)
+            throws InvalidInputException {
+
+        return productService.lookupProducts(request.ids());
+    }
+
+    @GetMapping
+    public ProductPage list(@RequestParam(required = false) Category category,
+                            @RequestParam(required = false) String supplier,
+                            @RequestParam(required = false) BigDecimal minPrice,
+                            @RequestParam(required = false) BigDecimal maxPrice,
+                            @RequestParam(defaultValue = "NAME") ProductSort sort,
+                            @RequestParam(defaultValue = "50") int limit,
+                            @RequestParam(required = false) String cursor)
+            throws InvalidInputException {
+
+        return productService.listProducts(ProductQuery.builder()
+                .category(category)
+                .supplier(supplier)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .sort(sort)
+                .limit(limit)
+                .cursor(cursor)
+                .build());
+    }
+
+    @GetMapping("/search")
+    public ProductPage search(@RequestParam String q,
+                              @RequestParam(required = false) Category category,
+                              @RequestParam(defaultValue = "20") int limit,
+                              @RequestParam(required = false) String cursor)
+            throws InvalidInputException {
+
+        return productService.searchProducts(ProductSearchQuery.builder()
+                .text(q)
+                .category(category)
+                .limit(limit)
+                .cursor(cursor)
+                .build());
+    }
+
+    @GetMapping("/autocomplete")
+    public List<ProductSuggestion> autocomplete(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") int limit)
+            throws InvalidInputException {
+
+        return productService.suggestProducts(prefix, limit);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) Category category,
+                                                        @RequestParam(required = false) String supplier) {
+
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+
+                productService.exportProducts(category, supplier, product -> {
+                    try {
+                        writer.write(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
     }
 
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public UUID update(@PathVariable UUID id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                        @RequestBody @Valid UpdateProductRequest request)
-            throws InvalidInputException, EntityNotFoundException {
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
 
-       return productService.updateProduct(id, request);
+       return productService.updateProduct(id, request, ProductETags.parseIfMatch(ifMatch));
     }
 
     @PostMapping("/{id}/stock/increase")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public UUID increase(@PathVariable UUID id,
+                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                          @RequestBody @Valid StockUpdateRequest request)
-            throws InvalidInputException, EntityNotFoundException {
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
 
-       return productService.increaseStock(id, request);
+       return productService.increaseStock(id, request, ProductETags.parseIfMatch(ifMatch));
     }
 
     @PostMapping("/{id}/stock/decrease")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public UUID decrease(@PathVariable UUID id,
+                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                          @RequestBody @Valid StockUpdateRequest request)
-            throws InvalidInputException, EntityNotFoundException {
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
+
+       return productService.decreaseStock(id, request, ProductETags.parseIfMatch(ifMatch));
+    }
 
-       return productService.decreaseStock(id, request);
+    @PutMapping("/{id}/stock/stripes")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public UUID configureStripes(@PathVariable UUID id,
+                                 @RequestBody @Valid StockStripesRequest request)
+            throws EntityNotFoundException {
+
+       return productService.configureStockStripes(id, request);
     }
 
     @DeleteMapping("/{id}")
@@ -82,4 +200,26 @@ public class ProductController {
 
        return productService.deleteProduct(id);
     }
+
+    @PostMapping("/checkout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void checkout(@RequestBody @Valid CheckoutRequest request)
+            throws InvalidInputException, EntityNotFoundException {
+
+        productService.checkout(request);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ProductImportResult importNdjson(InputStream body)
+            throws IOException {
+
+        return productImportService.importProducts(body, ProductImportFormat.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = CSV)
+    public ProductImportResult importCsv(InputStream body)
+            throws IOException {
+
+        return productImportService.importProducts(body, ProductImportFormat.CSV);
+    }
 }
\ No newline at end of file
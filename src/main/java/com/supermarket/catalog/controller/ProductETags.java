@@ -0,0 +1,41 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.exception.PreconditionFailedException;
+
+/**
+ * Product ETags are the quoted product version, which changes on every product and stock
+ * write; a striped product's version also counts the writes to its stripes.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the version an If-Match header demands, or null when any version will do
+     */
+    static Long parseIfMatch(String ifMatch) throws PreconditionFailedException {
+
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not name a product version: " + ifMatch);
+        }
+    }
+}
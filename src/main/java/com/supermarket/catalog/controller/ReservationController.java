@@ -0,0 +1,53 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.dto.reservation.ProductAvailabilityResponse;
+import com.supermarket.catalog.dto.reservation.ReservationResponse;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final StockReservationService reservationService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationResponse reserve(@RequestBody @Valid ReserveStockRequest request)
+            throws InvalidInputException, EntityNotFoundException {
+
+        return reservationService.reserve(request);
+    }
+
+    @PostMapping("/{id}/commit")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void commit(@PathVariable UUID id)
+            throws EntityNotFoundException {
+
+        reservationService.commit(id);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void release(@PathVariable UUID id)
+            throws EntityNotFoundException {
+
+        reservationService.release(id);
+    }
+
+    @GetMapping("/products/{productId}")
+    public ProductAvailabilityResponse availability(@PathVariable UUID productId)
+            throws EntityNotFoundException {
+
+        return reservationService.availability(productId);
+    }
+}
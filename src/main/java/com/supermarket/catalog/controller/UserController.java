@@ -1,6 +1,5 @@
 package com.supermarket.catalog.controller;
 
-import com.supermarket.catalog.domain.user.User;
 import com.supermarket.catalog.dto.user.CreateUserRequest;
 import com.supermarket.catalog.dto.user.UpdateUserRequest;
 import com.supermarket.catalog.dto.user.UserResponse;
@@ -33,13 +32,7 @@ public class UserController {
     public UserResponse get(@PathVariable UUID id)
             throws EntityNotFoundException {
 
-        User user = userService.getUser(id);
-        return new UserResponse(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getInsertionTime()
-        );
+        return userService.getUser(id);
     }
 
     @PutMapping("/{id}")
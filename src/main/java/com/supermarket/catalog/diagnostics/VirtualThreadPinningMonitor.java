@@ -0,0 +1,104 @@
+package com.supermarket.catalog.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process: a virtual thread that
+ * blocks while pinned to its carrier, typically inside {@code synchronized} driver or
+ * library code, holds that carrier for the whole wait. Each distinct pinning stack is
+ * logged once and counted every time it recurs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "catalog.diagnostics.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedStacks = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${catalog.diagnostics.pinning.threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Pinning events seen so far, by the stack that pinned.
+     */
+    public Map<String, Long> pinnedStacks() {
+        return pinnedStacks.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    @Override
+    public void start() {
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+
+        String stack = describe(event.getStackTrace());
+        LongAdder count = pinnedStacks.computeIfAbsent(stack, key -> {
+            log.warn("Virtual thread pinned for {} ms:{}", event.getDuration().toMillis(), key);
+            return new LongAdder();
+        });
+        count.increment();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+
+        if (stackTrace == null) {
+            return " <no stack trace>";
+        }
+        StringBuilder description = new StringBuilder();
+        int frames = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frames++ == LOGGED_FRAMES) {
+                description.append("\n\t...");
+                break;
+            }
+            description.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return description.toString();
+    }
+}
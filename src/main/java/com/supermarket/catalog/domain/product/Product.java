@@ -2,6 +2,7 @@ package com.supermarket.catalog.domain.product;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -31,6 +32,15 @@ public class Product {
     @Column(name = "stock_quantity", nullable = false)
     private int stockQuantity;
 
+    // Zero for a single stock row, otherwise the number of ProductStock stripes holding the quantity
+    @Column(name = "stock_stripes", nullable = false)
+    private int stockStripes;
+
+    @Formula("(CASE WHEN stock_stripes > 0"
+            + " THEN (SELECT COALESCE(SUM(s.quantity), 0) FROM product_stock s WHERE s.product_id = id)"
+            + " END)")
+    private Integer stripedStockQuantity;
+
     @Column(nullable = false)
     private String supplier;
 
@@ -38,4 +48,14 @@ public class Product {
 
     @Column(name = "insertion_time", nullable = false)
     private Instant insertionTime;
-}
\ No newline at end of file
+
+    // Null until persisted, which also lets save() persist new products without a SELECT
+    @Version
+    private Long version;
+
+    public int getStockQuantity() {
+        return stockStripes > 0 && stripedStockQuantity != null
+                ? stripedStockQuantity
+                : stockQuantity;
+    }
+}
@@ -1,4 +1,48 @@
 package com.supermarket.catalog.domain.product;
 
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * One stripe of a striped product's stock. A hot product's quantity is split across
+ * {@code stockStripes} of these rows so concurrent decrements lock different rows;
+ * the product's stock is their sum.
+ */
+@Entity
+@Table(name = "product_stock")
+@IdClass(ProductStock.Key.class)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
 public class ProductStock {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Id
+    private int stripe;
+
+    @Setter
+    @Column(nullable = false)
+    private int quantity;
+
+    // Counts the writes to this stripe; part of the product's version
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private UUID productId;
+        private int stripe;
+    }
 }
@@ -2,6 +2,7 @@ package com.supermarket.catalog.domain.user;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -12,7 +13,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class User {
+public class User implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -28,4 +29,20 @@ public class User {
 
     @Column(name = "insertion_time", nullable = false)
     private Instant insertionTime;
+
+    // Ids are assigned before saving, so save() cannot tell a new user from a detached one;
+    // without this it would SELECT the id first to decide between persist and merge
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
\ No newline at end of file
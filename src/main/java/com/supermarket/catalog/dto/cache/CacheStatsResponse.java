@@ -0,0 +1,24 @@
+package com.supermarket.catalog.dto.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record CacheStatsResponse(
+        String name,
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions
+) {
+
+    public static CacheStatsResponse of(String name, long size, CacheStats stats) {
+        return new CacheStatsResponse(
+                name,
+                size,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.supermarket.catalog.dto.inventory;
+
+import java.math.BigDecimal;
+
+/**
+ * @param name       the category or supplier
+ * @param units      units in stock, striped ones included
+ * @param stockValue units in stock at current prices
+ */
+public record InventoryAggregateResponse(
+        String name,
+        long productCount,
+        long units,
+        BigDecimal stockValue
+) {}
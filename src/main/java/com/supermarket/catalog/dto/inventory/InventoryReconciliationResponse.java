@@ -0,0 +1,12 @@
+package com.supermarket.catalog.dto.inventory;
+
+/**
+ * @param groups        category and supplier pairs after the rebuild
+ * @param driftedGroups pairs whose maintained totals differed from the scan
+ */
+public record InventoryReconciliationResponse(
+        int groups,
+        int driftedGroups,
+        long productCount,
+        long durationMillis
+) {}
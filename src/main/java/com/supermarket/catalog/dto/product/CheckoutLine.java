@@ -0,0 +1,11 @@
+package com.supermarket.catalog.dto.product;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.UUID;
+
+public record CheckoutLine(
+        @NotNull UUID productId,
+        @Positive int quantity
+) {}
@@ -0,0 +1,11 @@
+package com.supermarket.catalog.dto.product;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record CheckoutRequest(
+        @NotEmpty List<@Valid @NotNull CheckoutLine> lines
+) {}
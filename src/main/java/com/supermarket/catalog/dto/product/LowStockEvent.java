@@ -0,0 +1,16 @@
+package com.supermarket.catalog.dto.product;
+
+import java.util.UUID;
+
+/**
+ * A product crossing its reorder threshold, pushed to low-stock subscribers.
+ *
+ * @param low              true when the stock fell below the threshold, false once it recovered
+ * @param reorderThreshold null when the product recovered because its threshold was removed
+ */
+public record LowStockEvent(
+        UUID productId,
+        boolean low,
+        int stockQuantity,
+        Integer reorderThreshold
+) {}
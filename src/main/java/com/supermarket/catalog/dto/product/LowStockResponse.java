@@ -0,0 +1,17 @@
+package com.supermarket.catalog.dto.product;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param stockQuantity units in stock, striped ones included
+ * @param since         when the stock fell below the threshold
+ */
+public record LowStockResponse(
+        UUID productId,
+        String name,
+        String supplier,
+        int stockQuantity,
+        int reorderThreshold,
+        Instant since
+) {}
@@ -0,0 +1,23 @@
+package com.supermarket.catalog.dto.product;
+
+import com.supermarket.catalog.domain.product.Category;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One entry of the product change feed: the product's current catalog fields, or a
+ * tombstone with only the id once it was deleted.
+ *
+ * @param token resumes the feed after this entry
+ */
+public record ProductChange(
+        String token,
+        UUID id,
+        boolean deleted,
+        String name,
+        Category category,
+        BigDecimal price,
+        String supplier,
+        String description
+) {}
@@ -0,0 +1,46 @@
+package com.supermarket.catalog.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the product change feed: the writing transaction of the last change read and
+ * the product it touched. Travels to clients as an opaque base64url token.
+ */
+public record ProductChangeCursor(
+        long transactionId,
+        UUID productId
+) {
+
+    private static final UUID NONE = new UUID(0, 0);
+
+    public static final ProductChangeCursor START = new ProductChangeCursor(0, NONE);
+
+    /**
+     * The position just before the first change of {@code transactionId}.
+     */
+    public static ProductChangeCursor before(long transactionId) {
+        return new ProductChangeCursor(transactionId, NONE);
+    }
+
+    public String encode() {
+        String raw = Long.toString(transactionId) + '\n' + productId;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static ProductChangeCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\n", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed change token");
+        }
+
+        return new ProductChangeCursor(Long.parseLong(parts[0]), UUID.fromString(parts[1]));
+    }
+}
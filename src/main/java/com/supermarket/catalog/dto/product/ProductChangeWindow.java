@@ -0,0 +1,13 @@
+package com.supermarket.catalog.dto.product;
+
+/**
+ * The part of the change feed one request reads: after the client's position, up to where the
+ * feed is final. {@code until} resumes the feed once everything in the window was applied.
+ * {@code heldBack} counts the transactions started since {@code until}; see
+ * {@link com.supermarket.catalog.repository.ProductChangeHorizon#heldBack()}.
+ */
+public record ProductChangeWindow(
+        ProductChangeCursor after,
+        ProductChangeCursor until,
+        long heldBack
+) {}
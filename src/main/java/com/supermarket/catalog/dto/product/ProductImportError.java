@@ -0,0 +1,6 @@
+package com.supermarket.catalog.dto.product;
+
+public record ProductImportError(
+        long line,
+        String message
+) {}
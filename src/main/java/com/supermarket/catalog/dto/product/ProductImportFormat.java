@@ -0,0 +1,6 @@
+package com.supermarket.catalog.dto.product;
+
+public enum ProductImportFormat {
+    NDJSON,
+    CSV
+}
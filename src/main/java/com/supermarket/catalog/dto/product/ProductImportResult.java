@@ -0,0 +1,11 @@
+package com.supermarket.catalog.dto.product;
+
+import java.util.List;
+
+public record ProductImportResult(
+        long imported,
+        long rejected,
+        List<ProductImportError> errors,
+        long elapsedMillis,
+        double rowsPerSecond
+) {}
@@ -0,0 +1,11 @@
+package com.supermarket.catalog.dto.product;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProductLookupRequest(
+        @NotEmpty List<@NotNull UUID> ids
+) {}
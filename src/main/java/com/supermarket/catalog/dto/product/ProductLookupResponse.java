@@ -0,0 +1,12 @@
+package com.supermarket.catalog.dto.product;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The products found and the ids without one, each in the order they were asked for.
+ */
+public record ProductLookupResponse(
+        List<ProductResponse> products,
+        List<UUID> missing
+) {}
@@ -0,0 +1,8 @@
+package com.supermarket.catalog.dto.product;
+
+import java.util.List;
+
+public record ProductPage(
+        List<ProductResponse> items,
+        String nextCursor
+) {}
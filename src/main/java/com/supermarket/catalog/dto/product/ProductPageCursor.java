@@ -0,0 +1,43 @@
+package com.supermarket.catalog.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a page: the sort key and id to seek past.
+ * Travels to clients as an opaque base64url token.
+ */
+public record ProductPageCursor(
+        ProductSort sort,
+        String key,
+        UUID id
+) {
+
+    public static ProductPageCursor after(ProductSort sort, ProductResponse last) {
+        return new ProductPageCursor(sort, sort.keyOf(last), last.id());
+    }
+
+    public String encode() {
+        String raw = sort.name() + '\n' + id + '\n' + key;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static ProductPageCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\n", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        ProductSort sort = ProductSort.valueOf(parts[0]);
+        sort.parseKey(parts[2]);
+
+        return new ProductPageCursor(sort, parts[2], UUID.fromString(parts[1]));
+    }
+}
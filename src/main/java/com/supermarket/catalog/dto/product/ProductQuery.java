@@ -0,0 +1,17 @@
+package com.supermarket.catalog.dto.product;
+
+import com.supermarket.catalog.domain.product.Category;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record ProductQuery(
+        Category category,
+        String supplier,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        ProductSort sort,
+        int limit,
+        String cursor
+) {}
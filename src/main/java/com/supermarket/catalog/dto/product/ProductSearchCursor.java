@@ -0,0 +1,41 @@
+package com.supermarket.catalog.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last hit of a search page: its rank and id to seek past. The
+ * fingerprint ties the cursor to the search that issued it, as ranks mean nothing
+ * for another one. Travels to clients as an opaque base64url token.
+ */
+public record ProductSearchCursor(
+        int fingerprint,
+        float rank,
+        UUID id
+) {
+
+    public String encode() {
+        String raw = Integer.toHexString(fingerprint) + '\n' + Float.toString(rank) + '\n' + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static ProductSearchCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\n", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        return new ProductSearchCursor(
+                Integer.parseUnsignedInt(parts[0], 16),
+                Float.parseFloat(parts[1]),
+                UUID.fromString(parts[2])
+        );
+    }
+}
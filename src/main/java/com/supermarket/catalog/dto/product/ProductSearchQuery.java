@@ -0,0 +1,12 @@
+package com.supermarket.catalog.dto.product;
+
+import com.supermarket.catalog.domain.product.Category;
+import lombok.Builder;
+
+@Builder
+public record ProductSearchQuery(
+        String text,
+        Category category,
+        int limit,
+        String cursor
+) {}
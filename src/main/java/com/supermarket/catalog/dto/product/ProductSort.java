@@ -0,0 +1,41 @@
+package com.supermarket.catalog.dto.product;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Sort orders for product listings. Each one is a column plus {@code id} as tie-breaker,
+ * which is what keyset pagination seeks on.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProductSort {
+    NAME("name", true),
+    PRICE_ASC("price", true),
+    PRICE_DESC("price", false),
+    NEWEST("insertion_time", false);
+
+    private final String column;
+    private final boolean ascending;
+
+    public String keyOf(ProductResponse product) {
+        return switch (this) {
+            case NAME -> product.name();
+            case PRICE_ASC, PRICE_DESC -> product.price().toPlainString();
+            case NEWEST -> product.insertionTime().toString();
+        };
+    }
+
+    public Object parseKey(String key) {
+        return switch (this) {
+            case NAME -> key;
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(key);
+            case NEWEST -> OffsetDateTime.ofInstant(Instant.parse(key), ZoneOffset.UTC);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package com.supermarket.catalog.dto.product;
+
+import java.util.UUID;
+
+public record ProductSuggestion(
+        UUID id,
+        String name
+) {}
@@ -0,0 +1,8 @@
+package com.supermarket.catalog.dto.product;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Stock level below which the product counts as low; null removes the threshold.
+ */
+public record ReorderThresholdRequest(@PositiveOrZero Integer threshold) {}
@@ -0,0 +1,9 @@
+package com.supermarket.catalog.dto.product;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Number of stock stripes for a product; zero keeps its stock in a single row.
+ */
+public record StockStripesRequest(@Min(0) @Max(64) int stripes) {}
@@ -0,0 +1,9 @@
+package com.supermarket.catalog.dto.product;
+
+/**
+ * A product as it is returned, with the row version its ETag is made of.
+ */
+public record VersionedProduct(
+        ProductResponse product,
+        long version
+) {}
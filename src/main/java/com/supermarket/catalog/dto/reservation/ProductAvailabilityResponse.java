@@ -0,0 +1,13 @@
+package com.supermarket.catalog.dto.reservation;
+
+import java.util.UUID;
+
+/**
+ * @param available units that can still be sold or reserved
+ * @param reserved  units held by open reservations
+ */
+public record ProductAvailabilityResponse(
+        UUID productId,
+        int available,
+        int reserved
+) {}
@@ -0,0 +1,11 @@
+package com.supermarket.catalog.dto.reservation;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ReservationResponse(
+        UUID id,
+        UUID productId,
+        int quantity,
+        Instant expiresAt
+) {}
@@ -0,0 +1,15 @@
+package com.supermarket.catalog.dto.reservation;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.UUID;
+
+/**
+ * @param ttlSeconds how long the hold lasts before it is released; the configured default when null
+ */
+public record ReserveStockRequest(
+        @NotNull UUID productId,
+        @Positive int quantity,
+        @Positive Integer ttlSeconds
+) {}
@@ -0,0 +1,8 @@
+package com.supermarket.catalog.exception;
+
+public class GoneException extends Exception {
+
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.supermarket.catalog.exception;
+
+public class PreconditionFailedException extends Exception {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
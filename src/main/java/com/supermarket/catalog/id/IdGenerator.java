@@ -0,0 +1,12 @@
+package com.supermarket.catalog.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys for new rows. Implementations must be safe for concurrent use.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID nextId();
+}
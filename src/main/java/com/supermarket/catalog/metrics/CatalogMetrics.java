@@ -0,0 +1,81 @@
+package com.supermarket.catalog.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters of the catalog, registered once so the hot paths only increment.
+ */
+@Component
+public class CatalogMetrics {
+
+    private final Counter stockIncreases;
+    private final Counter stockIncreasedUnits;
+    private final Counter stockDecreases;
+    private final Counter stockDecreasedUnits;
+    private final Counter negativeStockRejections;
+    private final Counter authAccepted;
+    private final Counter authMissingHeaders;
+    private final Counter authInvalidUser;
+
+    public CatalogMetrics(MeterRegistry registry) {
+
+        this.stockIncreases = Counter.builder("catalog.stock.updates")
+                .description("Stock changes applied or buffered")
+                .tag("direction", "increase")
+                .register(registry);
+        this.stockIncreasedUnits = Counter.builder("catalog.stock.units")
+                .description("Units moved by stock changes")
+                .tag("direction", "increase")
+                .register(registry);
+        this.stockDecreases = Counter.builder("catalog.stock.updates")
+                .tag("direction", "decrease")
+                .register(registry);
+        this.stockDecreasedUnits = Counter.builder("catalog.stock.units")
+                .tag("direction", "decrease")
+                .register(registry);
+        this.negativeStockRejections = Counter.builder("catalog.stock.rejected")
+                .description("Stock changes rejected because stock would go negative")
+                .register(registry);
+
+        this.authAccepted = authCounter(registry, "accepted");
+        this.authMissingHeaders = authCounter(registry, "missing_headers");
+        this.authInvalidUser = authCounter(registry, "invalid_user");
+    }
+
+    // ===== STOCK =====
+    public void stockIncreased(int units) {
+        stockIncreases.increment();
+        stockIncreasedUnits.increment(units);
+    }
+
+    public void stockDecreased(int units) {
+        stockDecreases.increment();
+        stockDecreasedUnits.increment(units);
+    }
+
+    public void negativeStockRejected() {
+        negativeStockRejections.increment();
+    }
+
+    // ===== AUTHENTICATION =====
+    public void authAccepted() {
+        authAccepted.increment();
+    }
+
+    public void authMissingHeaders() {
+        authMissingHeaders.increment();
+    }
+
+    public void authInvalidUser() {
+        authInvalidUser.increment();
+    }
+
+    private static Counter authCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("catalog.auth.requests")
+                .description("Header authentication outcomes")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.supermarket.catalog.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts the SQL statements executed on the current thread while a count is open, through
+ * Hibernate and JdbcTemplate alike. {@code MetricsConfig} puts it in front of the application
+ * DataSource with a {@link StatementListeningDataSource}.
+ */
+@Component
+public class StatementCounter implements StatementListeningDataSource.StatementListener {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public void executed(String sql, List<Object> parameters) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    void open() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Ends the count of the current thread.
+     *
+     * @return the statements executed since {@link #open}
+     */
+    int close() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
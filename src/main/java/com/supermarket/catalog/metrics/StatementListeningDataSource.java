@@ -0,0 +1,120 @@
+package com.supermarket.catalog.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps a DataSource so a listener sees every statement executed on its connections,
+ * whether it comes from Hibernate or from JdbcTemplate. A JDBC batch is seen once, as one
+ * round trip.
+ * <p>
+ * The last bound parameters are only tracked when asked for, since copying them costs an
+ * allocation per statement.
+ */
+public class StatementListeningDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    @FunctionalInterface
+    public interface StatementListener {
+
+        /**
+         * Called on the executing thread, before the statement runs.
+         *
+         * @param parameters the last bound parameters, or an empty list when they are not tracked
+         */
+        void executed(String sql, List<Object> parameters);
+    }
+
+    private final StatementListener listener;
+    private final boolean trackParameters;
+
+    public StatementListeningDataSource(DataSource target, StatementListener listener, boolean trackParameters) {
+        super(target);
+        this.listener = listener;
+        this.trackParameters = trackParameters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return listening(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return listening(super.getConnection(username, password));
+    }
+
+    // ===== PROXIES =====
+    private Connection listening(Connection target) {
+
+        return proxy(Connection.class, target, (method, args, invoke) -> {
+            Object result = invoke.call();
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <T extends Statement> T statement(Class<T> type, Statement target, String preparedSql) {
+
+        List<Object> parameters = trackParameters ? new ArrayList<>() : null;
+        return proxy(type, target, (method, args, invoke) -> {
+            String name = method.getName();
+            if (parameters != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                while (parameters.size() < index) {
+                    parameters.add(null);
+                }
+                parameters.set(index - 1, name.equals("setNull") ? null : args[1]);
+            } else if (EXECUTE_METHODS.contains(name)) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null ? (String) args[0]
+                        : "<statement batch>";
+                listener.executed(sql, parameters != null
+                        ? Collections.unmodifiableList(new ArrayList<>(parameters))
+                        : List.of());
+            }
+            return invoke.call();
+        });
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object intercept(Method method, Object[] args, Invocation invoke) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Invocation {
+        Object call() throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Interceptor interceptor) {
+
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> interceptor.intercept(method, args, () -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                })));
+    }
+}
@@ -0,0 +1,363 @@
+package com.supermarket.catalog.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Inventory aggregates per category and supplier, kept by the triggers of V8.
+ * <p>
+ * Current totals are the folded {@code inventory_aggregates} plus the deltas not folded yet,
+ * so a read costs one row per group and per recent change, never one per product. Folding
+ * and reconciliation replace rows other nodes may be folding too, so both take the same
+ * advisory lock and skip their run when another node holds it.
+ */
+@Repository
+public class InventoryAggregateJdbcRepository {
+
+    // Arbitrary, but shared by every node
+    private static final long AGGREGATE_LOCK = 0x1A66_0019L;
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+
+    private static final String CURRENT_TOTALS = """
+            SELECT %1$s AS group_key,
+                   sum(product_count) AS product_count, sum(units) AS units, sum(stock_value) AS stock_value
+              FROM (SELECT category, supplier, product_count, units, stock_value
+                      FROM inventory_aggregates
+                    UNION ALL
+                    SELECT category, supplier, product_count, units, stock_value
+                      FROM inventory_deltas) AS totals
+             GROUP BY %1$s
+            HAVING sum(product_count) <> 0
+             ORDER BY %1$s
+            """;
+
+    private static final String GROUP_TOTALS = """
+            SELECT category, supplier,
+                   sum(product_count) AS product_count, sum(units) AS units, sum(stock_value) AS stock_value
+              FROM (SELECT category, supplier, product_count, units, stock_value
+                      FROM inventory_aggregates
+                    UNION ALL
+                    SELECT category, supplier, product_count, units, stock_value
+                      FROM inventory_deltas) AS totals
+             GROUP BY category, supplier
+            """;
+
+    private static final String FOLD_DELTAS = """
+            WITH folded AS (
+                DELETE FROM inventory_deltas
+                RETURNING category, supplier, product_count, units, stock_value
+            )
+            INSERT INTO inventory_aggregates AS a (category, supplier, product_count, units, stock_value)
+            SELECT category, supplier, sum(product_count), sum(units), sum(stock_value)
+              FROM folded
+             GROUP BY category, supplier
+            ON CONFLICT (category, supplier) DO UPDATE
+               SET product_count = a.product_count + EXCLUDED.product_count,
+                   units = a.units + EXCLUDED.units,
+                   stock_value = a.stock_value + EXCLUDED.stock_value
+            """;
+
+    private static final String DELETE_EMPTY_GROUPS = """
+            DELETE FROM inventory_aggregates
+             WHERE product_count = 0
+            """;
+
+    /**
+     * Totals of one range of heap blocks. A TID range scan reads only those blocks,
+     * so the workers of a reconciliation share the table instead of each reading all of it.
+     */
+    private static final String SCAN_BLOCKS = """
+            SELECT p.category, p.supplier, count(*) AS product_count,
+                   sum(u.units) AS units, sum(p.price * u.units) AS stock_value
+              FROM products p,
+                   LATERAL (SELECT CASE WHEN p.stock_stripes > 0
+                                        THEN (SELECT COALESCE(sum(s.quantity), 0)
+                                                FROM product_stock s
+                                               WHERE s.product_id = p.id)
+                                        ELSE p.stock_quantity
+                                   END AS units) AS u
+             WHERE p.ctid >= CAST(? AS TID)
+            """;
+
+    private static final String INSERT_AGGREGATE = """
+            INSERT INTO inventory_aggregates (category, supplier, product_count, units, stock_value)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int parallelism;
+
+    public InventoryAggregateJdbcRepository(JdbcTemplate jdbcTemplate,
+                                            @Value("${catalog.inventory.reconcile-parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.parallelism = parallelism;
+        checkPoolSize(jdbcTemplate.getDataSource(), parallelism);
+    }
+
+    /**
+     * Current totals by category or by supplier, omitting groups without products.
+     */
+    public Map<String, InventoryTotals> currentTotals(boolean bySupplier) {
+
+        Map<String, InventoryTotals> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(CURRENT_TOTALS.formatted(bySupplier ? "supplier" : "category"),
+                rs -> {
+                    totals.put(rs.getString("group_key"), mapTotals(rs));
+                });
+        return totals;
+    }
+
+    /**
+     * Folds the pending deltas into the aggregates, in the caller's transaction.
+     *
+     * @return the groups updated, or -1 when another node is folding or reconciling
+     */
+    public int foldDeltas() {
+
+        Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, AGGREGATE_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return -1;
+        }
+
+        int groups = jdbcTemplate.update(FOLD_DELTAS);
+        jdbcTemplate.update(DELETE_EMPTY_GROUPS);
+        return groups;
+    }
+
+    // ===== RECONCILIATION =====
+    /**
+     * Rebuilds the aggregates from a parallel scan of products. The scan runs on
+     * {@code reconcile-parallelism} connections that share this transaction's exported snapshot,
+     * so the deltas it replaces are exactly those the snapshot sees; deltas committed later stay
+     * to be folded on top. Must not run inside a transaction.
+     *
+     * @return empty when another node is folding or reconciling
+     */
+    public Optional<Reconciliation> reconcile() {
+
+        return jdbcTemplate.execute((ConnectionCallback<Optional<Reconciliation>>) con -> {
+
+            // A session lock, so it is held before the snapshot is taken and until the end
+            if (!queryBoolean(con, "SELECT pg_try_advisory_lock(" + AGGREGATE_LOCK + ")")) {
+                return Optional.empty();
+            }
+            try {
+                con.setAutoCommit(false);
+                con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                try {
+                    Reconciliation reconciliation = rebuild(con);
+                    con.commit();
+                    return Optional.of(reconciliation);
+                } catch (SQLException | RuntimeException e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    con.setAutoCommit(true);
+                }
+            } finally {
+                queryBoolean(con, "SELECT pg_advisory_unlock(" + AGGREGATE_LOCK + ")");
+            }
+        });
+    }
+
+    private Reconciliation rebuild(Connection con) throws SQLException {
+
+        // The first statement fixes the snapshot of a repeatable read transaction
+        String snapshotId;
+        long blocks;
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT pg_export_snapshot(),
+                            pg_relation_size('products') / current_setting('block_size')::int
+                     """)) {
+            rs.next();
+            snapshotId = rs.getString(1);
+            blocks = rs.getLong(2);
+        }
+
+        Map<InventoryGroup, InventoryTotals> previous = new HashMap<>();
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery(GROUP_TOTALS)) {
+            while (rs.next()) {
+                previous.put(new InventoryGroup(rs.getString("category"), rs.getString("supplier")), mapTotals(rs));
+            }
+        }
+
+        Map<InventoryGroup, InventoryTotals> rebuilt = scan(snapshotId, blocks);
+
+        // Deletes only the deltas visible to the snapshot, which the scan already counted
+        try (Statement statement = con.createStatement()) {
+            statement.executeUpdate("DELETE FROM inventory_deltas");
+            statement.executeUpdate("DELETE FROM inventory_aggregates");
+        }
+        try (PreparedStatement statement = con.prepareStatement(INSERT_AGGREGATE)) {
+            for (Map.Entry<InventoryGroup, InventoryTotals> row : rebuilt.entrySet()) {
+                statement.setString(1, row.getKey().category());
+                statement.setString(2, row.getKey().supplier());
+                statement.setLong(3, row.getValue().productCount());
+                statement.setLong(4, row.getValue().units());
+                statement.setBigDecimal(5, row.getValue().stockValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        Set<InventoryGroup> groups = new HashSet<>(previous.keySet());
+        groups.addAll(rebuilt.keySet());
+        int drifted = 0;
+        for (InventoryGroup group : groups) {
+            if (!previous.getOrDefault(group, InventoryTotals.ZERO)
+                    .matches(rebuilt.getOrDefault(group, InventoryTotals.ZERO))) {
+                drifted++;
+            }
+        }
+        return new Reconciliation(rebuilt, drifted);
+    }
+
+    /**
+     * Splits the heap into {@code parallelism} block ranges, the last one open-ended, and sums
+     * each range on its own connection inside the exported snapshot.
+     */
+    private Map<InventoryGroup, InventoryTotals> scan(String snapshotId, long blocks) {
+
+        if (!SNAPSHOT_ID.matcher(snapshotId).matches()) {
+            throw new IllegalStateException("Unexpected snapshot id " + snapshotId);
+        }
+
+        int workers = (int) Math.max(1, Math.min(parallelism, blocks));
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            List<Future<Map<InventoryGroup, InventoryTotals>>> parts = new ArrayList<>(workers);
+            for (int worker = 0; worker < workers; worker++) {
+                long from = blocks * worker / workers;
+                Long to = worker == workers - 1 ? null : blocks * (worker + 1) / workers;
+                parts.add(executor.submit(() -> scanBlocks(snapshotId, from, to)));
+            }
+
+            Map<InventoryGroup, InventoryTotals> totals = new HashMap<>();
+            for (Future<Map<InventoryGroup, InventoryTotals>> part : parts) {
+                part.get().forEach((group, partTotals) -> totals.merge(group, partTotals, InventoryTotals::plus));
+            }
+            return totals;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during inventory reconciliation", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Map<InventoryGroup, InventoryTotals> scanBlocks(String snapshotId, long from, Long to) {
+
+        String sql = SCAN_BLOCKS
+                + (to != null ? " AND p.ctid < CAST(? AS TID)" : "")
+                + " GROUP BY p.category, p.supplier";
+
+        return jdbcTemplate.execute((ConnectionCallback<Map<InventoryGroup, InventoryTotals>>) con -> {
+            con.setAutoCommit(false);
+            con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (Statement statement = con.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+
+                Map<InventoryGroup, InventoryTotals> totals = new HashMap<>();
+                try (PreparedStatement statement = con.prepareStatement(sql)) {
+                    statement.setString(1, "(" + from + ",0)");
+                    if (to != null) {
+                        statement.setString(2, "(" + to + ",0)");
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            totals.put(new InventoryGroup(rs.getString("category"), rs.getString("supplier")),
+                                    mapTotals(rs));
+                        }
+                    }
+                }
+                con.commit();
+                return totals;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * A reconciliation holds its snapshot connection while each worker waits for one of its own,
+     * so it needs {@code reconcile-parallelism + 1} pooled connections at once. Refuses to start
+     * unless those leave at least half the pool to requests; otherwise a reconciliation under
+     * load would starve them, or sit on its snapshot until the pool's connection timeout fails
+     * a worker it could never get.
+     */
+    static void checkPoolSize(DataSource dataSource, int parallelism) {
+
+        if (parallelism < 1) {
+            throw new IllegalStateException("catalog.inventory.reconcile-parallelism must be at least 1");
+        }
+        try {
+            if (dataSource == null || !dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            // Unset until the pool starts, when Hikari applies its default of 10
+            if (poolSize < 1) {
+                poolSize = 10;
+            }
+            if ((parallelism + 1) * 2 > poolSize) {
+                throw new IllegalStateException("catalog.inventory.reconcile-parallelism of " + parallelism
+                        + " needs " + (parallelism + 1) + " connections, more than half the pool of " + poolSize);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the connection pool size", e);
+        }
+    }
+
+    private static boolean queryBoolean(Connection con, String sql) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * @param totals the rebuilt totals per category and supplier
+     * @param driftedGroups groups whose maintained totals differed from the scan
+     */
+    public record Reconciliation(Map<InventoryGroup, InventoryTotals> totals, int driftedGroups) {}
+
+    private static InventoryTotals mapTotals(ResultSet rs) throws SQLException {
+        return new InventoryTotals(
+                rs.getLong("product_count"),
+                rs.getLong("units"),
+                rs.getBigDecimal("stock_value")
+        );
+    }
+}
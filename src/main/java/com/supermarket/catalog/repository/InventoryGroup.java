@@ -0,0 +1,9 @@
+package com.supermarket.catalog.repository;
+
+/**
+ * The unit inventory aggregates are kept at: one category of one supplier.
+ */
+public record InventoryGroup(
+        String category,
+        String supplier
+) {}
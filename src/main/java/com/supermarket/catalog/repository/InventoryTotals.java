@@ -0,0 +1,32 @@
+package com.supermarket.catalog.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Product count, units in stock and their value at current prices.
+ */
+public record InventoryTotals(
+        long productCount,
+        long units,
+        BigDecimal stockValue
+) {
+
+    public static final InventoryTotals ZERO = new InventoryTotals(0, 0, BigDecimal.ZERO);
+
+    public InventoryTotals plus(InventoryTotals other) {
+        return new InventoryTotals(
+                productCount + other.productCount,
+                units + other.units,
+                stockValue.add(other.stockValue)
+        );
+    }
+
+    /**
+     * Equal in every figure, whatever the scale of the stock value.
+     */
+    public boolean matches(InventoryTotals other) {
+        return productCount == other.productCount
+                && units == other.units
+                && stockValue.compareTo(other.stockValue) == 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.dto.product.LowStockResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reorder thresholds and the {@code low_stock_products} set the V9 triggers keep.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LowStockJdbcRepository {
+
+    private static final String SET_REORDER_THRESHOLD = """
+            UPDATE products
+               SET reorder_threshold = ?,
+                   version = version + 1
+             WHERE id = ?
+            """;
+
+    private static final String FIND_LOW_STOCK = """
+            SELECT p.id, p.name, p.supplier, p.reorder_threshold, l.since,
+                   CASE WHEN p.stock_stripes > 0
+                        THEN (SELECT COALESCE(SUM(s.quantity), 0)::int
+                                FROM product_stock s
+                               WHERE s.product_id = p.id)
+                        ELSE p.stock_quantity
+                   END AS stock_quantity
+              FROM low_stock_products l
+              JOIN products p ON p.id = l.product_id
+             ORDER BY l.since, l.product_id
+             LIMIT ?
+            """;
+
+    private static final String REFRESH_STRIPED = """
+            SELECT refresh_low_stock(id)
+              FROM products
+             WHERE reorder_threshold IS NOT NULL
+               AND stock_stripes > 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false when the product does not exist
+     */
+    public boolean setReorderThreshold(UUID productId, Integer threshold) {
+        return jdbcTemplate.update(SET_REORDER_THRESHOLD, threshold, productId) == 1;
+    }
+
+    /**
+     * Products below their threshold, longest first. Reads only the low products themselves.
+     */
+    public List<LowStockResponse> findLowStock(int limit) {
+        return jdbcTemplate.query(FIND_LOW_STOCK, (rs, rowNum) -> new LowStockResponse(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("supplier"),
+                rs.getInt("stock_quantity"),
+                rs.getInt("reorder_threshold"),
+                rs.getTimestamp("since").toInstant()
+        ), limit);
+    }
+
+    /**
+     * Re-evaluates every striped product with a threshold. Writers of different stripes commit
+     * without seeing each other, so together they can cross a threshold neither of them saw.
+     *
+     * @return the products checked
+     */
+    public int refreshStriped() {
+        return jdbcTemplate.query(REFRESH_STRIPED, (rs, rowNum) -> rowNum).size();
+    }
+}
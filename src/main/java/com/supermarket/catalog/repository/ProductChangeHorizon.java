@@ -0,0 +1,21 @@
+package com.supermarket.catalog.repository;
+
+/**
+ * Where the product change feed is final, as of one snapshot of the primary.
+ *
+ * @param through every transaction below this id has finished
+ * @param next    the id the next transaction to write will get
+ */
+public record ProductChangeHorizon(
+        long through,
+        long next
+) {
+
+    /**
+     * Transaction ids handed out since the horizon, zero when no writer is running. One that
+     * keeps growing across reads means a long transaction is holding the feed back.
+     */
+    public long heldBack() {
+        return next - through;
+    }
+}
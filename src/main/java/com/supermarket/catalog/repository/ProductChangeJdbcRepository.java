@@ -0,0 +1,129 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.ProductChange;
+import com.supermarket.catalog.dto.product.ProductChangeCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * The product change feed of V10: products and tombstones ordered by writing transaction.
+ */
+@Repository
+public class ProductChangeJdbcRepository {
+
+    // Every transaction below xmin has finished, and later ones get higher ids. Only transactions
+    // that wrote hold an id, so long reads such as exports never hold the horizon back
+    private static final String HORIZON = """
+            SELECT pg_snapshot_xmin(s)::text::bigint AS through, pg_snapshot_xmax(s)::text::bigint AS next
+              FROM pg_current_snapshot() AS s
+            """;
+
+    private static final String PURGED_THROUGH = """
+            SELECT purged_through::text::bigint FROM product_change_horizon
+            """;
+
+    private static final String STREAM_CHANGES = """
+            SELECT change_xid, id, FALSE AS deleted, name, category, price, supplier, description
+              FROM products
+             WHERE (change_xid, id) > (CAST(CAST(? AS TEXT) AS XID8), ?)
+               AND change_xid < CAST(CAST(? AS TEXT) AS XID8)
+            UNION ALL
+            SELECT change_xid, product_id, TRUE, NULL, NULL, NULL, NULL, NULL
+              FROM product_tombstones
+             WHERE (change_xid, product_id) > (CAST(CAST(? AS TEXT) AS XID8), ?)
+               AND change_xid < CAST(CAST(? AS TEXT) AS XID8)
+             ORDER BY change_xid, id
+            """;
+
+    private static final String PURGE_TOMBSTONES = """
+            WITH purged AS (
+                DELETE FROM product_tombstones
+                 WHERE deleted_at < ?
+                RETURNING change_xid
+            )
+            UPDATE product_change_horizon
+               SET purged_through = GREATEST(purged_through, (SELECT max(change_xid) FROM purged))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int streamFetchSize;
+
+    public ProductChangeJdbcRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${catalog.export.fetch-size:1000}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * The transaction id below which the feed is final, and how far behind the newest one it is.
+     * The horizon is cluster-wide: the oldest transaction still writing, in any database,
+     * holds it for every reader until it ends.
+     */
+    public ProductChangeHorizon horizon() {
+        return jdbcTemplate.queryForObject(HORIZON,
+                (rs, rowNum) -> new ProductChangeHorizon(rs.getLong("through"), rs.getLong("next")));
+    }
+
+    /**
+     * Highest transaction id whose tombstones may have been purged.
+     */
+    public long purgedThrough() {
+        return jdbcTemplate.queryForObject(PURGED_THROUGH, Long.class);
+    }
+
+    /**
+     * Streams the changes after {@code after} and below transaction {@code before} in feed
+     * order, fetching {@code catalog.export.fetch-size} rows at a time. Needs a transaction.
+     */
+    public void streamChanges(ProductChangeCursor after, long before, Consumer<ProductChange> sink) {
+
+        RowCallbackHandler handler = rs -> {
+            long transactionId = Long.parseLong(rs.getString("change_xid"));
+            UUID productId = rs.getObject("id", UUID.class);
+            String category = rs.getString("category");
+            sink.accept(new ProductChange(
+                    new ProductChangeCursor(transactionId, productId).encode(),
+                    productId,
+                    rs.getBoolean("deleted"),
+                    rs.getString("name"),
+                    category == null ? null : Category.valueOf(category),
+                    rs.getBigDecimal("price"),
+                    rs.getString("supplier"),
+                    rs.getString("description")
+            ));
+        };
+
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            STREAM_CHANGES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(streamFetchSize);
+                    for (int offset : new int[] {0, 3}) {
+                        ps.setLong(offset + 1, after.transactionId());
+                        ps.setObject(offset + 2, after.productId());
+                        ps.setLong(offset + 3, before);
+                    }
+                    return ps;
+                },
+                handler
+        );
+    }
+
+    /**
+     * Drops tombstones of products deleted before {@code cutoff}; positions up to the last of
+     * them can no longer be resumed from.
+     */
+    public void purgeTombstones(Instant cutoff) {
+        jdbcTemplate.update(PURGE_TOMBSTONES, Timestamp.from(cutoff));
+    }
+}
@@ -0,0 +1,580 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.ProductPageCursor;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchCursor;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based product statements that bypass the persistence context.
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    /**
+     * Units in stock, summing the stripes of striped products.
+     */
+    private static final String STOCK_QUANTITY_SQL = """
+            CASE WHEN products.stock_stripes > 0
+                 THEN (SELECT COALESCE(SUM(s.quantity), 0)::int
+                         FROM product_stock s
+                        WHERE s.product_id = products.id)
+                 ELSE products.stock_quantity
+            END""";
+
+    /**
+     * The product's version. Striped stock writes leave the product row alone and count
+     * themselves on their stripe instead, so a striped product adds its stripes' counts.
+     */
+    private static final String VERSION_SQL = """
+            products.version + CASE WHEN products.stock_stripes > 0
+                                    THEN (SELECT COALESCE(SUM(s.version), 0)
+                                            FROM product_stock s
+                                           WHERE s.product_id = products.id)
+                                    ELSE 0
+                               END""";
+
+    private static final String SELECT_PRODUCT_RESPONSE = """
+            SELECT id, name, category, price,
+                   %s AS stock_quantity,
+                   supplier, description, insertion_time
+              FROM products
+            """.formatted(STOCK_QUANTITY_SQL);
+
+    private static final String SELECT_VERSIONED_PRODUCT = """
+            SELECT id, name, category, price,
+                   %s AS stock_quantity,
+                   supplier, description, insertion_time,
+                   %s AS version
+              FROM products
+            """.formatted(STOCK_QUANTITY_SQL, VERSION_SQL);
+
+    // Striped products never match: their stock is not in this row
+    private static final String APPLY_STOCK_DELTA = """
+            UPDATE products
+               SET stock_quantity = stock_quantity + ?,
+                   version = version + 1
+             WHERE id = ?
+               AND stock_stripes = 0
+               AND stock_quantity + ? >= 0
+            """;
+
+    private static final String INCREASE_STOCK = """
+            UPDATE products
+               SET stock_quantity = stock_quantity + ?,
+                   version = version + 1
+             WHERE id = ?
+               AND stock_stripes = 0
+            """;
+
+    private static final String DECREASE_STOCK = """
+            UPDATE products
+               SET stock_quantity = stock_quantity - ?,
+                   version = version + 1
+             WHERE id = ?
+               AND stock_stripes = 0
+               AND stock_quantity >= ?
+            """;
+
+    private static final String UPDATE_PRODUCT = """
+            UPDATE products
+               SET name = ?,
+                   category = ?,
+                   price = ?,
+                   supplier = ?,
+                   description = ?,
+                   insertion_time = ?,
+                   version = version + 1
+             WHERE id = ?
+            """;
+
+    private static final String VERSION_GUARD = " AND " + VERSION_SQL + " = ?";
+    private static final String RETURNING_STOCK = " RETURNING stock_quantity";
+    private static final String RETURNING_VERSION = " RETURNING " + VERSION_SQL;
+
+    // KEY SHARE keeps the stripe count stable without blocking other stock writers
+    private static final String FIND_STOCK_STATES = """
+            SELECT id, %s AS version, stock_quantity, stock_stripes
+              FROM products
+             WHERE id = ANY(?)
+               FOR KEY SHARE
+            """.formatted(VERSION_SQL);
+
+    // SHARE also holds off product updates, which KEY SHARE lets through
+    private static final String SHARE_STOCK_STATE = """
+            SELECT id, %s AS version, stock_quantity, stock_stripes
+              FROM products
+             WHERE id = ?
+               FOR SHARE
+            """.formatted(VERSION_SQL);
+
+    private static final String LOCK_STOCK_STATE = """
+            SELECT id, %s AS version, stock_quantity, stock_stripes
+              FROM products
+             WHERE id = ?
+               FOR UPDATE
+            """.formatted(VERSION_SQL);
+
+    // Takes over the write counts of the stripes being replaced, so the version never goes back
+    private static final String SET_STOCK_STRIPES = """
+            UPDATE products
+               SET stock_stripes = ?,
+                   stock_quantity = ?,
+                   version = version + 1 + ?
+             WHERE id = ?
+            """;
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (id, name, category, price, stock_quantity,
+                                  supplier, description, insertion_time)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // In id order, which the autocomplete index relies on to find products by id
+    private static final String STREAM_NAMES = """
+            SELECT id, name, %s AS stock_quantity
+              FROM products
+             ORDER BY id
+            """.formatted(STOCK_QUANTITY_SQL);
+
+    /**
+     * Full-text matches on name, supplier and description, or names that contain a word
+     * similar to the search text. Every match the GIN indexes return is ranked, and the
+     * {@code max-candidates} best, by rank then id, are the candidates every page is cut from:
+     * the ranking is exact, and a search returns at most that many products in all. The
+     * top-N sort keeps only that many rows in memory; the rank is still computed once per match.
+     * The candidate subquery is aliased {@code products} for {@link #STOCK_QUANTITY_SQL}.
+     */
+    private static final String SEARCH_PRODUCTS = """
+            SELECT products.id, products.name, products.category, products.price,
+                   %s AS stock_quantity,
+                   products.supplier, products.description, products.insertion_time, products.rank
+              FROM (SELECT p.id, p.name, p.category, p.price, p.stock_quantity, p.stock_stripes,
+                           p.supplier, p.description, p.insertion_time,
+                           (ts_rank_cd(p.search_vector, q.query, 32) + word_similarity(?, p.name))::real AS rank
+                      FROM products p,
+                           to_tsquery('simple', ?) AS q(query)
+                     WHERE (p.search_vector @@ q.query OR ? <%% p.name)
+                       AND (CAST(? AS VARCHAR) IS NULL OR p.category = ?)
+                     ORDER BY rank DESC, p.id DESC
+                     LIMIT ?) AS products
+            """.formatted(STOCK_QUANTITY_SQL);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int streamFetchSize;
+    private final int searchMaxCandidates;
+
+    public ProductJdbcRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${catalog.export.fetch-size:1000}") int streamFetchSize,
+                                 @Value("${catalog.search.max-candidates:5000}") int searchMaxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamFetchSize = streamFetchSize;
+        this.searchMaxCandidates = searchMaxCandidates;
+    }
+
+    /**
+     * Applies a signed delta to the stock of a product in a single conditional UPDATE.
+     *
+     * @param expectedVersion when not null, the update only applies at this version
+     * @return the new quantity, or empty when the product does not exist, is not at
+     *         the expected version, or the delta would take the stock below zero
+     */
+    public OptionalInt applyStockDelta(UUID productId, int delta, Long expectedVersion) {
+
+        List<Integer> result = expectedVersion == null
+                ? jdbcTemplate.query(
+                        APPLY_STOCK_DELTA + RETURNING_STOCK,
+                        (rs, rowNum) -> rs.getInt(1),
+                        delta, productId, delta)
+                : jdbcTemplate.query(
+                        APPLY_STOCK_DELTA + VERSION_GUARD + RETURNING_STOCK,
+                        (rs, rowNum) -> rs.getInt(1),
+                        delta, productId, delta, expectedVersion);
+
+        return result.isEmpty()
+                ? OptionalInt.empty()
+                : OptionalInt.of(result.get(0));
+    }
+
+    /**
+     * Overwrites the editable fields of a product and bumps its version.
+     *
+     * @param expectedVersion when not null, the update only applies at this version
+     * @return the new version, or empty when the product does not exist
+     *         or is not at the expected version
+     */
+    public OptionalLong update(UUID productId, UpdateProductRequest request,
+                               Instant updateTime, Long expectedVersion) {
+
+        List<Object> args = new ArrayList<>(Arrays.asList(
+                request.name(),
+                request.category().name(),
+                request.price(),
+                request.supplier(),
+                request.description(),
+                OffsetDateTime.ofInstant(updateTime, ZoneOffset.UTC),
+                productId
+        ));
+
+        String sql = UPDATE_PRODUCT;
+        if (expectedVersion != null) {
+            sql += VERSION_GUARD;
+            args.add(expectedVersion);
+        }
+
+        List<Long> result = jdbcTemplate.query(
+                sql + RETURNING_VERSION,
+                (rs, rowNum) -> rs.getLong(1),
+                args.toArray()
+        );
+
+        return result.isEmpty()
+                ? OptionalLong.empty()
+                : OptionalLong.of(result.get(0));
+    }
+
+    /**
+     * Reads version and stock layout, holding a KEY SHARE lock until the transaction ends.
+     */
+    public Optional<StockState> findStockState(UUID productId) {
+        return Optional.ofNullable(findStockStates(List.of(productId)).get(productId));
+    }
+
+    /**
+     * Reads version and stock layout of several products in a single {@code = ANY(?)} query,
+     * holding KEY SHARE locks until the transaction ends.
+     */
+    public Map<UUID, StockState> findStockStates(Collection<UUID> productIds) {
+
+        Map<UUID, StockState> states = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(FIND_STOCK_STATES);
+                    ps.setArray(1, con.createArrayOf("uuid", productIds.toArray()));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> states.put(rs.getObject("id", UUID.class), mapStockState(rs))
+        );
+        return states;
+    }
+
+    /**
+     * Reads version and stock layout under a SHARE lock, which also keeps product updates
+     * out until the transaction ends. A striped product's version is only settled once
+     * the caller holds its stripes as well.
+     */
+    public Optional<StockState> shareStockState(UUID productId) {
+        return jdbcTemplate.query(SHARE_STOCK_STATE, (rs, rowNum) -> mapStockState(rs), productId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Reads version and stock layout under an exclusive row lock, for changing the layout.
+     */
+    public Optional<StockState> lockStockState(UUID productId) {
+        return jdbcTemplate.query(LOCK_STOCK_STATE, (rs, rowNum) -> mapStockState(rs), productId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * @param replacedWrites the write count of the stripes just replaced
+     */
+    public void setStockStripes(UUID productId, int stripes, int stockQuantity, long replacedWrites) {
+        jdbcTemplate.update(SET_STOCK_STRIPES, stripes, stockQuantity, replacedWrites, productId);
+    }
+
+    /**
+     * Decreases the stock of several products in one JDBC batch. Rows are
+     * updated, and therefore locked, in the iteration order of the map.
+     *
+     * @return the ids whose UPDATE matched nothing, in iteration order
+     */
+    public List<UUID> decreaseStockBatch(SortedMap<UUID, Integer> quantities) {
+
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(quantities.entrySet());
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREASE_STOCK, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<UUID, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setObject(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        return unmatched(lines, counts);
+    }
+
+    /**
+     * Adds to the stock of many single-row products in one JDBC batch, in the map's
+     * id order. Returns the ids that matched no row: missing or striped products.
+     */
+    public List<UUID> increaseStockBatch(SortedMap<UUID, Integer> quantities) {
+
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(quantities.entrySet());
+
+        int[] counts = jdbcTemplate.batchUpdate(INCREASE_STOCK, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<UUID, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setObject(2, line.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        return unmatched(lines, counts);
+    }
+
+
+    /**
+     * Inserts new products in one JDBC batch, without the pre-insert SELECT of {@code save()}.
+     */
+    public void insertBatch(List<Product> products) {
+
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, products.size(), (ps, product) -> {
+            ps.setObject(1, product.getId());
+            ps.setString(2, product.getName());
+            ps.setString(3, product.getCategory().name());
+            ps.setBigDecimal(4, product.getPrice());
+            ps.setInt(5, product.getStockQuantity());
+            ps.setString(6, product.getSupplier());
+            ps.setString(7, product.getDescription());
+            ps.setObject(8, OffsetDateTime.ofInstant(product.getInsertionTime(), ZoneOffset.UTC));
+        });
+    }
+
+    /**
+     * Reads a product straight into its response, without an entity, a dirty-checking
+     * snapshot or a persistence context entry.
+     */
+    public Optional<VersionedProduct> findProduct(UUID productId) {
+        return jdbcTemplate.query(SELECT_VERSIONED_PRODUCT + " WHERE id = ?",
+                        ProductJdbcRepository::mapVersionedProduct, productId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Reads several products like {@link #findProduct} in a single {@code = ANY(?)} query,
+     * in no particular order; ids without a product are left out.
+     */
+    public List<VersionedProduct> findProducts(Collection<UUID> productIds) {
+        return jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SELECT_VERSIONED_PRODUCT + " WHERE id = ANY(?)");
+                    ps.setArray(1, con.createArrayOf("uuid", productIds.toArray()));
+                    return ps;
+                },
+                ProductJdbcRepository::mapVersionedProduct
+        );
+    }
+
+    /**
+     * Streams products through a forward-only cursor, {@code catalog.export.fetch-size}
+     * rows at a time. PostgreSQL only uses a cursor inside a transaction.
+     */
+    public void streamProducts(Category category, String supplier, Consumer<ProductResponse> sink) {
+
+        StringBuilder sql = new StringBuilder(SELECT_PRODUCT_RESPONSE).append(" WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (category != null) {
+            sql.append(" AND category = ?");
+            args.add(category.name());
+        }
+        if (supplier != null) {
+            sql.append(" AND supplier = ?");
+            args.add(supplier);
+        }
+
+        RowCallbackHandler handler = rs -> sink.accept(mapProductResponse(rs, 0));
+
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(streamFetchSize);
+                    for (int i = 0; i < args.size(); i++) {
+                        ps.setObject(i + 1, args.get(i));
+                    }
+                    return ps;
+                },
+                handler
+        );
+    }
+
+    /**
+     * Streams the id, name and stock of every product in id order, like {@link #streamProducts}.
+     */
+    public void streamNames(NameSink sink) {
+
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            STREAM_NAMES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(streamFetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> sink.accept(
+                        rs.getObject("id", UUID.class), rs.getString("name"), rs.getInt("stock_quantity"))
+        );
+    }
+
+    /**
+     * Reads one keyset page: seeks past {@code after} on the sort key and id,
+     * so every page is an index range scan however deep it is.
+     */
+    public List<ProductResponse> findPage(ProductQuery query, ProductPageCursor after, int limit) {
+
+        ProductSort sort = query.sort();
+        String direction = sort.isAscending() ? " ASC" : " DESC";
+
+        StringBuilder sql = new StringBuilder(SELECT_PRODUCT_RESPONSE).append(" WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (query.category() != null) {
+            sql.append(" AND category = ?");
+            args.add(query.category().name());
+        }
+        if (query.supplier() != null) {
+            sql.append(" AND supplier = ?");
+            args.add(query.supplier());
+        }
+        if (query.minPrice() != null) {
+            sql.append(" AND price >= ?");
+            args.add(query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            args.add(query.maxPrice());
+        }
+        if (after != null) {
+            sql.append(" AND (").append(sort.getColumn()).append(", id)")
+                    .append(sort.isAscending() ? " > " : " < ")
+                    .append("(?, ?)");
+            args.add(sort.parseKey(after.key()));
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY ").append(sort.getColumn()).append(direction)
+                .append(", id").append(direction)
+                .append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), ProductJdbcRepository::mapProductResponse, args.toArray());
+    }
+
+    /**
+     * Reads one page of search hits, best first, seeking past {@code after} on rank and id.
+     *
+     * @param tsQuery the text as a {@code to_tsquery} expression
+     * @param text    the plain text for trigram similarity
+     */
+    public List<ProductSearchHit> search(String tsQuery, String text, Category category,
+                                         ProductSearchCursor after, int limit) {
+
+        String categoryName = category != null ? category.name() : null;
+        List<Object> args = new ArrayList<>(List.of(text, tsQuery, text));
+        args.add(categoryName);
+        args.add(categoryName);
+        args.add(searchMaxCandidates);
+
+        StringBuilder sql = new StringBuilder(SEARCH_PRODUCTS);
+        if (after != null) {
+            sql.append(" WHERE (products.rank, products.id) < (CAST(? AS REAL), ?)");
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY products.rank DESC, products.id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new ProductSearchHit(mapProductResponse(rs, rowNum), rs.getFloat("rank")),
+                args.toArray());
+    }
+
+    private static List<UUID> unmatched(List<Map.Entry<UUID, Integer>> lines, int[] counts) {
+
+        List<UUID> rejected = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    private static StockState mapStockState(ResultSet rs) throws SQLException {
+        return new StockState(
+                rs.getLong("version"),
+                rs.getInt("stock_quantity"),
+                rs.getInt("stock_stripes")
+        );
+    }
+
+    static ProductResponse mapProductResponse(ResultSet rs, int rowNum) throws SQLException {
+
+        return new ProductResponse(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                Category.valueOf(rs.getString("category")),
+                rs.getBigDecimal("price"),
+                rs.getInt("stock_quantity"),
+                rs.getString("supplier"),
+                rs.getString("description"),
+                rs.getObject("insertion_time", OffsetDateTime.class).toInstant()
+        );
+    }
+
+    private static VersionedProduct mapVersionedProduct(ResultSet rs, int rowNum) throws SQLException {
+        return new VersionedProduct(mapProductResponse(rs, rowNum), rs.getLong("version"));
+    }
+
+    @FunctionalInterface
+    public interface NameSink {
+
+        void accept(UUID productId, String name, int stockQuantity);
+    }
+}
@@ -0,0 +1,11 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.dto.product.ProductResponse;
+
+/**
+ * A product matching a search, with the rank it is ordered by.
+ */
+public record ProductSearchHit(
+        ProductResponse product,
+        float rank
+) {}
@@ -0,0 +1,111 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.domain.product.ProductStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductStockRepository extends JpaRepository<ProductStock, ProductStock.Key> {
+
+    /**
+     * Takes the amount from one random stripe that holds enough and is not locked by another
+     * transaction. Returns 0 when every such stripe is busy or short.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE product_stock
+               SET quantity = quantity - :amount,
+                   version = version + 1
+             WHERE product_id = :productId
+               AND stripe = (SELECT stripe
+                               FROM product_stock
+                              WHERE product_id = :productId
+                                AND quantity >= :amount
+                              ORDER BY random()
+                              LIMIT 1
+                                FOR UPDATE SKIP LOCKED)
+               AND quantity >= :amount
+            """, nativeQuery = true)
+    int takeFromFreeStripe(@Param("productId") UUID productId, @Param("amount") int amount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE product_stock
+               SET quantity = quantity - :amount,
+                   version = version + 1
+             WHERE product_id = :productId
+               AND stripe = :stripe
+               AND quantity >= :amount
+            """, nativeQuery = true)
+    int takeFromStripe(@Param("productId") UUID productId,
+                       @Param("stripe") int stripe,
+                       @Param("amount") int amount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE product_stock
+               SET quantity = quantity + :amount,
+                   version = version + 1
+             WHERE product_id = :productId
+               AND stripe = :stripe
+            """, nativeQuery = true)
+    int addToStripe(@Param("productId") UUID productId,
+                    @Param("stripe") int stripe,
+                    @Param("amount") int amount);
+
+    @Query(value = """
+            SELECT COALESCE(SUM(quantity), 0)
+              FROM product_stock
+             WHERE product_id = :productId
+            """, nativeQuery = true)
+    int sumQuantity(@Param("productId") UUID productId);
+
+    @Query(value = """
+            SELECT COALESCE(SUM(version), 0)
+              FROM product_stock
+             WHERE product_id = :productId
+            """, nativeQuery = true)
+    long sumVersions(@Param("productId") UUID productId);
+
+    // Always locked in stripe order, so rebalancing transactions cannot deadlock each other
+    @Query(value = """
+            SELECT *
+              FROM product_stock
+             WHERE product_id = :productId
+             ORDER BY stripe
+               FOR UPDATE
+            """, nativeQuery = true)
+    List<ProductStock> lockStripes(@Param("productId") UUID productId);
+
+    // Same lock order, without loading the rows into the persistence context
+    @Query(value = """
+            SELECT stripe
+              FROM product_stock
+             WHERE product_id = :productId
+             ORDER BY stripe
+               FOR UPDATE
+            """, nativeQuery = true)
+    List<Integer> lockStripeNumbers(@Param("productId") UUID productId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_stock (product_id, stripe, quantity)
+            VALUES (:productId, :stripe, :quantity)
+            """, nativeQuery = true)
+    int insertStripe(@Param("productId") UUID productId,
+                     @Param("stripe") int stripe,
+                     @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM product_stock
+             WHERE product_id = :productId
+            """, nativeQuery = true)
+    int deleteStripes(@Param("productId") UUID productId);
+}
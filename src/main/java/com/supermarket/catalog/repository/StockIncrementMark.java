@@ -0,0 +1,17 @@
+package com.supermarket.catalog.repository;
+
+/**
+ * How far into a node's stock increment log one product's increases were already applied.
+ */
+public record StockIncrementMark(
+        long segment,
+        long position
+) {
+
+    /**
+     * Whether the record ending at {@code position} of {@code segment} was applied.
+     */
+    public boolean covers(long segment, long position) {
+        return segment < this.segment || (segment == this.segment && position <= this.position);
+    }
+}
@@ -0,0 +1,102 @@
+package com.supermarket.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applied markers for the write-behind stock increment log segments of each node, and
+ * the per-product marks of increases applied ahead of their segments.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockIncrementSegmentRepository {
+
+    private static final String INSERT_SEGMENT = """
+            INSERT INTO stock_increment_segments (node_id, segment)
+            VALUES (?, ?)
+            """;
+
+    private static final String FIND_APPLIED = """
+            SELECT segment
+              FROM stock_increment_segments
+             WHERE node_id = ?
+            """;
+
+    private static final String DELETE_BELOW = """
+            DELETE FROM stock_increment_segments
+             WHERE node_id = ?
+               AND segment < ?
+            """;
+
+    private static final String UPSERT_MARK = """
+            INSERT INTO stock_increment_marks (node_id, product_id, segment, position)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (node_id, product_id)
+            DO UPDATE SET segment = EXCLUDED.segment, position = EXCLUDED.position
+            """;
+
+    private static final String FIND_MARKS = """
+            SELECT product_id, segment, position
+              FROM stock_increment_marks
+             WHERE node_id = ?
+            """;
+
+    private static final String DELETE_MARKS_BELOW = """
+            DELETE FROM stock_increment_marks
+             WHERE node_id = ?
+               AND segment < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void markApplied(String nodeId, List<Long> segments) {
+        jdbcTemplate.batchUpdate(INSERT_SEGMENT, segments, segments.size(), (ps, segment) -> {
+            ps.setString(1, nodeId);
+            ps.setLong(2, segment);
+        });
+    }
+
+    public Set<Long> findApplied(String nodeId) {
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_APPLIED, Long.class, nodeId));
+    }
+
+    /**
+     * Records that the products' increases up to {@code position} of {@code segment} are applied.
+     */
+    public void markProductsApplied(String nodeId, Collection<UUID> productIds, long segment, long position) {
+        jdbcTemplate.batchUpdate(UPSERT_MARK, productIds, productIds.size(), (ps, productId) -> {
+            ps.setString(1, nodeId);
+            ps.setObject(2, productId);
+            ps.setLong(3, segment);
+            ps.setLong(4, position);
+        });
+    }
+
+    public Map<UUID, StockIncrementMark> findMarks(String nodeId) {
+
+        Map<UUID, StockIncrementMark> marks = new HashMap<>();
+        jdbcTemplate.query(FIND_MARKS, (RowCallbackHandler) rs -> marks.put(
+                rs.getObject("product_id", UUID.class),
+                new StockIncrementMark(rs.getLong("segment"), rs.getLong("position"))
+        ), nodeId);
+        return marks;
+    }
+
+    /**
+     * Forgets markers and marks of segments whose files are already deleted.
+     */
+    public void deleteBelow(String nodeId, long segment) {
+        jdbcTemplate.update(DELETE_BELOW, nodeId, segment);
+        jdbcTemplate.update(DELETE_MARKS_BELOW, nodeId, segment);
+    }
+}
@@ -0,0 +1,14 @@
+package com.supermarket.catalog.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An open hold of {@code quantity} units taken out of a product's stock.
+ */
+public record StockReservation(
+        UUID id,
+        UUID productId,
+        int quantity,
+        Instant expiresAt
+) {}
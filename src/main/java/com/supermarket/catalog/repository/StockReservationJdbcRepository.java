@@ -0,0 +1,134 @@
+package com.supermarket.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Open stock reservations. Every way out of a reservation deletes its row with
+ * {@code DELETE ... RETURNING}, so commit, release and expiry race safely: exactly
+ * one of them gets the row back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationJdbcRepository {
+
+    private static final String INSERT_RESERVATION = """
+            INSERT INTO stock_reservations (id, product_id, quantity, created_at, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_RESERVATION = """
+            DELETE FROM stock_reservations
+             WHERE id = ?
+            RETURNING id, product_id, quantity, expires_at
+            """;
+
+    private static final String DELETE_LIVE_RESERVATION = """
+            DELETE FROM stock_reservations
+             WHERE id = ?
+               AND expires_at > ?
+            RETURNING id, product_id, quantity, expires_at
+            """;
+
+    private static final String DELETE_EXPIRED_RESERVATION = """
+            DELETE FROM stock_reservations
+             WHERE id = ?
+               AND expires_at <= ?
+            RETURNING id, product_id, quantity, expires_at
+            """;
+
+    private static final String SELECT_OPEN = """
+            SELECT id, product_id, quantity, expires_at
+              FROM stock_reservations
+            """;
+
+    private static final String SELECT_EXPIRED_IDS = """
+            SELECT id
+              FROM stock_reservations
+             WHERE expires_at <= ?
+             ORDER BY expires_at
+             LIMIT ?
+            """;
+
+    private static final String SUM_RESERVED = """
+            SELECT COALESCE(SUM(quantity), 0)
+              FROM stock_reservations
+             WHERE product_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(StockReservation reservation, Instant createdAt) {
+        jdbcTemplate.update(INSERT_RESERVATION,
+                reservation.id(),
+                reservation.productId(),
+                reservation.quantity(),
+                OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC),
+                OffsetDateTime.ofInstant(reservation.expiresAt(), ZoneOffset.UTC));
+    }
+
+    /**
+     * Removes a reservation whatever its expiry.
+     */
+    public Optional<StockReservation> delete(UUID reservationId) {
+        return first(jdbcTemplate.query(DELETE_RESERVATION, this::mapReservation, reservationId));
+    }
+
+    /**
+     * Removes a reservation only if it has not expired at {@code now}.
+     */
+    public Optional<StockReservation> deleteLive(UUID reservationId, Instant now) {
+        return first(jdbcTemplate.query(DELETE_LIVE_RESERVATION, this::mapReservation,
+                reservationId, OffsetDateTime.ofInstant(now, ZoneOffset.UTC)));
+    }
+
+    /**
+     * Removes a reservation only if it has expired at {@code now}.
+     */
+    public Optional<StockReservation> deleteExpired(UUID reservationId, Instant now) {
+        return first(jdbcTemplate.query(DELETE_EXPIRED_RESERVATION, this::mapReservation,
+                reservationId, OffsetDateTime.ofInstant(now, ZoneOffset.UTC)));
+    }
+
+    /**
+     * Streams every open reservation, for rebuilding the expiry timers after a restart.
+     */
+    public void forEachOpen(Consumer<StockReservation> sink) {
+        jdbcTemplate.query(SELECT_OPEN, (RowCallbackHandler) rs -> sink.accept(mapReservation(rs, 0)));
+    }
+
+    public List<UUID> findExpiredIds(Instant now, int limit) {
+        return jdbcTemplate.query(SELECT_EXPIRED_IDS, (rs, rowNum) -> rs.getObject(1, UUID.class),
+                OffsetDateTime.ofInstant(now, ZoneOffset.UTC), limit);
+    }
+
+    public int sumReserved(UUID productId) {
+        Integer reserved = jdbcTemplate.queryForObject(SUM_RESERVED, Integer.class, productId);
+        return reserved == null ? 0 : reserved;
+    }
+
+    private StockReservation mapReservation(ResultSet rs, int rowNum) throws SQLException {
+        return new StockReservation(
+                rs.getObject("id", UUID.class),
+                rs.getObject("product_id", UUID.class),
+                rs.getInt("quantity"),
+                rs.getObject("expires_at", OffsetDateTime.class).toInstant()
+        );
+    }
+
+    private static Optional<StockReservation> first(List<StockReservation> rows) {
+        return rows.stream().findFirst();
+    }
+}
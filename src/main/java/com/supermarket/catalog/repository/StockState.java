@@ -0,0 +1,16 @@
+package com.supermarket.catalog.repository;
+
+/**
+ * Version and stock layout of a product row. For striped products
+ * {@code stockQuantity} is zero and the units live in their stripes.
+ */
+public record StockState(
+        long version,
+        int stockQuantity,
+        int stockStripes
+) {
+
+    public boolean striped() {
+        return stockStripes > 0;
+    }
+}
@@ -1,9 +1,13 @@
 package com.supermarket.catalog.repository;
 
 import com.supermarket.catalog.domain.user.User;
+import com.supermarket.catalog.dto.user.UserResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -12,4 +16,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
-}
\ No newline at end of file
+    // A constructor expression: no entity is managed, and the password is never read
+    @Query("""
+            SELECT new com.supermarket.catalog.dto.user.UserResponse(u.id, u.username, u.email, u.insertionTime)
+              FROM User u
+             WHERE u.id = :id
+            """)
+    Optional<UserResponse> findResponseById(@Param("id") UUID id);
+
+}
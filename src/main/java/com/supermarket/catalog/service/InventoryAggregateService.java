@@ -0,0 +1,26 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.dto.inventory.InventoryAggregateResponse;
+import com.supermarket.catalog.dto.inventory.InventoryReconciliationResponse;
+import com.supermarket.catalog.exception.ConflictException;
+
+import java.util.List;
+
+/**
+ * Product counts, units and stock value per category and per supplier. The totals move with
+ * every committed change to products and stock, and are read without scanning products.
+ */
+public interface InventoryAggregateService {
+
+    List<InventoryAggregateResponse> byCategory();
+
+    List<InventoryAggregateResponse> bySupplier();
+
+    /**
+     * Rebuilds the totals from the products themselves, repairing any drift.
+     *
+     * @throws ConflictException when another node is reconciling or folding the totals
+     */
+    InventoryReconciliationResponse reconcile()
+            throws ConflictException;
+}
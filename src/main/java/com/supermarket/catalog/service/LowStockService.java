@@ -0,0 +1,52 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.dto.product.LowStockEvent;
+import com.supermarket.catalog.dto.product.LowStockResponse;
+import com.supermarket.catalog.dto.product.ReorderThresholdRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reorder thresholds and the products currently below theirs. The set follows every
+ * committed stock change, so listing it costs the low products only.
+ */
+public interface LowStockService {
+
+    UUID setReorderThreshold(UUID productId, ReorderThresholdRequest request)
+            throws EntityNotFoundException;
+
+    /**
+     * Products below their threshold, the longest-running shortage first.
+     */
+    List<LowStockResponse> listLowStock(int limit)
+            throws InvalidInputException;
+
+    /**
+     * Delivers every threshold crossing from now on to {@code sink}, until the subscription
+     * is closed or the sink throws.
+     */
+    Subscription subscribe(EventSink sink);
+
+    /**
+     * Receives the events of one subscriber, one at a time, on a thread of its own:
+     * {@code low-stock}, {@code restocked}, {@code resync} and {@code heartbeat}.
+     * {@code data} is null for a resync or heartbeat.
+     */
+    @FunctionalInterface
+    interface EventSink {
+        void send(String name, LowStockEvent data) throws IOException;
+    }
+
+    interface Subscription extends AutoCloseable {
+
+        /**
+         * Stops the deliveries. Closing twice does nothing.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.dto.product.ProductChange;
+import com.supermarket.catalog.dto.product.ProductChangeWindow;
+import com.supermarket.catalog.exception.GoneException;
+import com.supermarket.catalog.exception.InvalidInputException;
+
+import java.util.function.Consumer;
+
+/**
+ * Feed of changes to the catalog fields of products, including deletes, for clients that keep
+ * a copy of the catalog. Each entry carries a token to resume after it.
+ */
+public interface ProductChangeService {
+
+    /**
+     * @param since a token from an earlier read, or null to read the whole catalog
+     * @throws GoneException when tombstones the client still needs were already purged;
+     *                       the client must start over without a token
+     */
+    ProductChangeWindow openWindow(String since)
+            throws InvalidInputException, GoneException;
+
+    /**
+     * Streams the changes in the window in feed order; each product appears once, as it is now.
+     */
+    void streamChanges(ProductChangeWindow window, Consumer<ProductChange> sink);
+}
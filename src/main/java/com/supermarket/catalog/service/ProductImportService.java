@@ -0,0 +1,13 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.dto.product.ProductImportFormat;
+import com.supermarket.catalog.dto.product.ProductImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResult importProducts(InputStream body, ProductImportFormat format)
+            throws IOException;
+}
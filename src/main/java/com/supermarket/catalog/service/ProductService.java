@@ -1,30 +1,84 @@
 package com.supermarket.catalog.service;
 
-import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
 import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductLookupResponse;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
 import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
 import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
 import com.supermarket.catalog.exception.InvalidInputException;
 import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.PreconditionFailedException;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
     UUID createProduct(CreateProductRequest request) throws InvalidInputException;
 
-    Product getProduct(UUID productId)
+    VersionedProduct getProduct(UUID productId)
             throws EntityNotFoundException;
 
-    UUID updateProduct(UUID productId, UpdateProductRequest request)
-            throws InvalidInputException, EntityNotFoundException;
+    /**
+     * Reads many products at once; ids asked for more than once are answered once.
+     */
+    ProductLookupResponse lookupProducts(List<UUID> productIds)
+            throws InvalidInputException;
 
-    UUID increaseStock(UUID productId, StockUpdateRequest request)
-            throws InvalidInputException, EntityNotFoundException;
+    ProductPage listProducts(ProductQuery query)
+            throws InvalidInputException;
 
-    UUID decreaseStock(UUID productId, StockUpdateRequest request)
-            throws InvalidInputException, EntityNotFoundException;
+    /**
+     * Ranked full-text search over name, supplier and description that also matches
+     * misspelled names. Every word must match as a word or word prefix.
+     */
+    ProductPage searchProducts(ProductSearchQuery query)
+            throws InvalidInputException;
+
+    /**
+     * Typeahead served from memory: products with a word that starts with the prefix, by
+     * descending stock. Stock, and changes made on other nodes, show with some delay.
+     */
+    List<ProductSuggestion> suggestProducts(String prefix, int limit)
+            throws InvalidInputException;
+
+    /**
+     * @param expectedVersion when not null, the write only applies if the product is still at this version
+     */
+    UUID updateProduct(UUID productId, UpdateProductRequest request, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException;
+
+    /**
+     * With write-behind enabled, an unconditional increase is acknowledged once it is in the
+     * local log and becomes visible to reads with the next flush; decreases always see it.
+     */
+    UUID increaseStock(UUID productId, StockUpdateRequest request, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException;
+
+    UUID decreaseStock(UUID productId, StockUpdateRequest request, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException;
+
+    /**
+     * Moves the product's stock into the requested number of stripes, or back into its own
+     * row for zero. Stock changes on a striped product do not bump its version.
+     */
+    UUID configureStockStripes(UUID productId, StockStripesRequest request)
+            throws EntityNotFoundException;
 
     UUID deleteProduct(UUID productId)
             throws EntityNotFoundException;
+
+    void checkout(CheckoutRequest request)
+            throws InvalidInputException, EntityNotFoundException;
+
+    void exportProducts(Category category, String supplier, Consumer<ProductResponse> sink);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.dto.reservation.ProductAvailabilityResponse;
+import com.supermarket.catalog.dto.reservation.ReservationResponse;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+
+import java.util.UUID;
+
+/**
+ * Holds stock for a limited time. Reserving takes the units out of the product's stock
+ * at once; committing keeps them out, releasing or expiring puts them back.
+ */
+public interface StockReservationService {
+
+    ReservationResponse reserve(ReserveStockRequest request)
+            throws InvalidInputException, EntityNotFoundException;
+
+    /**
+     * Makes the hold final. Fails once the reservation has expired, even before the expiry ran.
+     */
+    void commit(UUID reservationId)
+            throws EntityNotFoundException;
+
+    void release(UUID reservationId)
+            throws EntityNotFoundException;
+
+    /**
+     * Releases the reservation if it has expired, returning whether it did.
+     */
+    boolean expire(UUID reservationId);
+
+    ProductAvailabilityResponse availability(UUID productId)
+            throws EntityNotFoundException;
+}
@@ -1,8 +1,8 @@
 package com.supermarket.catalog.service;
 
-import com.supermarket.catalog.domain.user.User;
 import com.supermarket.catalog.dto.user.CreateUserRequest;
 import com.supermarket.catalog.dto.user.UpdateUserRequest;
+import com.supermarket.catalog.dto.user.UserResponse;
 import com.supermarket.catalog.exception.ConflictException;
 import com.supermarket.catalog.exception.EntityNotFoundException;
 
@@ -13,7 +13,7 @@ public interface UserService {
     UUID createUser(CreateUserRequest request)
             throws ConflictException;
 
-    User getUser(UUID userId)
+    UserResponse getUser(UUID userId)
             throws EntityNotFoundException;
 
     UUID updateUser(UUID userId, UpdateUserRequest request)
@@ -0,0 +1,106 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.exception.ConflictException;
+import com.supermarket.catalog.repository.InventoryAggregateJdbcRepository;
+import com.supermarket.catalog.service.InventoryAggregateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds the inventory deltas into the aggregates every {@code fold-interval}, keeping reads
+ * short, and reconciles the aggregates with the products every {@code reconcile-interval}.
+ * Every node runs both; the advisory lock lets one of them do the work.
+ */
+@Slf4j
+@Component
+class InventoryAggregateJobs implements SmartLifecycle {
+
+    private final InventoryAggregateJdbcRepository inventoryAggregateRepository;
+    private final InventoryAggregateService inventoryAggregateService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration foldInterval;
+    private final Duration reconcileInterval;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    InventoryAggregateJobs(InventoryAggregateJdbcRepository inventoryAggregateRepository,
+                           InventoryAggregateService inventoryAggregateService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${catalog.inventory.jobs-enabled:true}") boolean enabled,
+                           @Value("${catalog.inventory.fold-interval:5s}") Duration foldInterval,
+                           @Value("${catalog.inventory.reconcile-interval:24h}") Duration reconcileInterval) {
+        this.inventoryAggregateRepository = inventoryAggregateRepository;
+        this.inventoryAggregateService = inventoryAggregateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.foldInterval = foldInterval;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @Override
+    public void start() {
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-aggregates");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::fold,
+                foldInterval.toMillis(), foldInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcile,
+                reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ===== JOBS =====
+    private void fold() {
+
+        try {
+            Integer groups = transactionTemplate.execute(status -> inventoryAggregateRepository.foldDeltas());
+            if (groups != null && groups > 0) {
+                log.debug("Folded inventory deltas into {} groups", groups);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Folding inventory deltas failed", e);
+        }
+    }
+
+    private void reconcile() {
+
+        try {
+            inventoryAggregateService.reconcile();
+        } catch (ConflictException e) {
+            log.info("Skipping inventory reconciliation: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Inventory reconciliation failed", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.dto.inventory.InventoryAggregateResponse;
+import com.supermarket.catalog.dto.inventory.InventoryReconciliationResponse;
+import com.supermarket.catalog.exception.ConflictException;
+import com.supermarket.catalog.repository.InventoryAggregateJdbcRepository;
+import com.supermarket.catalog.repository.InventoryAggregateJdbcRepository.Reconciliation;
+import com.supermarket.catalog.repository.InventoryTotals;
+import com.supermarket.catalog.service.InventoryAggregateService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Timed(value = "catalog.service", histogram = true)
+public class InventoryAggregateServiceImpl implements InventoryAggregateService {
+
+    private final InventoryAggregateJdbcRepository inventoryAggregateRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InventoryAggregateResponse> byCategory() {
+        return toResponses(inventoryAggregateRepository.currentTotals(false));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InventoryAggregateResponse> bySupplier() {
+        return toResponses(inventoryAggregateRepository.currentTotals(true));
+    }
+
+    // The scan commits on its own connections, so it must not join a caller's transaction
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryReconciliationResponse reconcile()
+            throws ConflictException {
+
+        long start = System.nanoTime();
+        Reconciliation reconciliation = inventoryAggregateRepository.reconcile()
+                .orElseThrow(() -> new ConflictException("Inventory totals are being updated, try again shortly"));
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long productCount = reconciliation.totals().values().stream()
+                .mapToLong(InventoryTotals::productCount)
+                .sum();
+        if (reconciliation.driftedGroups() > 0) {
+            log.warn("Inventory reconciliation repaired {} drifted groups", reconciliation.driftedGroups());
+        }
+        log.info("Inventory totals reconciled over {} products in {} ms", productCount, durationMillis);
+
+        return new InventoryReconciliationResponse(
+                reconciliation.totals().size(),
+                reconciliation.driftedGroups(),
+                productCount,
+                durationMillis
+        );
+    }
+
+    private static List<InventoryAggregateResponse> toResponses(Map<String, InventoryTotals> totals) {
+        return totals.entrySet().stream()
+                .map(entry -> new InventoryAggregateResponse(
+                        entry.getKey(),
+                        entry.getValue().productCount(),
+                        entry.getValue().units(),
+                        entry.getValue().stockValue()))
+                .toList();
+    }
+}
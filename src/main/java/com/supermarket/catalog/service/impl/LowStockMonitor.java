@@ -0,0 +1,204 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.cache.PgNotificationListener;
+import com.supermarket.catalog.dto.product.LowStockEvent;
+import com.supermarket.catalog.repository.LowStockJdbcRepository;
+import com.supermarket.catalog.service.LowStockService.EventSink;
+import com.supermarket.catalog.service.LowStockService.Subscription;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes reorder threshold crossings to subscribers as they commit, on any node.
+ * <p>
+ * The V9 triggers announce every crossing on {@value #CHANNEL}; this node relays them to its
+ * subscribers. Each subscriber has a bounded buffer drained by its own virtual thread, so a
+ * slow client never holds up the others. A subscriber whose buffer overflows, or who may have
+ * missed crossings while the notification connection was down, gets a single {@code resync}
+ * event in place of its backlog and should re-read {@code GET /products/low-stock}.
+ */
+@Slf4j
+@Component
+public class LowStockMonitor implements SmartLifecycle, MeterBinder {
+
+    public static final String CHANNEL = "low_stock";
+
+    static final String LOW = "low-stock";
+    static final String RESTOCKED = "restocked";
+    static final String RESYNC = "resync";
+
+    private final LowStockJdbcRepository lowStockRepository;
+    private final int bufferSize;
+    private final Duration heartbeatInterval;
+    private final Duration sweepInterval;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong overflows = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public LowStockMonitor(LowStockJdbcRepository lowStockRepository,
+                           PgNotificationListener notificationListener,
+                           @Value("${catalog.low-stock.buffer-size:256}") int bufferSize,
+                           @Value("${catalog.low-stock.heartbeat-interval:15s}") Duration heartbeatInterval,
+                           @Value("${catalog.low-stock.sweep-interval:1m}") Duration sweepInterval) {
+        this.lowStockRepository = lowStockRepository;
+        this.bufferSize = bufferSize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.sweepInterval = sweepInterval;
+
+        notificationListener.subscribe(CHANNEL, this::onNotification, () -> publish(RESYNC, null));
+    }
+
+    /**
+     * Delivers crossings to {@code sink} until the returned subscription is closed.
+     */
+    public Subscription subscribe(EventSink sink) {
+
+        Subscriber subscriber = new Subscriber(sink, new ArrayBlockingQueue<>(bufferSize));
+        // The sender exists before the subscriber is published, so a close that races this
+        // call always has a thread to interrupt
+        subscribers.add(subscriber);
+        subscriber.sender.start();
+        return () -> remove(subscriber);
+    }
+
+    @Override
+    public void start() {
+
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "low-stock-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep,
+                sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+        // Keeps idle streams open through proxies and finds clients that went away
+        scheduler.scheduleWithFixedDelay(() -> subscribers.forEach(s -> s.events.offer(Event.HEARTBEAT)),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        subscribers.forEach(this::remove);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("catalog.low_stock.subscribers", subscribers, Set::size)
+                .description("Open low-stock event streams on this node")
+                .register(registry);
+        FunctionCounter.builder("catalog.low_stock.overflows", overflows, AtomicLong::get)
+                .description("Subscriber buffers that overflowed and were replaced with a resync")
+                .register(registry);
+    }
+
+    // ===== DELIVERY =====
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.sender.interrupt();
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+
+        try {
+            // Removed before it started, the sender has no interrupt to wake it
+            while (subscribers.contains(subscriber) && !Thread.currentThread().isInterrupted()) {
+                Event event = subscriber.events.take();
+                subscriber.sink.send(event.name(), event.data());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Low-stock subscriber went away: {}", e.getMessage());
+        } finally {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void publish(String name, LowStockEvent data) {
+
+        Event event = new Event(name, data);
+        for (Subscriber subscriber : subscribers) {
+            BlockingQueue<Event> events = subscriber.events;
+            if (!events.offer(event)) {
+                // The backlog is worthless once incomplete: tell the client to re-read the list
+                events.clear();
+                events.offer(new Event(RESYNC, null));
+                overflows.incrementAndGet();
+            }
+        }
+    }
+
+    private void onNotification(String payload) {
+
+        String[] fields = payload.split(",", -1);
+        boolean low = "LOW".equals(fields[1]);
+        publish(low ? LOW : RESTOCKED, new LowStockEvent(
+                UUID.fromString(fields[0]),
+                low,
+                Integer.parseInt(fields[2]),
+                fields[3].isEmpty() ? null : Integer.valueOf(fields[3])
+        ));
+    }
+
+    private void sweep() {
+
+        try {
+            lowStockRepository.refreshStriped();
+        } catch (RuntimeException e) {
+            log.warn("Low-stock sweep failed", e);
+        }
+    }
+
+    private record Event(String name, LowStockEvent data) {
+        static final Event HEARTBEAT = new Event("heartbeat", null);
+    }
+
+    private final class Subscriber {
+
+        private final EventSink sink;
+        private final BlockingQueue<Event> events;
+        private final Thread sender;
+
+        private Subscriber(EventSink sink, BlockingQueue<Event> events) {
+            this.sink = sink;
+            this.events = events;
+            this.sender = Thread.ofVirtual()
+                    .name("low-stock-subscriber")
+                    .unstarted(() -> drain(this));
+        }
+    }
+}
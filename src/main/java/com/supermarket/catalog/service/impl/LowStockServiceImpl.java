@@ -0,0 +1,63 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.dto.product.LowStockResponse;
+import com.supermarket.catalog.dto.product.ReorderThresholdRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.LowStockJdbcRepository;
+import com.supermarket.catalog.service.LowStockService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Timed(value = "catalog.service", histogram = true)
+public class LowStockServiceImpl implements LowStockService {
+
+    private static final int MAX_LOW_STOCK_PAGE = 1_000;
+
+    private final LowStockJdbcRepository lowStockRepository;
+    private final LowStockMonitor lowStockMonitor;
+    private final ProductCache productCache;
+
+    @Override
+    public UUID setReorderThreshold(UUID productId, ReorderThresholdRequest request)
+            throws EntityNotFoundException {
+
+        if (!lowStockRepository.setReorderThreshold(productId, request.threshold())) {
+            throw new EntityNotFoundException("Product not found: " + productId);
+        }
+
+        productCache.evict(productId);
+        log.info("Product {} reorder threshold set to {}", productId, request.threshold());
+
+        return productId;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LowStockResponse> listLowStock(int limit)
+            throws InvalidInputException {
+
+        if (limit < 1 || limit > MAX_LOW_STOCK_PAGE) {
+            throw new InvalidInputException("Limit must be between 1 and " + MAX_LOW_STOCK_PAGE);
+        }
+        return lowStockRepository.findLowStock(limit);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Subscription subscribe(EventSink sink) {
+        return lowStockMonitor.subscribe(sink);
+    }
+}
@@ -0,0 +1,65 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.config.ReplicaRoutingContext;
+import com.supermarket.catalog.dto.product.ProductChange;
+import com.supermarket.catalog.dto.product.ProductChangeCursor;
+import com.supermarket.catalog.dto.product.ProductChangeWindow;
+import com.supermarket.catalog.exception.GoneException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductChangeHorizon;
+import com.supermarket.catalog.repository.ProductChangeJdbcRepository;
+import com.supermarket.catalog.service.ProductChangeService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads the primary only. The window and its changes are read in separate transactions, and
+ * two replicas, or one replica at two replay points, could put changes below the horizon
+ * that the stream does not show yet; the client's token would then skip them for good.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Timed(value = "catalog.service", histogram = true)
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    private final ProductChangeJdbcRepository productChangeRepository;
+
+    @Override
+    public ProductChangeWindow openWindow(String since)
+            throws InvalidInputException, GoneException {
+
+        ProductChangeCursor after = ProductChangeCursor.START;
+        if (since != null) {
+            try {
+                after = ProductChangeCursor.decode(since);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Invalid change token");
+            }
+            // A full read needs no tombstones, a resumed one needs all after its position
+            if (after.transactionId() <= ReplicaRoutingContext.onPrimary(productChangeRepository::purgedThrough)) {
+                throw new GoneException("Change token has expired, read the feed again without one");
+            }
+        }
+
+        ProductChangeHorizon horizon = ReplicaRoutingContext.onPrimary(productChangeRepository::horizon);
+        ProductChangeCursor until = horizon.through() > after.transactionId()
+                ? ProductChangeCursor.before(horizon.through())
+                : after;
+
+        return new ProductChangeWindow(after, until, horizon.heldBack());
+    }
+
+    @Override
+    public void streamChanges(ProductChangeWindow window, Consumer<ProductChange> sink) {
+
+        if (window.until().transactionId() > window.after().transactionId()) {
+            ReplicaRoutingContext.onPrimary(() -> productChangeRepository.streamChanges(
+                    window.after(), window.until().transactionId(), sink));
+        }
+    }
+}
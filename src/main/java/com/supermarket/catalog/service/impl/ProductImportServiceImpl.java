@@ -0,0 +1,291 @@
+package com.supermarket.catalog.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductImportError;
+import com.supermarket.catalog.dto.product.ProductImportFormat;
+import com.supermarket.catalog.dto.product.ProductImportResult;
+import com.supermarket.catalog.id.IdGenerator;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import com.supermarket.catalog.service.ProductImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the request body line by line and inserts valid rows in JDBC batches,
+ * one transaction per batch. Only the current batch is held in memory.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "category", "price", "supplier", "initialquantity", "description"
+    );
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final IdGenerator idGenerator;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportServiceImpl(ProductJdbcRepository productJdbcRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    IdGenerator idGenerator,
+                                    Clock clock,
+                                    @Value("${catalog.import.batch-size:1000}") int batchSize,
+                                    @Value("${catalog.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CreateProductRequest.class);
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ProductImportResult importProducts(InputStream body, ProductImportFormat format)
+            throws IOException {
+
+        long started = System.nanoTime();
+        ImportProgress progress = new ImportProgress(maxReportedErrors);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+
+        Map<String, Integer> csvColumns = null;
+        if (format == ProductImportFormat.CSV) {
+            lineNumber++;
+            csvColumns = parseCsvHeader(reader.readLine());
+        }
+
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            CreateProductRequest request;
+            try {
+                request = format == ProductImportFormat.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : requestReader.readValue(line);
+            } catch (IOException | IllegalArgumentException e) {
+                progress.reject(lineNumber, "Unreadable row: " + e.getMessage());
+                continue;
+            }
+
+            Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                progress.reject(lineNumber, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            batch.add(toProduct(request));
+            batchLines.add(lineNumber);
+
+            if (batch.size() >= batchSize) {
+                flush(batch, batchLines, progress);
+            }
+        }
+        flush(batch, batchLines, progress);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0
+                ? progress.imported
+                : progress.imported * 1000.0 / elapsedMillis;
+
+        log.info("Product import finished: {} imported, {} rejected in {} ms",
+                progress.imported, progress.rejected, elapsedMillis);
+
+        return new ProductImportResult(
+                progress.imported,
+                progress.rejected,
+                progress.errors,
+                elapsedMillis,
+                rowsPerSecond
+        );
+    }
+
+    private void flush(List<Product> batch, List<Long> batchLines, ImportProgress progress) {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> productJdbcRepository.insertBatch(batch));
+            progress.imported += batch.size();
+        } catch (DataAccessException e) {
+            log.warn("Product import batch of {} rows failed", batch.size(), e);
+            String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+            for (Long line : batchLines) {
+                progress.reject(line, message);
+            }
+        } finally {
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+
+    private Product toProduct(CreateProductRequest request) {
+
+        return Product.builder()
+                .id(idGenerator.nextId())
+                .name(request.name())
+                .category(request.category())
+                .price(request.price())
+                .stockQuantity(
+                        request.initialQuantity() != null
+                                ? request.initialQuantity()
+                                : 0
+                )
+                .supplier(request.supplier())
+                .description(request.description())
+                .insertionTime(Instant.now(clock))
+                .build();
+    }
+
+    // ===== CSV =====
+    private static Map<String, Integer> parseCsvHeader(String header) throws IOException {
+
+        if (header == null) {
+            throw new IOException("CSV import requires a header row");
+        }
+
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        for (String required : CSV_COLUMNS.subList(0, 4)) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static CreateProductRequest parseCsvRow(String line, Map<String, Integer> columns) {
+
+        List<String> cells = parseCsvLine(line);
+
+        String quantity = cell(cells, columns, "initialquantity");
+        String category = cell(cells, columns, "category");
+        String price = cell(cells, columns, "price");
+
+        return CreateProductRequest.builder()
+                .name(cell(cells, columns, "name"))
+                .category(category == null ? null : Category.valueOf(category.trim().toUpperCase(Locale.ROOT)))
+                .price(price == null ? null : new BigDecimal(price.trim()))
+                .supplier(cell(cells, columns, "supplier"))
+                .initialQuantity(quantity == null ? null : Integer.valueOf(quantity.trim()))
+                .description(cell(cells, columns, "description"))
+                .build();
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> columns, String column) {
+
+        Integer index = columns.get(column);
+        if (index == null || index >= cells.size() || cells.get(index).isEmpty()) {
+            return null;
+        }
+        return cells.get(index);
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted cells may contain commas and doubled
+     * quotes, but not line breaks, since rows are read one line at a time.
+     */
+    private static List<String> parseCsvLine(String line) {
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted cell");
+        }
+        cells.add(cell.toString());
+
+        return cells;
+    }
+
+    private static final class ImportProgress {
+
+        private final int maxReportedErrors;
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportProgress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportError(line, message));
+            }
+        }
+    }
+}
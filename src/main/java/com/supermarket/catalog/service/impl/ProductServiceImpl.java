@@ -1,29 +1,85 @@
 package com.supermarket.catalog.service.impl;
 
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.cache.ProductNameIndex;
+import com.supermarket.catalog.config.ReplicaRoutingContext;
+import com.supermarket.catalog.domain.product.Category;
 import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
 import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductLookupResponse;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductPageCursor;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchCursor;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
 import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
 import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
 import com.supermarket.catalog.exception.InvalidInputException;
 import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.PreconditionFailedException;
+import com.supermarket.catalog.id.IdGenerator;
+import com.supermarket.catalog.metrics.CatalogMetrics;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
 import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.repository.ProductSearchHit;
+import com.supermarket.catalog.repository.StockState;
 import com.supermarket.catalog.service.ProductService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Clock;
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @Transactional
 @RequiredArgsConstructor
+@Timed(value = "catalog.service", histogram = true)
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_LOOKUP_IDS = 1000;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final StripedStockStore stripedStockStore;
+    private final StockLedger stockLedger;
+    private final StockIncrementBuffer stockIncrementBuffer;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
+    private final CatalogMetrics catalogMetrics;
+    private final IdGenerator idGenerator;
     private final Clock clock;
 
     // ===== CREATE =====
@@ -40,7 +96,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product product = Product.builder()
-                .id(UUID.randomUUID())
+                .id(idGenerator.nextId())
                 .name(request.name())
                 .category(request.category())
                 .price(request.price())
@@ -55,6 +111,7 @@ public class ProductServiceImpl implements ProductService {
                 .build();
 
         productRepository.save(product);
+        productNameIndex.put(product.getId(), product.getName(), product.getStockQuantity());
         log.info("Product created: {} with initial quantity {}", product.getId(), product.getStockQuantity());
 
         return product.getId();
@@ -63,89 +120,248 @@ public class ProductServiceImpl implements ProductService {
     // ===== READ =====
     @Override
     @Transactional(readOnly = true)
-    public Product getProduct(UUID productId)
+    public VersionedProduct getProduct(UUID productId)
             throws EntityNotFoundException {
 
-        return productRepository.findById(productId)
-                .orElseThrow(() ->
-                        new EntityNotFoundException("Product not found: " + productId)
-                );
+        // A writing transaction may read its own uncommitted rows, which must not be cached.
+        // Loads read the primary: a lagging replica would cache the row an eviction just dropped.
+        VersionedProduct product = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? productCache.get(productId, id -> ReplicaRoutingContext.onPrimary(
+                        () -> productJdbcRepository.findProduct(id).orElse(null)))
+                : productJdbcRepository.findProduct(productId).orElse(null);
+
+        if (product == null) {
+            throw new EntityNotFoundException("Product not found: " + productId);
+        }
+        return product;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductLookupResponse lookupProducts(List<UUID> productIds)
+            throws InvalidInputException {
+
+        if (productIds.size() > MAX_LOOKUP_IDS) {
+            throw new InvalidInputException("At most " + MAX_LOOKUP_IDS + " products can be looked up at once");
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>(productIds);
+        Map<UUID, VersionedProduct> found = new HashMap<>(ids.size());
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            found.putAll(productCache.getAllPresent(ids));
+        }
+
+        List<UUID> unread = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!unread.isEmpty()) {
+            productJdbcRepository.findProducts(unread).forEach(product -> found.put(product.product().id(), product));
+        }
+
+        List<ProductResponse> products = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            VersionedProduct product = found.get(id);
+            if (product != null) {
+                products.add(product.product());
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductLookupResponse(products, missing);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPage listProducts(ProductQuery query)
+            throws InvalidInputException {
+
+        if (query.limit() < 1 || query.limit() > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        if (query.minPrice() != null && query.maxPrice() != null
+                && query.minPrice().compareTo(query.maxPrice()) > 0) {
+            throw new InvalidInputException("Minimum price cannot exceed maximum price");
+        }
+
+        ProductPageCursor after = null;
+        if (query.cursor() != null) {
+            try {
+                after = ProductPageCursor.decode(query.cursor());
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new InvalidInputException("Invalid cursor");
+            }
+            if (after.sort() != query.sort()) {
+                throw new InvalidInputException("Cursor was issued for sort " + after.sort());
+            }
+        }
+
+        // One extra row tells whether another page exists
+        List<ProductResponse> rows = productJdbcRepository.findPage(query, after, query.limit() + 1);
+        if (rows.size() <= query.limit()) {
+            return new ProductPage(rows, null);
+        }
+
+        List<ProductResponse> items = rows.subList(0, query.limit());
+        return new ProductPage(
+                List.copyOf(items),
+                ProductPageCursor.after(query.sort(), items.get(items.size() - 1)).encode()
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPage searchProducts(ProductSearchQuery query)
+            throws InvalidInputException {
+
+        if (query.limit() < 1 || query.limit() > MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+
+        // Letters and digits only, so no input can inject tsquery operators
+        List<String> terms = query.text() == null ? List.of() : Arrays.stream(
+                        NON_WORD.split(query.text().toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_SEARCH_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            throw new InvalidInputException("Search text must contain a letter or digit");
+        }
+
+        String text = String.join(" ", terms);
+        String tsQuery = String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+        // Enum names, not enum hash codes, so a cursor stays valid on every node
+        int fingerprint = Objects.hash(text, query.category() != null ? query.category().name() : null);
+
+        ProductSearchCursor after = null;
+        if (query.cursor() != null) {
+            try {
+                after = ProductSearchCursor.decode(query.cursor());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Invalid cursor");
+            }
+            if (after.fingerprint() != fingerprint) {
+                throw new InvalidInputException("Cursor was issued for another search");
+            }
+        }
+
+        List<ProductSearchHit> hits = productJdbcRepository.search(
+                tsQuery, text, query.category(), after, query.limit() + 1);
+        List<ProductResponse> items = hits.stream()
+                .limit(query.limit())
+                .map(ProductSearchHit::product)
+                .toList();
+        if (hits.size() <= query.limit()) {
+            return new ProductPage(items, null);
+        }
+
+        ProductSearchHit last = hits.get(query.limit() - 1);
+        return new ProductPage(
+                items,
+                new ProductSearchCursor(fingerprint, last.rank(), last.product().id()).encode()
+        );
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit)
+            throws InvalidInputException {
+
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new InvalidInputException("Suggestion count must be between 1 and " + MAX_SUGGESTIONS);
+        }
+
+        // Case is folded by the index, which only folds ASCII letters like it does in names
+        String normalised = prefix == null ? "" : String.join(" ", Arrays.stream(NON_WORD.split(prefix))
+                .filter(word -> !word.isEmpty())
+                .toList());
+        if (normalised.isEmpty()) {
+            throw new InvalidInputException("Prefix must contain a letter or digit");
+        }
+
+        return productNameIndex.suggest(normalised, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(Category category, String supplier, Consumer<ProductResponse> sink) {
+
+        productJdbcRepository.streamProducts(category, supplier, sink);
     }
 
     // ===== UPDATE PRODUCT =====
     @Override
-    public UUID updateProduct(UUID productId, UpdateProductRequest request)
-            throws EntityNotFoundException {
+    public UUID updateProduct(UUID productId, UpdateProductRequest request, Long expectedVersion)
+            throws EntityNotFoundException, PreconditionFailedException {
 
-        Product existing = getProduct(productId);
+        OptionalLong newVersion = productJdbcRepository.update(
+                productId, request, Instant.now(clock), expectedVersion);
 
-        Product updated = Product.builder()
-                .id(existing.getId())
-                .name(request.name())
-                .category(request.category())
-                .price(request.price())
-                .stockQuantity(existing.getStockQuantity())
-                .supplier(request.supplier())
-                .description(request.description())
-                .insertionTime(Instant.now(clock))
-                .build();
+        if (newVersion.isEmpty()) {
+            stockLedger.rejectWrite(productId, expectedVersion);
+            throw new PreconditionFailedException("Product was modified concurrently: " + productId);
+        }
 
-        productRepository.save(updated);
-        log.info("Product updated: {}", productId);
+        productCache.evict(productId);
+        productNameIndex.rename(productId, request.name());
+        log.info("Product updated: {} to version {}", productId, newVersion.getAsLong());
 
         return productId;
     }
 
     // ===== INCREASE STOCK =====
     @Override
-    public UUID increaseStock(UUID productId, StockUpdateRequest request)
-            throws EntityNotFoundException {
-
-        Product product = getProduct(productId);
-
-        Product updated = Product.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .category(product.getCategory())
-                .price(product.getPrice())
-                .stockQuantity(product.getStockQuantity() + request.amount())
-                .supplier(product.getSupplier())
-                .description(product.getDescription())
-                .insertionTime(product.getInsertionTime())
-                .build();
+    public UUID increaseStock(UUID productId, StockUpdateRequest request, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
+
+        if (expectedVersion == null && stockIncrementBuffer.enabled()) {
+            if (!productRepository.existsById(productId)) {
+                throw new EntityNotFoundException("Product not found: " + productId);
+            }
+            stockIncrementBuffer.append(productId, request.amount());
+            catalogMetrics.stockIncreased(request.amount());
+            log.debug("Stock increase of {} for product {} buffered", request.amount(), productId);
+
+            return productId;
+        }
 
-        productRepository.save(updated);
-        log.info("Stock increased for product {} by {}", productId, request.amount());
+        int newStock = stockLedger.apply(productId, request.amount(), expectedVersion);
+        catalogMetrics.stockIncreased(request.amount());
+        log.info("Stock increased for product {} by {} to {}", productId, request.amount(), newStock);
 
         return productId;
     }
 
     // ===== DECREASE STOCK =====
     @Override
-    public UUID decreaseStock(UUID productId, StockUpdateRequest request)
-            throws InvalidInputException, EntityNotFoundException {
+    public UUID decreaseStock(UUID productId, StockUpdateRequest request, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
 
-        Product product = getProduct(productId);
+        int newStock = stockLedger.apply(productId, -request.amount(), expectedVersion);
+        catalogMetrics.stockDecreased(request.amount());
+        log.info("Stock decreased for product {} by {} to {}", productId, request.amount(), newStock);
 
-        int newStock = product.getStockQuantity() - request.amount();
-        if (newStock < 0) {
-            log.warn("Attempt to reduce stock zero for product {}", productId);
-            throw new InvalidInputException("Stock cannot be negative");
-        }
+        return productId;
+    }
 
-        Product updated = Product.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .category(product.getCategory())
-                .price(product.getPrice())
-                .stockQuantity(newStock)
-                .supplier(product.getSupplier())
-                .description(product.getDescription())
-                .insertionTime(product.getInsertionTime())
-                .build();
+    // ===== STOCK STRIPES =====
+    @Override
+    public UUID configureStockStripes(UUID productId, StockStripesRequest request)
+            throws EntityNotFoundException {
 
-        productRepository.save(updated);
-        log.info("Stock decreased for product {} by {}", productId, request.amount());
+        // FOR UPDATE waits out in-flight stock writers, which hold KEY SHARE on the row
+        StockState state = productJdbcRepository.lockStockState(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
+
+        int quantity = state.striped()
+                ? stripedStockStore.total(productId)
+                : state.stockQuantity();
+
+        long replacedWrites = stripedStockStore.reshape(productId, request.stripes(), quantity);
+        productJdbcRepository.setStockStripes(
+                productId, request.stripes(), request.stripes() > 0 ? 0 : quantity, replacedWrites);
+
+        productCache.evict(productId);
+        log.info("Product {} stock moved to {} stripes with {} units", productId, request.stripes(), quantity);
 
         return productId;
     }
@@ -160,8 +376,61 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.deleteById(productId);
+        productCache.evict(productId);
+        productNameIndex.remove(productId);
         log.info("Product deleted: {}", productId);
 
         return productId;
     }
-}
\ No newline at end of file
+
+    // ===== CHECKOUT =====
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void checkout(CheckoutRequest request)
+            throws InvalidInputException, EntityNotFoundException {
+
+        // Merge repeated lines and sort by id, so concurrent baskets lock rows in the same order
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
+        try {
+            for (CheckoutLine line : request.lines()) {
+                quantities.merge(line.productId(), line.quantity(), Math::addExact);
+            }
+        } catch (ArithmeticException e) {
+            // A wrapped, negative total would pass the stock guard and add stock
+            throw new InvalidInputException("Checkout quantity too large for a product");
+        }
+        stockIncrementBuffer.flushBefore(quantities.keySet());
+
+        List<UUID> rejected = productJdbcRepository.decreaseStockBatch(quantities);
+        productCache.evictAll(quantities.keySet());
+        if (!rejected.isEmpty()) {
+            // Striped products always miss the single-row batch and are served here, still in id order
+            Map<UUID, StockState> states = productJdbcRepository.findStockStates(rejected);
+            List<UUID> missing = rejected.stream()
+                    .filter(id -> !states.containsKey(id))
+                    .toList();
+
+            if (!missing.isEmpty()) {
+                throw new EntityNotFoundException("Products not found: " + missing);
+            }
+
+            List<UUID> shortStock = new ArrayList<>();
+            for (UUID productId : rejected) {
+                StockState state = states.get(productId);
+                if (!state.striped()
+                        || !stripedStockStore.take(productId, state.stockStripes(), quantities.get(productId))) {
+                    shortStock.add(productId);
+                }
+            }
+
+            if (!shortStock.isEmpty()) {
+                catalogMetrics.negativeStockRejected();
+                log.warn("Checkout rejected, insufficient stock for products {}", shortStock);
+                throw new InvalidInputException("Insufficient stock for products: " + shortStock);
+            }
+        }
+
+        quantities.values().forEach(catalogMetrics::stockDecreased);
+        log.info("Checkout completed for {} products", quantities.size());
+    }
+}
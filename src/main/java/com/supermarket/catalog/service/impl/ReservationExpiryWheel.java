@@ -0,0 +1,253 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.repository.StockReservationJdbcRepository;
+import com.supermarket.catalog.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel for reservation expiry. Scheduling and cancelling are O(1) and lock-free;
+ * a single tick thread owns the slots and hands due reservations to an expiry thread, so the
+ * database is only touched by reservations that actually expire.
+ * <p>
+ * Timers live in memory only. On start every open reservation is re-scheduled from the
+ * database, and a periodic sweep expires overdue holds whose timer lived on a node that died.
+ */
+@Slf4j
+@Component
+class ReservationExpiryWheel implements SmartLifecycle {
+
+    private static final int SWEEP_BATCH = 1_000;
+
+    private final StockReservationJdbcRepository reservationRepository;
+    private final StockReservationService reservationService;
+    private final Clock clock;
+    private final long tickMillis;
+    private final Duration sweepInterval;
+
+    private final List<Queue<Timer>> slots;
+    private final int mask;
+    private final Queue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Timer> timers = new ConcurrentHashMap<>();
+
+    private long tick;
+    private ScheduledExecutorService ticker;
+    private ExecutorService expirer;
+    private volatile boolean running;
+
+    ReservationExpiryWheel(StockReservationJdbcRepository reservationRepository,
+                           @Lazy StockReservationService reservationService,
+                           Clock clock,
+                           @Value("${catalog.reservations.tick:100ms}") Duration tick,
+                           @Value("${catalog.reservations.wheel-size:512}") int wheelSize,
+                           @Value("${catalog.reservations.sweep-interval:1m}") Duration sweepInterval) {
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.sweepInterval = sweepInterval;
+
+        // A power of two lets the slot index be a mask instead of a modulo
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Fires {@link StockReservationService#expire} for the reservation once its deadline passed.
+     */
+    void schedule(UUID reservationId, Instant deadline) {
+
+        Timer timer = new Timer(reservationId, deadline.toEpochMilli());
+        Timer previous = timers.put(reservationId, timer);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timer);
+    }
+
+    void cancel(UUID reservationId) {
+
+        Timer timer = timers.remove(reservationId);
+        if (timer != null) {
+            timer.cancelled = true;
+        }
+    }
+
+    @Override
+    public void start() {
+
+        running = true;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "reservation-expiry-tick"));
+        expirer = Executors.newSingleThreadExecutor(r -> daemon(r, "reservation-expiry"));
+
+        recover();
+
+        tick = clock.millis() / tickMillis;
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(
+                () -> expirer.execute(this::sweep),
+                sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (expirer != null) {
+            expirer.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ===== TICK =====
+    /**
+     * Catches up with the wall clock one tick at a time, so a late run never skips a slot.
+     */
+    private void advance() {
+
+        try {
+            long target = clock.millis() / tickMillis;
+            transferPending();
+
+            List<UUID> due = new ArrayList<>();
+            while (tick <= target) {
+                collectDue(slots.get((int) (tick & mask)), due);
+                tick++;
+            }
+
+            if (!due.isEmpty()) {
+                expirer.execute(() -> expireAll(due));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reservation expiry tick failed", e);
+        }
+    }
+
+    private void transferPending() {
+
+        Timer timer;
+        while ((timer = pending.poll()) != null) {
+            if (timer.cancelled) {
+                continue;
+            }
+            // Rounded up, so the slot is only reached once the deadline has passed;
+            // overdue timers go into the current slot and fire on this tick
+            long deadlineTick = Math.max((timer.deadlineMillis + tickMillis - 1) / tickMillis, tick);
+            timer.rounds = (deadlineTick - tick) / slots.size();
+            slots.get((int) (deadlineTick & mask)).add(timer);
+        }
+    }
+
+    private void collectDue(Queue<Timer> slot, List<UUID> due) {
+
+        Iterator<Timer> timersInSlot = slot.iterator();
+        while (timersInSlot.hasNext()) {
+            Timer timer = timersInSlot.next();
+            if (timer.cancelled) {
+                timersInSlot.remove();
+            } else if (timer.rounds > 0) {
+                timer.rounds--;
+            } else {
+                timersInSlot.remove();
+                timers.remove(timer.reservationId, timer);
+                due.add(timer.reservationId);
+            }
+        }
+    }
+
+    // ===== EXPIRY =====
+    private void expireAll(List<UUID> reservationIds) {
+
+        int expired = 0;
+        for (UUID reservationId : reservationIds) {
+            try {
+                if (reservationService.expire(reservationId)) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                // The sweep retries it from the database
+                log.warn("Could not expire reservation {}", reservationId, e);
+            }
+        }
+        log.debug("Expired {} of {} due reservations", expired, reservationIds.size());
+    }
+
+    private void recover() {
+
+        try {
+            int[] recovered = {0};
+            reservationRepository.forEachOpen(reservation -> {
+                schedule(reservation.id(), reservation.expiresAt());
+                recovered[0]++;
+            });
+            log.info("Recovered {} open stock reservations", recovered[0]);
+        } catch (DataAccessException e) {
+            log.warn("Could not recover open stock reservations, the sweep will expire them", e);
+        }
+    }
+
+    private void sweep() {
+
+        try {
+            List<UUID> overdue;
+            do {
+                overdue = reservationRepository.findExpiredIds(
+                        Instant.now(clock).minusMillis(tickMillis), SWEEP_BATCH);
+                expireAll(overdue);
+            } while (overdue.size() == SWEEP_BATCH && running);
+        } catch (DataAccessException e) {
+            log.warn("Reservation expiry sweep failed", e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Timer {
+
+        private final UUID reservationId;
+        private final long deadlineMillis;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timer(UUID reservationId, long deadlineMillis) {
+            this.reservationId = reservationId;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
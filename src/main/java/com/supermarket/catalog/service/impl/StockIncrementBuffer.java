@@ -0,0 +1,420 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import com.supermarket.catalog.repository.StockIncrementMark;
+import com.supermarket.catalog.repository.StockIncrementSegmentRepository;
+import com.supermarket.catalog.repository.StockState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Opt-in write-behind for stock increases. An increase is acknowledged once it is
+ * durable in the local {@link StockIncrementLog}, and is coalesced per product in
+ * memory until a flush applies every pending product in one batched UPDATE.
+ * <p>
+ * A flush rolls the log to a new segment and marks the flushed segments as applied
+ * in the same transaction as the stock updates. On start, unmarked segments are
+ * replayed, so an acknowledged increase is applied exactly once across crashes.
+ * <p>
+ * A stock decrease first applies the pending increases of the products it is about to check,
+ * in its own transaction and on the connection it already holds, so it never checks a
+ * quantity that misses increases this node acknowledged, and never needs a second connection.
+ * It marks how far into the log each product was applied, and recovery skips those records;
+ * if the decrease rolls back, the increases go back into the buffer. Decreases flush side by side, but a full flush waits until none is in flight,
+ * since it marks whole segments applied. The buffer is node-local: a decrease on another
+ * node does not see increases still buffered here, for up to a flush interval.
+ */
+@Slf4j
+@Component
+class StockIncrementBuffer implements SmartLifecycle {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final StripedStockStore stripedStockStore;
+    private final StockIncrementSegmentRepository segmentRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration flushInterval;
+    private final int flushThreshold;
+    private final StockIncrementLog incrementLog;
+
+    // Guards the log's current segment together with the deltas appended to it
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Read: a decrease's flush, until its transaction completes. Write: a full flush
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock(true);
+
+    private Map<UUID, Integer> pending = new HashMap<>();
+    private final List<Long> unflushedSegments = new ArrayList<>();
+    private int pendingIncrements;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    StockIncrementBuffer(ProductJdbcRepository productJdbcRepository,
+                         StripedStockStore stripedStockStore,
+                         StockIncrementSegmentRepository segmentRepository,
+                         ProductCache productCache,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${catalog.stock.write-behind.enabled:false}") boolean enabled,
+                         @Value("${catalog.stock.write-behind.node-id:local}") String nodeId,
+                         @Value("${catalog.stock.write-behind.log-dir:stock-increments}") Path logDirectory,
+                         @Value("${catalog.stock.write-behind.fsync:true}") boolean fsync,
+                         @Value("${catalog.stock.write-behind.flush-interval:200ms}") Duration flushInterval,
+                         @Value("${catalog.stock.write-behind.flush-threshold:10000}") int flushThreshold) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.stripedStockStore = stripedStockStore;
+        this.segmentRepository = segmentRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.incrementLog = new StockIncrementLog(logDirectory, fsync);
+    }
+
+    boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns once the increase is durable in the local log. It reaches the database with the next flush.
+     */
+    void append(UUID productId, int amount) {
+
+        long segment;
+        long position;
+        boolean full;
+        appendLock.lock();
+        try {
+            position = incrementLog.append(productId, amount);
+            segment = incrementLog.segment();
+            pending.merge(productId, amount, Integer::sum);
+            full = ++pendingIncrements == flushThreshold;
+        } finally {
+            appendLock.unlock();
+        }
+
+        // Concurrent appenders share the fsync of whoever gets there first
+        incrementLog.sync(segment, position);
+
+        if (full && running) {
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    /**
+     * Applies the pending increases of the given products, and only theirs, in the caller's
+     * transaction, which must not have touched these stock rows yet. They commit with it; if
+     * it rolls back, they are pending again.
+     */
+    void flushBefore(Collection<UUID> productIds) {
+
+        if (!enabled || !hasPending(productIds)) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Held until the transaction completes, so no full flush marks these records' segments meanwhile
+            flushLock.readLock().lock();
+            ProductBatch batch;
+            try {
+                batch = takeProducts(productIds);
+            } catch (RuntimeException e) {
+                flushLock.readLock().unlock();
+                throw e;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completion) {
+                    try {
+                        if (completion != STATUS_COMMITTED) {
+                            restore(new FlushBatch(batch.deltas(), List.of()));
+                        }
+                    } finally {
+                        flushLock.readLock().unlock();
+                    }
+                }
+            });
+            if (!batch.deltas().isEmpty()) {
+                apply(batch);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        recover();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-increment-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInBackground,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Leaves nothing to replay after a clean shutdown
+        flushInBackground();
+        incrementLog.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ===== FLUSH =====
+    private void flushInBackground() {
+
+        try {
+            // Lets in-flight decreases finish; the next flush retries if they take longer
+            if (!flushLock.writeLock().tryLock(flushInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        FlushBatch batch = null;
+        try {
+            batch = takeBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            FlushBatch flushing = batch;
+            transactionTemplate.executeWithoutResult(status -> apply(flushing));
+            incrementLog.delete(batch.segments());
+        } catch (RuntimeException e) {
+            log.warn("Stock increment flush failed, retrying with the next one", e);
+            restore(batch);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the pending deltas of the given products, noting how far into the log they reach.
+     * Called with the flush read lock held.
+     */
+    private ProductBatch takeProducts(Collection<UUID> productIds) {
+
+        appendLock.lock();
+        try {
+            SortedMap<UUID, Integer> deltas = new TreeMap<>();
+            for (UUID productId : productIds) {
+                Integer amount = pending.remove(productId);
+                if (amount != null) {
+                    deltas.put(productId, amount);
+                }
+            }
+            return new ProductBatch(deltas, new StockIncrementMark(incrementLog.segment(), incrementLog.position()));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Swaps the pending deltas for an empty map and closes the segment they were logged in.
+     * Called with the flush write lock held.
+     */
+    private FlushBatch takeBatch() {
+
+        appendLock.lock();
+        try {
+            List<Long> segments = new ArrayList<>(unflushedSegments);
+            unflushedSegments.clear();
+            if (!pending.isEmpty()) {
+                segments.add(incrementLog.roll());
+            }
+
+            FlushBatch batch = new FlushBatch(new TreeMap<>(pending), segments);
+            pending = new HashMap<>();
+            pendingIncrements = 0;
+            return batch;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void restore(FlushBatch batch) {
+
+        if (batch == null) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            batch.deltas().forEach((productId, amount) -> pending.merge(productId, amount, Integer::sum));
+            unflushedSegments.addAll(batch.segments());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void apply(FlushBatch batch) {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        increase(batch.deltas());
+        forgetDeletedSegments();
+        segmentRepository.markApplied(nodeId, batch.segments());
+        log.debug("Flushed buffered stock increases of {} products from segments {}",
+                batch.deltas().size(), batch.segments());
+    }
+
+    private void apply(ProductBatch batch) {
+
+        increase(batch.deltas());
+        segmentRepository.markProductsApplied(
+                nodeId, batch.deltas().keySet(), batch.through().segment(), batch.through().position());
+        log.debug("Flushed buffered stock increases of products {} ahead of their segments", batch.deltas().keySet());
+    }
+
+    /**
+     * One UPDATE per product in a single JDBC batch, in id order like checkout.
+     */
+    private void increase(SortedMap<UUID, Integer> deltas) {
+
+        List<UUID> unmatched = productJdbcRepository.increaseStockBatch(deltas);
+        if (!unmatched.isEmpty()) {
+            Map<UUID, StockState> states = productJdbcRepository.findStockStates(unmatched);
+            for (UUID productId : unmatched) {
+                StockState state = states.get(productId);
+                if (state == null) {
+                    log.warn("Dropping {} buffered units of deleted product {}", deltas.get(productId), productId);
+                } else {
+                    stripedStockStore.add(productId, state.stockStripes(), deltas.get(productId));
+                }
+            }
+        }
+        productCache.evictAll(deltas.keySet());
+    }
+
+    // ===== RECOVERY =====
+    /**
+     * Replays the segments a previous run left unapplied, skipping the records of products
+     * flushed ahead of them, and continues in a fresh segment.
+     */
+    private void recover() {
+
+        try {
+            SortedMap<Long, Path> segments = incrementLog.segments();
+            Set<Long> applied = segmentRepository.findApplied(nodeId);
+            Map<UUID, StockIncrementMark> marks = segmentRepository.findMarks(nodeId);
+
+            List<Long> stale = new ArrayList<>();
+            for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+                long number = segment.getKey();
+                if (applied.contains(number)) {
+                    stale.add(number);
+                } else {
+                    StockIncrementLog.read(segment.getValue(), (productId, amount, position) -> {
+                        StockIncrementMark mark = marks.get(productId);
+                        if (mark == null || !mark.covers(number, position)) {
+                            pending.merge(productId, amount, Integer::sum);
+                        }
+                    });
+                    unflushedSegments.add(number);
+                }
+            }
+            incrementLog.delete(stale);
+
+            long next = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+            incrementLog.open(next);
+            transactionTemplate.executeWithoutResult(status -> forgetDeletedSegments());
+
+            log.info("Stock increment log recovered {} unapplied segments for {} products",
+                    unflushedSegments.size(), pending.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drops the markers of segments older than every file still on disk. A segment whose
+     * file could not be deleted keeps its marker, so recovery goes on skipping it.
+     */
+    private void forgetDeletedSegments() {
+
+        try {
+            SortedMap<Long, Path> segments = incrementLog.segments();
+            segmentRepository.deleteBelow(nodeId, segments.isEmpty() ? incrementLog.segment() : segments.firstKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean hasPending(Collection<UUID> productIds) {
+
+        appendLock.lock();
+        try {
+            for (UUID productId : productIds) {
+                if (pending.containsKey(productId)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private record FlushBatch(SortedMap<UUID, Integer> deltas, List<Long> segments) {
+
+        boolean isEmpty() {
+            return deltas.isEmpty() && segments.isEmpty();
+        }
+    }
+
+    /**
+     * Pending deltas of some products, logged no further than {@code through}.
+     */
+    private record ProductBatch(SortedMap<UUID, Integer> deltas, StockIncrementMark through) {}
+}
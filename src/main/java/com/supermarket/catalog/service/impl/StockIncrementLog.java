@@ -0,0 +1,239 @@
+package com.supermarket.catalog.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only segment files of stock increments, one fixed-size record per increment:
+ * product id, amount and a CRC32 of both. A torn record at the end of a segment,
+ * left by a crash mid-write, fails its checksum and ends the replay of that segment.
+ * <p>
+ * {@link #append} and {@link #roll} must be serialised by the caller; {@link #sync}
+ * may be called from any thread and lets concurrent appenders share one fsync.
+ */
+@Slf4j
+final class StockIncrementLog {
+
+    private static final int RECORD_BYTES = 16 + 4 + 4;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.log");
+
+    private final Path directory;
+    private final boolean fsync;
+    // A lock rather than synchronized, so a virtual thread waiting on fsync does not pin its carrier
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private FileChannel channel;
+    private long segment;
+    private volatile long written;
+    private volatile long synced;
+
+    StockIncrementLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Lists the segment files left in the directory, by segment number.
+     */
+    SortedMap<Long, Path> segments() throws IOException {
+
+        Files.createDirectories(directory);
+        SortedMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    /**
+     * Receives a replayed record and the position just past it, as {@link #append} returned it.
+     */
+    interface RecordSink {
+
+        void accept(UUID productId, int amount, long position);
+    }
+
+    /**
+     * Replays the intact records of a segment file.
+     */
+    static void read(Path file, RecordSink sink) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (buffer.remaining() >= RECORD_BYTES) {
+            long most = buffer.getLong();
+            long least = buffer.getLong();
+            int amount = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (checksum != checksum(most, least, amount)) {
+                log.warn("Stopping replay of {} at a torn record", file);
+                return;
+            }
+            sink.accept(new UUID(most, least), amount, buffer.position());
+        }
+    }
+
+    /**
+     * Starts appending to a new segment file.
+     */
+    void open(long segment) {
+
+        try {
+            channel = FileChannel.open(segmentFile(segment),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.segment = segment;
+            written = 0;
+            synced = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long segment() {
+        return segment;
+    }
+
+    /**
+     * The position just past the last record written to the current segment.
+     */
+    long position() {
+        return written;
+    }
+
+    /**
+     * Writes one record to the current segment, not yet forced to disk.
+     *
+     * @return the position to pass to {@link #sync} before acknowledging the increment
+     */
+    long append(UUID productId, int amount) {
+
+        record.clear();
+        record.putLong(productId.getMostSignificantBits());
+        record.putLong(productId.getLeastSignificantBits());
+        record.putInt(amount);
+        record.putInt(checksum(productId.getMostSignificantBits(), productId.getLeastSignificantBits(), amount));
+        record.flip();
+
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written += RECORD_BYTES;
+        return written;
+    }
+
+    /**
+     * Returns once the current segment is durable up to {@code position}. The first caller
+     * forces everything written so far, so the others waiting behind it return at once.
+     */
+    void sync(long segment, long position) {
+
+        if (!fsync) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            // Older segments were forced when they were rolled
+            if (segment != this.segment || synced >= position) {
+                return;
+            }
+            try {
+                long target = written;
+                channel.force(false);
+                synced = target;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Forces and closes the current segment and continues in the next one.
+     *
+     * @return the number of the closed segment
+     */
+    long roll() {
+
+        syncLock.lock();
+        try {
+            long closed = segment;
+            try {
+                if (fsync) {
+                    channel.force(false);
+                }
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            open(closed + 1);
+            return closed;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    void delete(List<Long> segments) {
+
+        for (long applied : segments) {
+            try {
+                Files.deleteIfExists(segmentFile(applied));
+            } catch (IOException e) {
+                // Its marker is kept until the file is gone, so recovery still skips it
+                log.warn("Could not delete applied stock increment segment {}", applied, e);
+            }
+        }
+    }
+
+    void close() {
+
+        syncLock.lock();
+        try {
+            try {
+                if (channel != null && channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                log.warn("Could not close stock increment segment {}", segment, e);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve("segment-" + segment + ".log");
+    }
+
+    private static int checksum(long most, long least, int amount) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(20).putLong(most).putLong(least).putInt(amount).flip());
+        return (int) crc.getValue();
+    }
+}
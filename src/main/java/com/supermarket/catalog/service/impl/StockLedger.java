@@ -0,0 +1,138 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.exception.PreconditionFailedException;
+import com.supermarket.catalog.metrics.CatalogMetrics;
+import com.supermarket.catalog.repository.ProductJdbcRepository;
+import com.supermarket.catalog.repository.StockState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Applies stock deltas to single-row and striped products alike, for every service
+ * that moves stock. Runs in the caller's transaction and evicts the product on success.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class StockLedger {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final StripedStockStore stripedStockStore;
+    private final StockIncrementBuffer stockIncrementBuffer;
+    private final ProductCache productCache;
+    private final CatalogMetrics catalogMetrics;
+
+    /**
+     * @param expectedVersion when not null, the delta only applies if the product is still at this version
+     * @return the product's new stock
+     */
+    int apply(UUID productId, int delta, Long expectedVersion)
+            throws InvalidInputException, EntityNotFoundException, PreconditionFailedException {
+
+        flushIncrementsBefore(productId, delta);
+        OptionalInt newStock = productJdbcRepository.applyStockDelta(productId, delta, expectedVersion);
+        if (newStock.isPresent()) {
+            productCache.evict(productId);
+            return newStock.getAsInt();
+        }
+
+        // The conditional UPDATE matched nothing: the product is missing, changed, striped or short
+        StockState state = rejectWrite(productId, expectedVersion);
+        if (state.striped() && expectedVersion != null) {
+            state = settleStripedVersion(productId, expectedVersion);
+        }
+        return applyStriped(productId, state, delta);
+    }
+
+    /**
+     * Applies the delta whatever the product's version.
+     *
+     * @return the product's new stock
+     */
+    int apply(UUID productId, int delta)
+            throws InvalidInputException, EntityNotFoundException {
+
+        flushIncrementsBefore(productId, delta);
+        OptionalInt newStock = productJdbcRepository.applyStockDelta(productId, delta, null);
+        if (newStock.isPresent()) {
+            productCache.evict(productId);
+            return newStock.getAsInt();
+        }
+
+        return applyStriped(productId, currentState(productId), delta);
+    }
+
+    /**
+     * Explains a conditional write that matched no row. Returns the product's stock state only when
+     * it exists at the expected version, leaving the caller to blame its own condition.
+     */
+    StockState rejectWrite(UUID productId, Long expectedVersion)
+            throws EntityNotFoundException, PreconditionFailedException {
+
+        StockState state = currentState(productId);
+        if (expectedVersion != null && state.version() != expectedVersion) {
+            throw new PreconditionFailedException(
+                    "Product " + productId + " is at version " + state.version());
+        }
+        return state;
+    }
+
+    // ===== HELPERS =====
+    // A decrease must check the quantity including increases still buffered for write-behind
+    private void flushIncrementsBefore(UUID productId, int delta) {
+        if (delta < 0) {
+            stockIncrementBuffer.flushBefore(List.of(productId));
+        }
+    }
+
+    /**
+     * KEY SHARE lets product updates and other stripe writers through until the delta is
+     * applied. Holds the product row FOR SHARE and every stripe, then checks the version again.
+     */
+    private StockState settleStripedVersion(UUID productId, long expectedVersion)
+            throws EntityNotFoundException, PreconditionFailedException {
+
+        stripedStockStore.lockAll(productId);
+        StockState state = productJdbcRepository.shareStockState(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
+        if (state.version() != expectedVersion) {
+            throw new PreconditionFailedException(
+                    "Product " + productId + " is at version " + state.version());
+        }
+        return state;
+    }
+
+    private StockState currentState(UUID productId)
+            throws EntityNotFoundException {
+
+        return productJdbcRepository.findStockState(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
+    }
+
+    private int applyStriped(UUID productId, StockState state, int delta)
+            throws InvalidInputException {
+
+        if (state.striped() && delta >= 0) {
+            int newStock = stripedStockStore.add(productId, state.stockStripes(), delta);
+            productCache.evict(productId);
+            return newStock;
+        }
+
+        if (state.striped() && stripedStockStore.take(productId, state.stockStripes(), -delta)) {
+            productCache.evict(productId);
+            return stripedStockStore.total(productId);
+        }
+
+        catalogMetrics.negativeStockRejected();
+        log.warn("Attempt to reduce stock below zero for product {}", productId);
+        throw new InvalidInputException("Stock cannot be negative");
+    }
+}
@@ -0,0 +1,178 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.dto.reservation.ProductAvailabilityResponse;
+import com.supermarket.catalog.dto.reservation.ReservationResponse;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.id.IdGenerator;
+import com.supermarket.catalog.repository.StockReservation;
+import com.supermarket.catalog.repository.StockReservationJdbcRepository;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final StockReservationJdbcRepository reservationRepository;
+    private final StockLedger stockLedger;
+    private final ProductService productService;
+    private final ReservationExpiryWheel expiryWheel;
+    private final IdGenerator idGenerator;
+    private final Clock clock;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public StockReservationServiceImpl(StockReservationJdbcRepository reservationRepository,
+                                       StockLedger stockLedger,
+                                       ProductService productService,
+                                       ReservationExpiryWheel expiryWheel,
+                                       IdGenerator idGenerator,
+                                       Clock clock,
+                                       @Value("${catalog.reservations.ttl:15m}") Duration defaultTtl,
+                                       @Value("${catalog.reservations.max-ttl:2h}") Duration maxTtl) {
+        this.reservationRepository = reservationRepository;
+        this.stockLedger = stockLedger;
+        this.productService = productService;
+        this.expiryWheel = expiryWheel;
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    // ===== RESERVE =====
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ReservationResponse reserve(ReserveStockRequest request)
+            throws InvalidInputException, EntityNotFoundException {
+
+        Duration ttl = request.ttlSeconds() != null
+                ? Duration.ofSeconds(request.ttlSeconds())
+                : defaultTtl;
+
+        if (ttl.compareTo(maxTtl) > 0) {
+            throw new InvalidInputException("Reservation TTL cannot exceed " + maxTtl.toSeconds() + " seconds");
+        }
+
+        // Same conditional decrement as a sale, so holds can never oversell the product
+        stockLedger.apply(request.productId(), -request.quantity());
+
+        Instant now = Instant.now(clock);
+        StockReservation reservation = new StockReservation(
+                idGenerator.nextId(),
+                request.productId(),
+                request.quantity(),
+                now.plus(ttl)
+        );
+        reservationRepository.insert(reservation, now);
+
+        // The timer must not fire before the row is visible to the expiring transaction
+        afterCommit(() -> expiryWheel.schedule(reservation.id(), reservation.expiresAt()));
+        log.info("Reserved {} units of product {} until {}",
+                reservation.quantity(), reservation.productId(), reservation.expiresAt());
+
+        return toResponse(reservation);
+    }
+
+    // ===== COMMIT =====
+    @Override
+    public void commit(UUID reservationId)
+            throws EntityNotFoundException {
+
+        StockReservation reservation = reservationRepository.deleteLive(reservationId, Instant.now(clock))
+                .orElseThrow(() -> new EntityNotFoundException("Reservation not found or expired: " + reservationId));
+
+        afterCommit(() -> expiryWheel.cancel(reservationId));
+        log.info("Reservation {} committed: {} units of product {}",
+                reservationId, reservation.quantity(), reservation.productId());
+    }
+
+    // ===== RELEASE =====
+    @Override
+    public void release(UUID reservationId)
+            throws EntityNotFoundException {
+
+        StockReservation reservation = reservationRepository.delete(reservationId)
+                .orElseThrow(() -> new EntityNotFoundException("Reservation not found: " + reservationId));
+
+        returnStock(reservation);
+        afterCommit(() -> expiryWheel.cancel(reservationId));
+        log.info("Reservation {} released", reservationId);
+    }
+
+    @Override
+    public boolean expire(UUID reservationId) {
+
+        Optional<StockReservation> reservation = reservationRepository.deleteExpired(reservationId, Instant.now(clock));
+        if (reservation.isEmpty()) {
+            return false;
+        }
+
+        returnStock(reservation.get());
+        log.info("Reservation {} expired", reservationId);
+        return true;
+    }
+
+    // ===== AVAILABILITY =====
+    @Override
+    @Transactional(readOnly = true)
+    public ProductAvailabilityResponse availability(UUID productId)
+            throws EntityNotFoundException {
+
+        // Product stock is already net of holds; the reserved sum reads the product_id index
+        return new ProductAvailabilityResponse(
+                productId,
+                productService.getProduct(productId).product().stockQuantity(),
+                reservationRepository.sumReserved(productId)
+        );
+    }
+
+    // ===== HELPERS =====
+    private void returnStock(StockReservation reservation) {
+
+        try {
+            stockLedger.apply(reservation.productId(), reservation.quantity());
+        } catch (EntityNotFoundException | InvalidInputException e) {
+            // Deleting a product cascades to its reservations, and adding stock cannot go negative
+            throw new IllegalStateException("Cannot return stock of reservation " + reservation.id(), e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ReservationResponse toResponse(StockReservation reservation) {
+        return new ReservationResponse(
+                reservation.id(),
+                reservation.productId(),
+                reservation.quantity(),
+                reservation.expiresAt()
+        );
+    }
+}
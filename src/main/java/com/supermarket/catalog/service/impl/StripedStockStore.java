@@ -0,0 +1,114 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.domain.product.ProductStock;
+import com.supermarket.catalog.repository.ProductStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock operations on the {@link ProductStock} stripes of a striped product.
+ * Callers must hold at least a KEY SHARE lock on the product row, which keeps
+ * the stripe count stable for the rest of the transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class StripedStockStore {
+
+    private final ProductStockRepository productStockRepository;
+
+    /**
+     * Adds to one random stripe and returns the product's new total.
+     */
+    int add(UUID productId, int stripes, int amount) {
+
+        productStockRepository.addToStripe(productId, ThreadLocalRandom.current().nextInt(stripes), amount);
+
+        return productStockRepository.sumQuantity(productId);
+    }
+
+    /**
+     * Takes the amount from a single stripe, rebalancing all stripes only when none can cover it.
+     * Returns false, changing nothing, when the product's total is short.
+     */
+    boolean take(UUID productId, int stripes, int amount) {
+
+        // Fast path: any idle stripe with enough stock, without waiting on other transactions
+        if (productStockRepository.takeFromFreeStripe(productId, amount) == 1) {
+            return true;
+        }
+
+        // Every candidate was busy: wait on each stripe in turn, starting at a random one
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (productStockRepository.takeFromStripe(productId, (start + i) % stripes, amount) == 1) {
+                return true;
+            }
+        }
+
+        return rebalanceAndTake(productId, amount);
+    }
+
+    /**
+     * Sums the stripes of a product, or zero when it has none.
+     */
+    int total(UUID productId) {
+        return productStockRepository.sumQuantity(productId);
+    }
+
+    /**
+     * Locks every stripe of the product until the transaction ends, so neither its stock
+     * nor its version can change under a conditional write.
+     */
+    void lockAll(UUID productId) {
+        productStockRepository.lockStripeNumbers(productId);
+    }
+
+    /**
+     * Replaces the product's stripes with {@code stripes} rows sharing {@code quantity} evenly.
+     * Callers must hold the product row FOR UPDATE, so no other transaction touches the stripes.
+     *
+     * @return the write count of the replaced stripes, which the product row must take over
+     */
+    long reshape(UUID productId, int stripes, int quantity) {
+
+        long replacedWrites = productStockRepository.sumVersions(productId);
+        productStockRepository.deleteStripes(productId);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            productStockRepository.insertStripe(productId, stripe, share(quantity, stripes, stripe));
+        }
+        return replacedWrites;
+    }
+
+    // ===== HELPERS =====
+    /**
+     * No single stripe holds the amount, but the total may: lock every stripe, take the amount
+     * and spread the remainder evenly so later decrements find stock on the fast path again.
+     */
+    private boolean rebalanceAndTake(UUID productId, int amount) {
+
+        List<ProductStock> locked = productStockRepository.lockStripes(productId);
+        int total = locked.stream().mapToInt(ProductStock::getQuantity).sum();
+        if (total < amount) {
+            return false;
+        }
+
+        int remaining = total - amount;
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(share(remaining, locked.size(), i));
+        }
+        productStockRepository.flush();
+
+        log.debug("Rebalanced {} stock stripes of product {} to {} units", locked.size(), productId, remaining);
+        return true;
+    }
+
+    private static int share(int quantity, int stripes, int stripe) {
+        return quantity / stripes + (stripe < quantity % stripes ? 1 : 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.supermarket.catalog.service.impl;
+
+import com.supermarket.catalog.repository.ProductChangeJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops product tombstones once they are older than {@code tombstone-retention}. Clients that
+ * last read the change feed before then have to read it again from the start.
+ */
+@Slf4j
+@Component
+class TombstonePurger implements SmartLifecycle {
+
+    private final ProductChangeJdbcRepository productChangeRepository;
+    private final Clock clock;
+    private final Duration retention;
+    private final Duration purgeInterval;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    TombstonePurger(ProductChangeJdbcRepository productChangeRepository,
+                    Clock clock,
+                    @Value("${catalog.changes.tombstone-retention:30d}") Duration retention,
+                    @Value("${catalog.changes.purge-interval:1h}") Duration purgeInterval) {
+        this.productChangeRepository = productChangeRepository;
+        this.clock = clock;
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+    }
+
+    @Override
+    public void start() {
+
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tombstone-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purge,
+                purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void purge() {
+
+        try {
+            productChangeRepository.purgeTombstones(clock.instant().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Purging product tombstones failed", e);
+        }
+    }
+}
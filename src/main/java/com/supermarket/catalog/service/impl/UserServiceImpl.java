@@ -1,30 +1,43 @@
 package com.supermarket.catalog.service.impl;
 
+import com.supermarket.catalog.cache.UserAuthCache;
 import com.supermarket.catalog.domain.user.User;
 import com.supermarket.catalog.dto.user.CreateUserRequest;
 import com.supermarket.catalog.dto.user.UpdateUserRequest;
+import com.supermarket.catalog.dto.user.UserResponse;
 import com.supermarket.catalog.exception.ConflictException;
 import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.id.IdGenerator;
 import com.supermarket.catalog.repository.UserRepository;
 import com.supermarket.catalog.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Each write checks what it changes in its own transaction, on the primary: checked on a
+ * lagging replica, a user created a moment ago would not exist yet.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "catalog.service", histogram = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserAuthCache userAuthCache;
+    private final IdGenerator idGenerator;
     private final Clock clock;
 
     // ===== CREATE =====
     @Override
+    @Transactional
     public UUID createUser(CreateUserRequest request)
             throws ConflictException {
 
@@ -39,7 +52,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User user = User.builder()
-                .id(UUID.randomUUID())
+                .id(idGenerator.nextId())
                 .username(request.username())
                 .password(request.password())
                 .email(request.email())
@@ -54,12 +67,12 @@ public class UserServiceImpl implements UserService {
 
     // ===== READ =====
     @Override
-    public User getUser(UUID userId)
+    public UserResponse getUser(UUID userId)
             throws EntityNotFoundException {
 
         log.info("Fetching user {}", userId);
 
-        return userRepository.findById(userId)
+        return userRepository.findResponseById(userId)
                 .orElseThrow(() ->
                         new EntityNotFoundException("User not found: " + userId)
                 );
@@ -67,25 +80,28 @@ public class UserServiceImpl implements UserService {
 
     // ===== UPDATE =====
     @Override
+    @Transactional
     public UUID updateUser(UUID userId, UpdateUserRequest request)
             throws ConflictException, EntityNotFoundException {
 
-        User existing = getUser(userId);
+        UserResponse existing = getUser(userId);
 
-        if (!existing.getUsername().equals(request.username())
+        if (!existing.username().equals(request.username())
                 && userRepository.existsByUsername(request.username())) {
             throw new ConflictException("Username already exists");
         }
 
         User updated = User.builder()
-                .id(existing.getId())
+                .id(existing.id())
                 .username(request.username())
                 .password(request.password())
                 .email(request.email())
                 .insertionTime(Instant.now(clock))
+                .persisted(true)
                 .build();
 
         userRepository.save(updated);
+        userAuthCache.invalidate(userId);
         log.info("User updated: {}", userId);
 
         return userId;
@@ -93,6 +109,7 @@ public class UserServiceImpl implements UserService {
 
     // ===== DELETE =====
     @Override
+    @Transactional
     public UUID deleteUser(UUID userId)
             throws EntityNotFoundException {
 
@@ -101,6 +118,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.deleteById(userId);
+        userAuthCache.invalidate(userId);
         log.info("User deleted: {}", userId);
 
         return userId;
@@ -1,6 +1,10 @@
 package com.supermarket.catalog.validation;
 
+import com.supermarket.catalog.cache.UserAuthCache;
+import com.supermarket.catalog.config.ReplicaRoutingContext;
+import com.supermarket.catalog.domain.user.User;
 import com.supermarket.catalog.exception.UnauthorizedException;
+import com.supermarket.catalog.metrics.CatalogMetrics;
 import com.supermarket.catalog.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,6 +23,8 @@ public class HeaderUserValidator implements HandlerInterceptor {
     private static final String USER_ID_HEADER = "X-User-Id";
 
     private final UserRepository userRepository;
+    private final UserAuthCache userAuthCache;
+    private final CatalogMetrics catalogMetrics;
 
     @Override
     public boolean preHandle(HttpServletRequest request,
@@ -29,16 +35,25 @@ public class HeaderUserValidator implements HandlerInterceptor {
         String userId = request.getHeader(USER_ID_HEADER);
 
         if (Objects.isNull(username) || Objects.isNull(userId)) {
+            catalogMetrics.authMissingHeaders();
             throw new UnauthorizedException("Missing authentication headers");
         }
 
-        userRepository.findById(
-                        UUID.fromString(userId)
-                ).filter(u -> u.getUsername().equals(username))
-                .orElseThrow(() ->
-                        new UnauthorizedException("Invalid username or user ID")
-                );
+        // Loads read the primary: a lagging replica would miss a user created a moment ago, and
+        // would cache the old row of one just renamed or deleted for the whole TTL
+        boolean valid = userAuthCache.username(
+                        UUID.fromString(userId),
+                        id -> ReplicaRoutingContext.onPrimary(() -> userRepository.findById(id))
+                                .map(User::getUsername)
+                ).filter(username::equals)
+                .isPresent();
+
+        if (!valid) {
+            catalogMetrics.authInvalidUser();
+            throw new UnauthorizedException("Invalid username or user ID");
+        }
 
+        catalogMetrics.authAccepted();
         return true;
     }
 }
\ No newline at end of file
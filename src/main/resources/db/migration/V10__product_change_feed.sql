@@ -0,0 +1,55 @@
+-- Change feed for point-of-sale sync. Every change to a product's catalog fields stamps the
+-- row with the id of the writing transaction, and deletes leave a tombstone stamped the same
+-- way. Readers only return changes below the oldest transaction still running, so a change
+-- can never commit behind a position a reader has already passed.
+-- Stock is not part of the feed: it moves with every sale and has its own endpoints.
+
+ALTER TABLE products ADD COLUMN change_xid XID8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX products_change_xid_idx ON products (change_xid, id);
+
+CREATE TABLE product_tombstones (
+    product_id  UUID         NOT NULL PRIMARY KEY,
+    change_xid  XID8         NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at  TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX product_tombstones_change_xid_idx ON product_tombstones (change_xid, product_id);
+CREATE INDEX product_tombstones_deleted_at_idx ON product_tombstones (deleted_at);
+
+-- Positions at or below purged_through may have lost tombstones and cannot be resumed from
+CREATE TABLE product_change_horizon (
+    purged_through  XID8  NOT NULL
+);
+
+INSERT INTO product_change_horizon (purged_through) VALUES ('0');
+
+CREATE FUNCTION products_stamp_change() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$;
+
+CREATE FUNCTION products_tombstone() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO product_tombstones (product_id)
+    SELECT id FROM old_rows
+    ON CONFLICT (product_id) DO UPDATE
+       SET change_xid = EXCLUDED.change_xid,
+           deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER products_stamp_change
+    BEFORE UPDATE ON products
+    FOR EACH ROW
+    WHEN ((OLD.name, OLD.category, OLD.price, OLD.supplier, OLD.description)
+          IS DISTINCT FROM (NEW.name, NEW.category, NEW.price, NEW.supplier, NEW.description))
+    EXECUTE FUNCTION products_stamp_change();
+
+CREATE TRIGGER products_tombstone
+    AFTER DELETE ON products
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_tombstone();
@@ -0,0 +1,4 @@
+-- Write count per stripe. Striped stock writes leave the product row alone, so a striped
+-- product's version, and with it its ETag, is products.version plus its stripes' counts.
+-- Replacing the stripes folds their counts into products.version first.
+ALTER TABLE product_stock ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
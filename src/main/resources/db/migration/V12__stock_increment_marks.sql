@@ -0,0 +1,11 @@
+-- Write-behind increases of single products applied ahead of their segments, for a stock
+-- decrease that must see them. A mark covers the product's records up to a position in
+-- the node's log; recovery skips those, and it is dropped with the segment it points into.
+
+CREATE TABLE stock_increment_marks (
+    node_id     VARCHAR(255)  NOT NULL,
+    product_id  UUID          NOT NULL,
+    segment     BIGINT        NOT NULL,
+    position    BIGINT        NOT NULL,
+    PRIMARY KEY (node_id, product_id)
+);
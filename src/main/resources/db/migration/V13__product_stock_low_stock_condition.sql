@@ -0,0 +1,71 @@
+-- V9's product_stock trigger had no WHEN clause, so every stripe write queued a deferred
+-- event, threshold or not. A trigger condition can only read the stripe row itself, so each
+-- stripe now carries whether its product has a threshold, and the triggers fire on that.
+
+DROP TRIGGER product_stock_low_stock ON product_stock;
+
+ALTER TABLE product_stock ADD COLUMN reorder_watched BOOLEAN NOT NULL DEFAULT false;
+
+UPDATE product_stock s
+   SET reorder_watched = true
+  FROM products p
+ WHERE p.id = s.product_id
+   AND p.reorder_threshold IS NOT NULL;
+
+-- New stripes, written only when a product is restriped, copy the flag from their product
+CREATE FUNCTION product_stock_reorder_watched() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.reorder_watched := EXISTS (SELECT 1 FROM products WHERE id = NEW.product_id AND reorder_threshold IS NOT NULL);
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER product_stock_reorder_watched
+    BEFORE INSERT ON product_stock
+    FOR EACH ROW
+    EXECUTE FUNCTION product_stock_reorder_watched();
+
+-- Setting or clearing a threshold flips the flag on the product's stripes
+CREATE FUNCTION products_reorder_watched() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE product_stock
+       SET reorder_watched = (NEW.reorder_threshold IS NOT NULL)
+     WHERE product_id = NEW.id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER products_reorder_watched
+    AFTER UPDATE OF reorder_threshold ON products
+    FOR EACH ROW
+    WHEN ((OLD.reorder_threshold IS NULL) <> (NEW.reorder_threshold IS NULL))
+    EXECUTE FUNCTION products_reorder_watched();
+
+-- The products triggers already refresh a product whose threshold changed
+CREATE OR REPLACE FUNCTION product_stock_low_stock() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM refresh_low_stock(CASE WHEN TG_OP = 'DELETE' THEN OLD.product_id ELSE NEW.product_id END);
+    RETURN NULL;
+END;
+$$;
+
+CREATE CONSTRAINT TRIGGER product_stock_low_stock_insert
+    AFTER INSERT ON product_stock
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN (NEW.reorder_watched)
+    EXECUTE FUNCTION product_stock_low_stock();
+
+CREATE CONSTRAINT TRIGGER product_stock_low_stock_update
+    AFTER UPDATE ON product_stock
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN (NEW.reorder_watched AND NEW.quantity <> OLD.quantity)
+    EXECUTE FUNCTION product_stock_low_stock();
+
+CREATE CONSTRAINT TRIGGER product_stock_low_stock_delete
+    AFTER DELETE ON product_stock
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN (OLD.reorder_watched)
+    EXECUTE FUNCTION product_stock_low_stock();
@@ -0,0 +1,21 @@
+-- Schema as it existed before migrations were introduced.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE products (
+    id              UUID                        PRIMARY KEY,
+    name            VARCHAR(255)                NOT NULL,
+    category        VARCHAR(255)                NOT NULL,
+    price           NUMERIC(38, 2)              NOT NULL,
+    stock_quantity  INTEGER                     NOT NULL,
+    supplier        VARCHAR(255)                NOT NULL,
+    description     VARCHAR(255),
+    insertion_time  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE users (
+    id              UUID                        PRIMARY KEY,
+    username        VARCHAR(255)                NOT NULL UNIQUE,
+    password        VARCHAR(255)                NOT NULL,
+    email           VARCHAR(255)                NOT NULL,
+    insertion_time  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
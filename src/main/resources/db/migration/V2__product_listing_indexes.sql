@@ -0,0 +1,11 @@
+-- Keyset pagination for GET /products: every sort order is backed by an index
+-- ending in id, so a seek to (sort key, id) is a single index range scan.
+
+CREATE INDEX idx_products_name_id ON products (name, id);
+CREATE INDEX idx_products_price_id ON products (price, id);
+CREATE INDEX idx_products_insertion_time_id ON products (insertion_time, id);
+
+-- Equality filters combined with the most common sort orders
+CREATE INDEX idx_products_category_name_id ON products (category, name, id);
+CREATE INDEX idx_products_category_price_id ON products (category, price, id);
+CREATE INDEX idx_products_supplier_name_id ON products (supplier, name, id);
@@ -0,0 +1,2 @@
+-- Optimistic-locking version, bumped by every product and stock write and served as the ETag
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
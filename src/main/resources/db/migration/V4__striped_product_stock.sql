@@ -0,0 +1,11 @@
+-- Opt-in striped stock for hot products. While stock_stripes > 0 the quantity lives
+-- in that many product_stock rows and products.stock_quantity stays at zero.
+
+ALTER TABLE products ADD COLUMN stock_stripes INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE product_stock (
+    product_id  UUID     NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    stripe      INTEGER  NOT NULL,
+    quantity    INTEGER  NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (product_id, stripe)
+);
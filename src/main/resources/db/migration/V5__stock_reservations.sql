@@ -0,0 +1,14 @@
+-- Open stock holds. Reserving moves units out of the product's stock into a row here,
+-- so the product's stock is always its available-to-sell quantity. Committed,
+-- released and expired holds are deleted; the table only holds open reservations.
+
+CREATE TABLE stock_reservations (
+    id          UUID                         PRIMARY KEY,
+    product_id  UUID                         NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    quantity    INTEGER                      NOT NULL CHECK (quantity > 0),
+    created_at  TIMESTAMP(6) WITH TIME ZONE  NOT NULL,
+    expires_at  TIMESTAMP(6) WITH TIME ZONE  NOT NULL
+);
+
+CREATE INDEX idx_stock_reservations_product ON stock_reservations (product_id);
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations (expires_at);
@@ -0,0 +1,9 @@
+-- Write-behind stock increments are logged to local segment files before they reach
+-- the database. A row here records that a node's segment was applied, in the same
+-- transaction as its stock updates, so recovery never replays it twice.
+
+CREATE TABLE stock_increment_segments (
+    node_id  VARCHAR(255)  NOT NULL,
+    segment  BIGINT        NOT NULL,
+    PRIMARY KEY (node_id, segment)
+);
@@ -0,0 +1,17 @@
+-- Product search. The tsvector is a generated column, so every write path keeps it
+-- current: JPA inserts, the JDBC updates and bulk imports alike. Adding it rewrites
+-- the table once. The 'simple' configuration does no stemming, which suits product
+-- names and keeps prefix matching predictable.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(supplier, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Fuzzy matching of misspelled names by trigram word similarity
+CREATE INDEX idx_products_name_trgm ON products USING GIN (name gin_trgm_ops);
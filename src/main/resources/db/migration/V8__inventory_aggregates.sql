@@ -0,0 +1,146 @@
+-- Product count, units and stock value per category and supplier, for dashboards.
+-- Triggers append the change of every statement on products and product_stock to
+-- inventory_deltas, so writers never wait on a shared total. A job folds the deltas
+-- into inventory_aggregates; reads add up both tables.
+
+CREATE TABLE inventory_aggregates (
+    category       VARCHAR(255)    NOT NULL,
+    supplier       VARCHAR(255)    NOT NULL,
+    product_count  BIGINT          NOT NULL,
+    units          BIGINT          NOT NULL,
+    stock_value    NUMERIC(38, 2)  NOT NULL,
+    PRIMARY KEY (category, supplier)
+);
+
+-- Append-only and unindexed, so an insert costs no more than the row itself
+CREATE TABLE inventory_deltas (
+    category       VARCHAR(255)    NOT NULL,
+    supplier       VARCHAR(255)    NOT NULL,
+    product_count  BIGINT          NOT NULL,
+    units          BIGINT          NOT NULL,
+    stock_value    NUMERIC(38, 2)  NOT NULL
+);
+
+-- Units of a product are stock_quantity plus its stripes. An update counts the stripes
+-- as they are now on both sides, so moving stock into or out of stripes, which rewrites
+-- product_stock first, nets out against the product_stock deltas.
+CREATE FUNCTION products_inventory_delta() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+        SELECT category, supplier, count(*), sum(stock_quantity), sum(price * stock_quantity)
+          FROM new_rows
+         GROUP BY category, supplier;
+    ELSE
+        WITH changed AS (
+            SELECT o.category AS old_category, o.supplier AS old_supplier, o.price AS old_price,
+                   o.stock_quantity AS old_quantity,
+                   n.category, n.supplier, n.price, n.stock_quantity,
+                   CASE WHEN o.stock_stripes > 0 OR n.stock_stripes > 0
+                        THEN (SELECT COALESCE(sum(s.quantity), 0) FROM product_stock s WHERE s.product_id = n.id)
+                        ELSE 0
+                   END AS striped
+              FROM old_rows o
+              JOIN new_rows n ON n.id = o.id
+        )
+        INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+        SELECT category, supplier, sum(product_count), sum(units), sum(stock_value)
+          FROM (SELECT old_category, old_supplier, -1,
+                       -(old_quantity + striped), -old_price * (old_quantity + striped)
+                  FROM changed
+                UNION ALL
+                SELECT category, supplier, 1,
+                       stock_quantity + striped, price * (stock_quantity + striped)
+                  FROM changed
+               ) AS d (category, supplier, product_count, units, stock_value)
+         GROUP BY category, supplier
+        HAVING sum(product_count) <> 0 OR sum(units) <> 0 OR sum(stock_value) <> 0;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Row-level and before the delete, because the cascade removes the stripes before
+-- any statement-level trigger could still count them
+CREATE FUNCTION products_inventory_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    total_units BIGINT := OLD.stock_quantity;
+BEGIN
+    IF OLD.stock_stripes > 0 THEN
+        total_units := total_units
+                + (SELECT COALESCE(sum(quantity), 0) FROM product_stock WHERE product_id = OLD.id);
+    END IF;
+    INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+    VALUES (OLD.category, OLD.supplier, -1, -total_units, -OLD.price * total_units);
+    RETURN OLD;
+END;
+$$;
+
+-- Stripes of a product deleted in the same statement no longer join and are skipped
+CREATE FUNCTION product_stock_inventory_delta() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+        SELECT p.category, p.supplier, 0, sum(s.quantity), sum(p.price * s.quantity)
+          FROM new_rows s
+          JOIN products p ON p.id = s.product_id
+         GROUP BY p.category, p.supplier
+        HAVING sum(s.quantity) <> 0;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+        SELECT p.category, p.supplier, 0, -sum(s.quantity), -sum(p.price * s.quantity)
+          FROM old_rows s
+          JOIN products p ON p.id = s.product_id
+         GROUP BY p.category, p.supplier
+        HAVING sum(s.quantity) <> 0;
+    ELSE
+        INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+        SELECT p.category, p.supplier, 0, sum(d.quantity), sum(p.price * d.quantity)
+          FROM (SELECT product_id, quantity FROM new_rows
+                UNION ALL
+                SELECT product_id, -quantity FROM old_rows) AS d
+          JOIN products p ON p.id = d.product_id
+         GROUP BY p.category, p.supplier
+        HAVING sum(d.quantity) <> 0;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER products_inventory_insert
+    AFTER INSERT ON products
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_inventory_delta();
+
+CREATE TRIGGER products_inventory_update
+    AFTER UPDATE ON products
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_inventory_delta();
+
+CREATE TRIGGER products_inventory_delete
+    BEFORE DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_inventory_delete();
+
+CREATE TRIGGER product_stock_inventory_insert
+    AFTER INSERT ON product_stock
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION product_stock_inventory_delta();
+
+CREATE TRIGGER product_stock_inventory_update
+    AFTER UPDATE ON product_stock
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION product_stock_inventory_delta();
+
+CREATE TRIGGER product_stock_inventory_delete
+    AFTER DELETE ON product_stock
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION product_stock_inventory_delta();
+
+INSERT INTO inventory_aggregates (category, supplier, product_count, units, stock_value)
+SELECT p.category, p.supplier, count(*), sum(p.stock_quantity + COALESCE(s.quantity, 0)),
+       sum(p.price * (p.stock_quantity + COALESCE(s.quantity, 0)))
+  FROM products p
+  LEFT JOIN (SELECT product_id, sum(quantity) AS quantity
+               FROM product_stock
+              GROUP BY product_id) AS s ON s.product_id = p.id
+ GROUP BY p.category, p.supplier;
@@ -0,0 +1,98 @@
+-- Optional reorder threshold per product and the set of products currently below it.
+-- Constraint triggers refresh a product's membership when its writing transaction
+-- commits, after every change it made to the row and its stripes, and announce each
+-- crossing on the low_stock channel. Rows without a threshold never queue an event.
+
+ALTER TABLE products ADD COLUMN reorder_threshold INTEGER CHECK (reorder_threshold >= 0);
+
+-- The periodic sweep of striped products with a threshold
+CREATE INDEX products_striped_reorder_idx
+    ON products (id)
+    WHERE reorder_threshold IS NOT NULL AND stock_stripes > 0;
+
+CREATE TABLE low_stock_products (
+    product_id  UUID         NOT NULL PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+    since       TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX low_stock_products_since_idx ON low_stock_products (since, product_id);
+
+-- Payload: product id, LOW or RESTOCKED, units, threshold (or empty once cleared)
+CREATE FUNCTION refresh_low_stock(target UUID) RETURNS VOID LANGUAGE plpgsql AS $$
+DECLARE
+    threshold   INTEGER;
+    total_units INTEGER;
+    found_id    UUID;
+BEGIN
+    SELECT p.reorder_threshold,
+           CASE WHEN p.stock_stripes > 0
+                THEN (SELECT COALESCE(sum(s.quantity), 0)::int FROM product_stock s WHERE s.product_id = p.id)
+                ELSE p.stock_quantity
+           END
+      INTO threshold, total_units
+      FROM products p
+     WHERE p.id = target;
+
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+
+    IF threshold IS NOT NULL AND total_units < threshold THEN
+        INSERT INTO low_stock_products (product_id)
+        VALUES (target)
+        ON CONFLICT (product_id) DO NOTHING
+        RETURNING product_id INTO found_id;
+        IF found_id IS NOT NULL THEN
+            PERFORM pg_notify('low_stock', concat_ws(',', target, 'LOW', total_units, threshold));
+        END IF;
+    ELSE
+        DELETE FROM low_stock_products
+         WHERE product_id = target
+        RETURNING product_id INTO found_id;
+        IF found_id IS NOT NULL THEN
+            PERFORM pg_notify('low_stock', concat_ws(',', target, 'RESTOCKED', total_units, COALESCE(threshold::text, '')));
+        END IF;
+    END IF;
+END;
+$$;
+
+CREATE FUNCTION products_low_stock() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM refresh_low_stock(NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION product_stock_low_stock() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    target UUID := CASE WHEN TG_OP = 'DELETE' THEN OLD.product_id ELSE NEW.product_id END;
+BEGIN
+    IF EXISTS (SELECT 1 FROM products WHERE id = target AND reorder_threshold IS NOT NULL) THEN
+        PERFORM refresh_low_stock(target);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE CONSTRAINT TRIGGER products_low_stock_insert
+    AFTER INSERT ON products
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN (NEW.reorder_threshold IS NOT NULL)
+    EXECUTE FUNCTION products_low_stock();
+
+CREATE CONSTRAINT TRIGGER products_low_stock_update
+    AFTER UPDATE ON products
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    WHEN ((NEW.reorder_threshold IS NOT NULL OR OLD.reorder_threshold IS NOT NULL)
+          AND (NEW.stock_quantity <> OLD.stock_quantity
+               OR NEW.stock_stripes <> OLD.stock_stripes
+               OR NEW.reorder_threshold IS DISTINCT FROM OLD.reorder_threshold))
+    EXECUTE FUNCTION products_low_stock();
+
+CREATE CONSTRAINT TRIGGER product_stock_low_stock
+    AFTER INSERT OR UPDATE OR DELETE ON product_stock
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    EXECUTE FUNCTION product_stock_low_stock();
@@ -0,0 +1,83 @@
+package com.supermarket.catalog.benchmark;
+
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.testinfra.ProductSeeder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks the catalog from page 1 to page 10,000 and checks that keyset pagination
+ * keeps deep pages as fast as the first ones. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ProductListingBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES = Integer.getInteger("benchmark.listing.pages", 10_000);
+    private static final int WINDOW = 100;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deepPages_areAsFastAsTheFirst() throws Exception {
+
+        ProductSeeder.seedProducts(jdbcTemplate, PAGES * PAGE_SIZE + PAGE_SIZE);
+
+        // Warm-up pass so JIT compilation does not inflate the first window
+        walk(Math.min(PAGES, 1_000));
+        long[] nanos = walk(PAGES);
+
+        long firstMedian = median(nanos, 0, WINDOW);
+        long lastMedian = median(nanos, PAGES - WINDOW, PAGES);
+
+        long offsetStart = System.nanoTime();
+        jdbcTemplate.queryForList(
+                "SELECT id FROM products ORDER BY name, id OFFSET ? LIMIT ?",
+                (PAGES - 1) * PAGE_SIZE, PAGE_SIZE);
+        long offsetNanos = System.nanoTime() - offsetStart;
+
+        System.out.printf("Keyset page 1-%d median: %d us%n", WINDOW, firstMedian / 1_000);
+        System.out.printf("Keyset page %d-%d median: %d us%n", PAGES - WINDOW + 1, PAGES, lastMedian / 1_000);
+        System.out.printf("OFFSET page %d: %d us%n", PAGES, offsetNanos / 1_000);
+
+        // Allow for noise, but a deep page must not cost a multiple of a shallow one
+        assertThat(lastMedian).isLessThan(firstMedian * 2 + 1_000_000);
+    }
+
+    private long[] walk(int pages) throws Exception {
+
+        long[] nanos = new long[pages];
+        String cursor = null;
+        for (int page = 0; page < pages; page++) {
+            long start = System.nanoTime();
+            ProductPage result = productService.listProducts(ProductQuery.builder()
+                    .sort(ProductSort.NAME)
+                    .limit(PAGE_SIZE)
+                    .cursor(cursor)
+                    .build());
+            nanos[page] = System.nanoTime() - start;
+            cursor = result.nextCursor();
+        }
+        return nanos;
+    }
+
+    private static long median(long[] nanos, int from, int to) {
+        long[] window = Arrays.copyOfRange(nanos, from, to);
+        Arrays.sort(window);
+        return window[window.length / 2];
+    }
+}
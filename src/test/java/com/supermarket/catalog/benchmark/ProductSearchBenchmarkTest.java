@@ -0,0 +1,105 @@
+package com.supermarket.catalog.benchmark;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.testinfra.DatasetSeeder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a mix of product searches against a 5M-product catalog and checks the p99 stays
+ * under 20 ms: brand and product words, single common words, misspellings, category
+ * filters and second pages. The dataset is committed and kept for later runs.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchBenchmarkTest extends BaseIntegrationTest {
+
+    private static final long PRODUCTS = Long.getLong("benchmark.search.products", 5_000_000);
+    private static final int SEARCHES = Integer.getInteger("benchmark.search.count", 5_000);
+    private static final long P99_BUDGET_NANOS = 20_000_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void searches_stayUnderTwentyMillisecondsAtP99() throws Exception {
+
+        DatasetSeeder.seed(dataSource, PRODUCTS, 0, 42);
+
+        SplittableRandom random = new SplittableRandom(7);
+        // Warm-up pass so JIT compilation and cold buffers do not count
+        run(random, SEARCHES / 5);
+        long[] nanos = run(random, SEARCHES);
+
+        Arrays.sort(nanos);
+        long p50 = nanos[nanos.length / 2];
+        long p99 = nanos[(int) (nanos.length * 0.99)];
+        System.out.printf("Search over %,d products: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                PRODUCTS, p50 / 1e6, p99 / 1e6, nanos[nanos.length - 1] / 1e6);
+
+        assertThat(p99).isLessThan(P99_BUDGET_NANOS);
+    }
+
+    private long[] run(SplittableRandom random, int searches) throws Exception {
+
+        long[] nanos = new long[searches];
+        for (int i = 0; i < searches; i++) {
+            ProductSearchQuery query = query(random);
+            long start = System.nanoTime();
+            ProductPage page = productService.searchProducts(query);
+            if (i % 10 == 0 && page.nextCursor() != null) {
+                productService.searchProducts(new ProductSearchQuery(
+                        query.text(), query.category(), query.limit(), page.nextCursor()));
+            }
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static ProductSearchQuery query(SplittableRandom random) {
+
+        String brand = pick(random, DatasetSeeder.BRANDS);
+        String adjective = pick(random, DatasetSeeder.ADJECTIVES);
+        String noun = pick(random, DatasetSeeder.NOUNS);
+
+        String text = switch (random.nextInt(5)) {
+            case 0 -> brand + " " + noun;
+            case 1 -> adjective + " " + noun;
+            case 2 -> noun;
+            // Typing in progress: a word prefix
+            case 3 -> brand.substring(0, Math.min(4, brand.length())) + " " + noun;
+            // Misspelt: a dropped letter in the product word
+            default -> noun.length() > 4 ? noun.substring(0, 2) + noun.substring(3) : noun;
+        };
+        Category category = random.nextInt(4) == 0
+                ? Category.values()[random.nextInt(Category.values().length)]
+                : null;
+
+        return ProductSearchQuery.builder()
+                .text(text)
+                .category(category)
+                .limit(20)
+                .build();
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,111 @@
+package com.supermarket.catalog.benchmark;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one hot product with single-unit decreases from many threads, once with its stock
+ * in a single row and once split across stripes, and reports both throughputs.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=64")
+class StockStripingBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.stock.threads", 64);
+    private static final int DECREASES = Integer.getInteger("benchmark.stock.decreases", 20_000);
+    private static final int STRIPES = Integer.getInteger("benchmark.stock.stripes", 16);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(createdProducts);
+        createdProducts.clear();
+    }
+
+    @Test
+    void stripedStock_outrunsSingleRowUnderContention() throws Exception {
+
+        UUID singleRow = createProduct();
+        UUID striped = createProduct();
+        productService.configureStockStripes(striped, new StockStripesRequest(STRIPES));
+
+        // Warm-up pass so JIT compilation and pool start-up do not favour the second run
+        hammer(singleRow, DECREASES / 10);
+        hammer(striped, DECREASES / 10);
+
+        double singleRowRate = hammer(singleRow, DECREASES);
+        double stripedRate = hammer(striped, DECREASES);
+
+        System.out.printf("Single row: %.0f decreases/s%n", singleRowRate);
+        System.out.printf("%d stripes: %.0f decreases/s%n", STRIPES, stripedRate);
+
+        int expected = DECREASES * 2 - DECREASES - DECREASES / 10;
+        assertThat(productService.getProduct(singleRow).product().stockQuantity()).isEqualTo(expected);
+        assertThat(productService.getProduct(striped).product().stockQuantity()).isEqualTo(expected);
+    }
+
+    private double hammer(UUID productId, int decreases) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (int i = 0; i < decreases; i++) {
+                futures.add(executor.submit(
+                        () -> productService.decreaseStock(productId, new StockUpdateRequest(1), null)));
+            }
+            for (Future<UUID> future : futures) {
+                future.get();
+            }
+            return decreases * 1_000_000_000.0 / (System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID createProduct() throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Promo milk",
+                Category.DAIRY,
+                BigDecimal.valueOf(3.9),
+                "Local Supplier",
+                DECREASES * 2,
+                "Hot SKU"
+        ));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+}
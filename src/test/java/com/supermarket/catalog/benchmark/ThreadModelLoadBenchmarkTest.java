@@ -0,0 +1,170 @@
+package com.supermarket.catalog.benchmark;
+
+import com.supermarket.catalog.SupermarketApplication;
+import com.supermarket.catalog.dto.user.CreateUserRequest;
+import com.supermarket.catalog.service.UserService;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import com.supermarket.catalog.testinfra.ProductSeeder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the product listing with 5,000 concurrent closed-loop clients against a small
+ * connection pool, once on the Tomcat platform-thread pool and once on virtual threads
+ * behind the DataSource limiter, and reports throughput and latency percentiles of both.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadModelLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.load.clients", 5_000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.load.seconds", 30));
+    private static final int POOL_SIZE = 20;
+
+    @Test
+    void virtualThreads_serveFiveThousandClientsWithoutErrors() throws Exception {
+
+        LoadResult platform = runMode(false);
+        LoadResult virtual = runMode(true);
+
+        System.out.println("Platform threads: " + platform);
+        System.out.println("Virtual threads:  " + virtual);
+
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private static LoadResult runMode(boolean virtualThreads) throws Exception {
+
+        try (ConfigurableApplicationContext context = startNode(virtualThreads)) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            if (jdbcTemplate.queryForObject("SELECT count(*) FROM products", Long.class) < 100_000) {
+                ProductSeeder.seedProducts(jdbcTemplate, 100_000);
+            }
+
+            String username = "load-" + UUID.randomUUID();
+            UUID userId = context.getBean(UserService.class).createUser(
+                    new CreateUserRequest(username, "secret", username + "@example.com"));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + "/products?sort=PRICE_ASC&limit=20"),
+                    username, userId);
+        }
+    }
+
+    private static LoadResult drive(URI uri, String username, UUID userId) throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Username", username)
+                .header("X-User-Id", userId.toString())
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        List<Future<long[]>> clients = new ArrayList<>(CLIENTS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[64];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            List<long[]> perClient = new ArrayList<>(CLIENTS);
+            for (Future<long[]> client : clients) {
+                perClient.add(client.get());
+            }
+
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new LoadResult(
+                    all.length / (double) DURATION.toSeconds(),
+                    percentile(all, 0.50),
+                    percentile(all, 0.99),
+                    all.length == 0 ? 0 : all[all.length - 1] / 1_000_000,
+                    errors.get(),
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount()
+            );
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) ((sorted.length - 1) * quantile)] / 1_000_000;
+    }
+
+    private static ConfigurableApplicationContext startNode(boolean virtualThreads) {
+
+        var postgres = PostgresTestContainer.getInstance();
+
+        return new SpringApplicationBuilder(SupermarketApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (CLIENTS + 100),
+                        "server.tomcat.accept-count=" + CLIENTS
+                )
+                .run();
+    }
+
+    private record LoadResult(
+            double requestsPerSecond,
+            long p50Millis,
+            long p99Millis,
+            long maxMillis,
+            int errors,
+            int peakThreads
+    ) {}
+}
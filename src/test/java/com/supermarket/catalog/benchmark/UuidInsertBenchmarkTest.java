@@ -0,0 +1,87 @@
+package com.supermarket.catalog.benchmark;
+
+import com.supermarket.catalog.id.IdGenerator;
+import com.supermarket.catalog.id.UuidV7Generator;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk-inserts the same number of rows keyed by random v4 and by time-ordered v7 UUIDs, in
+ * committed batches like an import, and reports insert rate, primary key index size and WAL
+ * written for each. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UuidInsertBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.ids.rows", 2_000_000);
+    private static final int BATCH = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void timeOrderedIds_keepThePrimaryKeySmaller() {
+
+        InsertResult random = insert("v4", UUID::randomUUID);
+        InsertResult timeOrdered = insert("v7", new UuidV7Generator(Clock.systemUTC()));
+
+        System.out.println("UUIDv4: " + random);
+        System.out.println("UUIDv7: " + timeOrdered);
+
+        // Appending leaves full pages behind; random inserts split pages all over the index
+        assertThat(timeOrdered.indexBytes()).isLessThan(random.indexBytes());
+    }
+
+    private InsertResult insert(String name, IdGenerator ids) {
+
+        String table = "uuid_benchmark_" + name;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+        try {
+            String sql = "INSERT INTO " + table + " (id, name) VALUES (?, ?)";
+            String walBefore = jdbcTemplate.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+            long start = System.nanoTime();
+
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int row = 0; row < ROWS; row++) {
+                batch.add(new Object[] {ids.nextId(), "Product " + row});
+                if (batch.size() == BATCH) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+            }
+
+            long nanos = System.nanoTime() - start;
+            Long walBytes = jdbcTemplate.queryForObject(
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), CAST(? AS pg_lsn))::bigint", Long.class, walBefore);
+            Long indexBytes = jdbcTemplate.queryForObject(
+                    "SELECT pg_relation_size(CAST(? AS regclass))", Long.class, table + "_pkey");
+
+            return new InsertResult(ROWS * 1_000_000_000.0 / nanos, indexBytes, walBytes);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
+    }
+
+    private record InsertResult(
+            double rowsPerSecond,
+            long indexBytes,
+            long walBytes
+    ) {}
+}
@@ -0,0 +1,118 @@
+package com.supermarket.catalog.cache;
+
+import com.supermarket.catalog.SupermarketApplication;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts against one database, standing in for two nodes:
+ * a write on one node must evict the product from the other node's cache.
+ */
+class ProductCacheInvalidationTest {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void stockChangeOnOneNode_evictsProductOnTheOther() throws Exception {
+
+        ProductService serviceA = nodeA.getBean(ProductService.class);
+        ProductService serviceB = nodeB.getBean(ProductService.class);
+
+        UUID productId = serviceA.createProduct(new CreateProductRequest(
+                "Milk", Category.DAIRY, BigDecimal.valueOf(5.5), "Local Supplier", 10, "Fresh milk"));
+        try {
+            assertThat(serviceA.getProduct(productId).product().stockQuantity()).isEqualTo(10);
+
+            serviceB.increaseStock(productId, new StockUpdateRequest(5), null);
+
+            awaitStock(serviceA, productId, 15);
+        } finally {
+            serviceA.deleteProduct(productId);
+        }
+    }
+
+    @Test
+    void priceChangeOnOneNode_evictsProductOnTheOther() throws Exception {
+
+        ProductService serviceA = nodeA.getBean(ProductService.class);
+        ProductService serviceB = nodeB.getBean(ProductService.class);
+
+        UUID productId = serviceA.createProduct(new CreateProductRequest(
+                "Milk", Category.DAIRY, BigDecimal.valueOf(5.5), "Local Supplier", 10, "Fresh milk"));
+        try {
+            assertThat(serviceA.getProduct(productId).product().price()).isEqualByComparingTo("5.5");
+            assertThat(serviceB.getProduct(productId).product().price()).isEqualByComparingTo("5.5");
+
+            serviceB.updateProduct(productId, new UpdateProductRequest(
+                    "Milk", Category.DAIRY, BigDecimal.valueOf(4.9), "Local Supplier", "Fresh milk"), null);
+
+            long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+            while (serviceA.getProduct(productId).product().price().compareTo(BigDecimal.valueOf(4.9)) != 0) {
+                assertThat(System.nanoTime()).as("price propagated to node A").isLessThan(deadline);
+                Thread.sleep(50);
+            }
+            assertThat(serviceB.getProduct(productId).product().price()).isEqualByComparingTo("4.9");
+        } finally {
+            serviceA.deleteProduct(productId);
+        }
+    }
+
+    private static void awaitStock(ProductService service, UUID productId, int expected) throws Exception {
+
+        long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+        while (service.getProduct(productId).product().stockQuantity() != expected) {
+            assertThat(System.nanoTime()).as("stock propagated to node").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+
+        var postgres = PostgresTestContainer.getInstance();
+
+        return new SpringApplicationBuilder(SupermarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        // Only a notification can evict the entry within the test
+                        "catalog.cache.product.ttl=10m",
+                        "catalog.notifications.poll-millis=50"
+                )
+                .run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.supermarket.catalog.cache;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Commits its products, since the index only learns of a change once it is committed.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductNameIndexTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID productId : createdProducts) {
+            productService.deleteProduct(productId);
+        }
+        createdProducts.clear();
+    }
+
+    @Test
+    void suggestions_matchAnyWordPrefixByDescendingStock() throws Exception {
+
+        UUID granola = create("Wombat crunchy granola", 5);
+        UUID honey = create("Wombat honey granola", 50);
+        UUID bites = create("Crunchy wombat bites", 20);
+
+        assertThat(ids(productService.suggestProducts("womb", 10))).containsExactly(honey, bites, granola);
+        assertThat(ids(productService.suggestProducts("CRUNCHY", 10))).containsExactly(bites, granola);
+        assertThat(ids(productService.suggestProducts("wombat  hon", 10))).containsExactly(honey);
+        assertThat(ids(productService.suggestProducts("womb", 2))).containsExactly(honey, bites);
+    }
+
+    @Test
+    void renamesAndDeletes_showBeforeAndAfterRebuild() throws Exception {
+
+        UUID renamed = create("Wombat oat milk", 10);
+        UUID deleted = create("Wombat rice milk", 30);
+
+        productService.updateProduct(renamed, new UpdateProductRequest(
+                "Numbat oat milk", Category.BEVERAGES, BigDecimal.valueOf(3), "Test Supplier", null), null);
+        productService.deleteProduct(deleted);
+        createdProducts.remove(deleted);
+
+        assertThat(productService.suggestProducts("wombat", 10)).isEmpty();
+        assertThat(productService.suggestProducts("numbat", 10))
+                .containsExactly(new ProductSuggestion(renamed, "Numbat oat milk"));
+
+        productNameIndex.rebuild();
+
+        assertThat(productService.suggestProducts("wombat", 10)).isEmpty();
+        assertThat(productService.suggestProducts("numbat", 10))
+                .containsExactly(new ProductSuggestion(renamed, "Numbat oat milk"));
+    }
+
+    @Test
+    void prefixWithoutWords_isRejected() {
+
+        assertThatThrownBy(() -> productService.suggestProducts(" - ", 10))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    private UUID create(String name, int quantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                name, Category.BEVERAGES, BigDecimal.valueOf(3), "Test Supplier", quantity, null));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+
+    private static List<UUID> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+}
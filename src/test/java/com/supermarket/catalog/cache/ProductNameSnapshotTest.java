@@ -0,0 +1,96 @@
+package com.supermarket.catalog.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductNameSnapshotTest {
+
+    @Test
+    void top_findsWordPrefixesAcrossRepeatedNames() {
+
+        // Enough repeats to span several blocks and exercise the sort on equal keys
+        String[] names = {"Oat milk", "Whole milk", "Milk chocolate", "Dark chocolate", "Milky-way bar"};
+        Random random = new Random(1);
+        List<Object[]> products = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            products.add(new Object[]{new UUID(i, i), names[i % names.length], random.nextInt(1_000_000)});
+        }
+        ProductNameSnapshot snapshot = build(products);
+
+        int[] top = snapshot.top(fold("milk"), 20, product -> false);
+
+        List<Integer> expected = IntStream.range(0, products.size())
+                .filter(i -> !names[i % names.length].equals("Dark chocolate"))
+                .boxed()
+                .sorted(Comparator.comparing((Integer i) -> (Integer) products.get(i)[2]).reversed())
+                .limit(20)
+                .toList();
+        assertThat(Arrays.stream(top).boxed().toList()).isEqualTo(expected);
+
+        assertThat(snapshot.top(fold("milky way"), 5_000, product -> false)).hasSize(1_000);
+        assertThat(snapshot.top(fold("chocolate"), 5_000, product -> false)).hasSize(2_000);
+        assertThat(snapshot.top(fold("cocoa"), 10, product -> false)).isEmpty();
+    }
+
+    @Test
+    void top_listsEachProductOnceAndSkipsMaskedOnes() {
+
+        ProductNameSnapshot snapshot = build(List.of(
+                new Object[]{new UUID(0, 1), "Choc chip choc", 5},
+                new Object[]{new UUID(0, 2), "Chocolate", 9},
+                new Object[]{new UUID(0, 3), "Hot choc", 7}
+        ));
+
+        assertThat(snapshot.top(fold("choc"), 10, product -> false)).containsExactly(1, 2, 0);
+        assertThat(snapshot.top(fold("choc"), 10, product -> product == 1)).containsExactly(2, 0);
+        assertThat(snapshot.name(2)).isEqualTo("Hot choc");
+    }
+
+    @Test
+    void find_locatesIdsInUnsignedOrder() {
+
+        UUID low = new UUID(1, 0);
+        UUID high = new UUID(-1, 0);
+        ProductNameSnapshot snapshot = build(List.<Object[]>of(
+                new Object[]{low, "Low", 0},
+                new Object[]{high, "High", 0}
+        ));
+
+        assertThat(snapshot.find(low)).isZero();
+        assertThat(snapshot.find(high)).isEqualTo(1);
+        assertThat(snapshot.find(new UUID(2, 0))).isEqualTo(-1);
+
+        ProductNameSnapshot.Builder builder = new ProductNameSnapshot.Builder();
+        builder.add(high, "High", 0);
+        assertThatThrownBy(() -> builder.add(low, "Low", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ProductNameSnapshot build(List<Object[]> products) {
+
+        ProductNameSnapshot.Builder builder = new ProductNameSnapshot.Builder();
+        for (Object[] product : products) {
+            builder.add((UUID) product[0], (String) product[1], (Integer) product[2]);
+        }
+        return builder.build();
+    }
+
+    private static byte[] fold(String prefix) {
+
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ProductNameSnapshot.fold(bytes[i]);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,63 @@
+package com.supermarket.catalog.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    @Test
+    void borrowerBeyondThePermits_timesOutWithoutTouchingThePool() throws Exception {
+
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 2, Duration.ofMillis(50));
+
+        limited.getConnection();
+        limited.getConnection();
+
+        assertThatThrownBy(limited::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void closingAConnection_returnsItsPermitOnce() throws Exception {
+
+        Connection pooled = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 1, Duration.ofMillis(50));
+
+        Connection connection = limited.getConnection();
+        assertThat(limited.availablePermits()).isZero();
+
+        connection.close();
+        connection.close();
+
+        assertThat(limited.availablePermits()).isEqualTo(1);
+        verify(pooled, times(2)).close();
+    }
+
+    @Test
+    void failingPool_doesNotLeakThePermit() throws Exception {
+
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(limited::getConnection).hasMessage("pool exhausted");
+
+        assertThat(limited.availablePermits()).isEqualTo(1);
+    }
+}
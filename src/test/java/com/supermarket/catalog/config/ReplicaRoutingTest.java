@@ -0,0 +1,258 @@
+package com.supermarket.catalog.config;
+
+import com.supermarket.catalog.cache.ProductNameIndex;
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductChangeWindow;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
+import com.supermarket.catalog.dto.user.CreateUserRequest;
+import com.supermarket.catalog.dto.user.UpdateUserRequest;
+import com.supermarket.catalog.exception.UnauthorizedException;
+import com.supermarket.catalog.service.ProductChangeService;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.service.UserService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.validation.HeaderUserValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against two PostgreSQL instances: the shared test container as the primary and a
+ * second, unreplicated one as the replica, told apart by database name. A dead replica URL
+ * sits first in the rotation, so every read also exercises the failover.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingTest extends BaseIntegrationTest {
+
+    private static final String PRIMARY = "test_db";
+    private static final String REPLICA = "replica_db";
+
+    private static PostgreSQLContainer<?> replica;
+
+    @DynamicPropertySource
+    static void registerReplica(DynamicPropertyRegistry registry) {
+
+        if (replica == null) {
+            replica = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15"))
+                    .withDatabaseName(REPLICA)
+                    .withUsername("test_user")
+                    .withPassword("test_pass")
+                    .withImagePullPolicy(imageName -> false);
+            replica.start();
+            // A streaming replica would get the schema from the primary
+            Flyway.configure()
+                    .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                    .load()
+                    .migrate();
+        }
+
+        registry.add("catalog.datasource.replicas.enabled", () -> "true");
+        registry.add("catalog.datasource.replicas.urls",
+                () -> "jdbc:postgresql://localhost:1/unreachable," + replica.getJdbcUrl());
+        registry.add("catalog.datasource.replicas.connection-timeout", () -> "250ms");
+        registry.add("catalog.datasource.replicas.read-your-writes-window", () -> "1s");
+        registry.add("catalog.datasource.replicas.health-check-interval", () -> "1h");
+    }
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HeaderUserValidator headerUserValidator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<UUID> createdUsers = new ArrayList<>();
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReplicaRoutingContext.unbindUser();
+        for (UUID userId : createdUsers) {
+            userService.deleteUser(userId);
+            replicaJdbc().update("DELETE FROM users WHERE id = ?", userId);
+        }
+        for (UUID productId : createdProducts) {
+            productService.deleteProduct(productId);
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_runOnTheHealthyReplica() {
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(database(true)).isEqualTo(REPLICA);
+        }
+        assertThat(database(false)).isEqualTo(PRIMARY);
+        assertThat(replicaRouting.healthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void replicaPools_reportHikariMetrics() {
+
+        database(true);
+
+        // replica-1 is the unreachable URL
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "replica-2").gauge()).isNotNull();
+    }
+
+    @Test
+    void writer_readsFromThePrimaryUntilTheWindowCloses() throws Exception {
+
+        ReplicaRoutingContext.bindUser(UUID.randomUUID());
+        assertThat(database(true)).isEqualTo(REPLICA);
+
+        database(false);
+        assertThat(database(true)).isEqualTo(PRIMARY);
+
+        Thread.sleep(1_200);
+        assertThat(database(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void otherUsers_keepReadingFromTheReplica() {
+
+        ReplicaRoutingContext.bindUser(UUID.randomUUID());
+        database(false);
+
+        ReplicaRoutingContext.bindUser(UUID.randomUUID());
+        assertThat(database(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void userNotYetOnTheReplica_isAuthenticatedFromThePrimary() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("replica_cashier", "secret", "replica@example.com"));
+        createdUsers.add(userId);
+
+        assertThat(headerUserValidator.preHandle(
+                authenticated("replica_cashier", userId), new MockHttpServletResponse(), new Object())).isTrue();
+    }
+
+    @Test
+    void userCreatedAMomentAgo_canBeUpdated() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("replica_new", "secret", "new@example.com"));
+        createdUsers.add(userId);
+
+        userService.updateUser(userId, new UpdateUserRequest("replica_newer", "secret", "new@example.com"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, userId))
+                .isEqualTo("replica_newer");
+    }
+
+    @Test
+    void renamedUserStillOldOnTheReplica_isRejectedUnderTheOldName() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("replica_renamed", "secret", "renamed@example.com"));
+        createdUsers.add(userId);
+        // The replica has not replayed the rename yet
+        replicaJdbc().update(
+                "INSERT INTO users (id, username, password, email, insertion_time) VALUES (?, ?, ?, ?, now())",
+                userId, "replica_old_name", "secret", "renamed@example.com");
+
+        assertThatThrownBy(() -> headerUserValidator.preHandle(
+                authenticated("replica_old_name", userId), new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(headerUserValidator.preHandle(
+                authenticated("replica_renamed", userId), new MockHttpServletResponse(), new Object())).isTrue();
+    }
+
+    @Test
+    void changeFeed_readsThePrimary() throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Replica feed bread", Category.BAKERY, new BigDecimal("2.00"), "Replica Supplier", 10, null));
+        createdProducts.add(productId);
+
+        // Background jobs may hold the horizon below the create for a moment
+        boolean seen = false;
+        for (int attempt = 0; attempt < 100 && !seen; attempt++) {
+            ProductChangeWindow window = productChangeService.openWindow(null);
+            List<UUID> changed = new ArrayList<>();
+            productChangeService.streamChanges(window, change -> changed.add(change.id()));
+            seen = changed.contains(productId);
+            if (!seen) {
+                Thread.sleep(50);
+            }
+        }
+
+        assertThat(seen).isTrue();
+    }
+
+    @Test
+    void nameIndexRebuild_keepsProductsTheReplicaHasNotSeen() throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Quokka crackers", Category.BAKERY, new BigDecimal("2.00"), "Replica Supplier", 10, null));
+        createdProducts.add(productId);
+
+        productNameIndex.rebuild();
+
+        assertThat(productNameIndex.suggest("quokka", 10))
+                .extracting(ProductSuggestion::id)
+                .containsExactly(productId);
+    }
+
+    // ===== HELPERS =====
+    private MockHttpServletRequest authenticated(String username, UUID userId) {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Username", username);
+        request.addHeader("X-User-Id", userId.toString());
+        return request;
+    }
+
+    private static JdbcTemplate replicaJdbc() {
+        return new JdbcTemplate(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+    }
+
+    private String database(boolean readOnly) {
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+}
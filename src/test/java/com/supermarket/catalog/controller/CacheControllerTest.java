@@ -0,0 +1,46 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.cache.ProductCache;
+import com.supermarket.catalog.cache.UserAuthCache;
+import com.supermarket.catalog.exception.UnauthorizedException;
+import com.supermarket.catalog.validation.HeaderUserValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheController.class)
+class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserAuthCache userAuthCache;
+
+    @MockBean
+    private ProductCache productCache;
+
+    @MockBean
+    private HeaderUserValidator headerUserValidator;
+
+    @Test
+    void stats_withoutValidUser_returns401() throws Exception {
+
+        doThrow(new UnauthorizedException("Unknown user"))
+                .when(headerUserValidator)
+                .preHandle(any(), any(), any());
+
+        mockMvc.perform(get("/caches"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(userAuthCache, productCache);
+    }
+}
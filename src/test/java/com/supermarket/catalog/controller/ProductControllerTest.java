@@ -2,8 +2,27 @@ package com.supermarket.catalog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
 import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductImportError;
+import com.supermarket.catalog.dto.product.ProductImportFormat;
+import com.supermarket.catalog.dto.product.ProductImportResult;
+import com.supermarket.catalog.dto.product.ProductLookupRequest;
+import com.supermarket.catalog.dto.product.ProductLookupResponse;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.dto.product.ProductSuggestion;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
 import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.product.VersionedProduct;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.exception.PreconditionFailedException;
+import com.supermarket.catalog.service.ProductImportService;
 import com.supermarket.catalog.service.ProductService;
 import com.supermarket.catalog.validation.HeaderUserValidator;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,15 +30,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +65,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
     @MockBean
     private HeaderUserValidator headerUserValidator;
 
@@ -91,7 +123,7 @@ class ProductControllerTest {
     void increaseStock_returns204() throws Exception {
 
         UUID productId = UUID.randomUUID();
-        when(productService.increaseStock(eq(productId), any()))
+        when(productService.increaseStock(eq(productId), any(), isNull()))
                 .thenReturn(productId);
 
         StockUpdateRequest request = new StockUpdateRequest(5);
@@ -106,7 +138,7 @@ class ProductControllerTest {
     void decreaseStock_returns204() throws Exception {
 
         UUID productId = UUID.randomUUID();
-        when(productService.decreaseStock(eq(productId), any()))
+        when(productService.decreaseStock(eq(productId), any(), isNull()))
                 .thenReturn(productId);
 
         StockUpdateRequest request = new StockUpdateRequest(2);
@@ -117,6 +149,28 @@ class ProductControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void configureStockStripes_returns204() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.configureStockStripes(productId, new StockStripesRequest(8)))
+                .thenReturn(productId);
+
+        mockMvc.perform(put("/products/{id}/stock/stripes", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockStripesRequest(8))))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void configureStockStripes_tooMany_returns400() throws Exception {
+
+        mockMvc.perform(put("/products/{id}/stock/stripes", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockStripesRequest(65))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteProduct_returns204() throws Exception {
 
@@ -127,4 +181,257 @@ class ProductControllerTest {
         mockMvc.perform(delete("/products/{id}", productId))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkout_returns204() throws Exception {
+
+        CheckoutRequest request = new CheckoutRequest(List.of(
+                new CheckoutLine(UUID.randomUUID(), 2),
+                new CheckoutLine(UUID.randomUUID(), 1)
+        ));
+
+        mockMvc.perform(post("/products/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void checkout_withInsufficientStock_returns400() throws Exception {
+
+        doThrow(new InvalidInputException("Insufficient stock"))
+                .when(productService)
+                .checkout(any());
+
+        CheckoutRequest request = new CheckoutRequest(List.of(
+                new CheckoutLine(UUID.randomUUID(), 2)
+        ));
+
+        mockMvc.perform(post("/products/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void checkout_withEmptyBasket_returns400() throws Exception {
+
+        mockMvc.perform(post("/products/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CheckoutRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importCsv_returnsSummary() throws Exception {
+
+        when(productImportService.importProducts(any(), eq(ProductImportFormat.CSV)))
+                .thenReturn(new ProductImportResult(
+                        1, 1, List.of(new ProductImportError(3, "price must be greater than 0")), 5, 200.0
+                ));
+
+        String csv = """
+                name,category,price,supplier,initialQuantity,description
+                Milk,DAIRY,5.5,Local Supplier,3,Fresh milk
+                Bread,BAKERY,-1,Bakery,,
+                """;
+
+        mockMvc.perform(post("/products/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void exportProducts_streamsNdjson() throws Exception {
+
+        ProductResponse milk = new ProductResponse(
+                UUID.randomUUID(), "Milk", Category.DAIRY, BigDecimal.valueOf(5.5), 3,
+                "Local Supplier", "Fresh milk", Instant.parse("2024-01-01T00:00:00Z")
+        );
+        ProductResponse cheese = new ProductResponse(
+                UUID.randomUUID(), "Cheese", Category.DAIRY, BigDecimal.valueOf(12), 7,
+                "Local Supplier", null, Instant.parse("2024-01-02T00:00:00Z")
+        );
+
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> sink = invocation.getArgument(2);
+            sink.accept(milk);
+            sink.accept(cheese);
+            return null;
+        }).when(productService).exportProducts(eq(Category.DAIRY), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/products/export").param("category", "DAIRY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], ProductResponse.class)).isEqualTo(milk);
+        assertThat(objectMapper.readValue(lines[1], ProductResponse.class)).isEqualTo(cheese);
+    }
+
+    @Test
+    void listProducts_passesFiltersAndReturnsCursor() throws Exception {
+
+        ProductResponse milk = new ProductResponse(
+                UUID.randomUUID(), "Milk", Category.DAIRY, BigDecimal.valueOf(5.5), 3,
+                "Local Supplier", "Fresh milk", Instant.parse("2024-01-01T00:00:00Z")
+        );
+
+        when(productService.listProducts(argThat((ProductQuery q) ->
+                q.category() == Category.DAIRY
+                        && q.sort() == ProductSort.PRICE_DESC
+                        && q.limit() == 1
+                        && q.maxPrice().compareTo(BigDecimal.TEN) == 0)))
+                .thenReturn(new ProductPage(List.of(milk), "next-token"));
+
+        mockMvc.perform(get("/products")
+                        .param("category", "DAIRY")
+                        .param("maxPrice", "10")
+                        .param("sort", "PRICE_DESC")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Milk"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void searchProducts_passesTextAndCategory() throws Exception {
+
+        ProductResponse milk = new ProductResponse(
+                UUID.randomUUID(), "Milk", Category.DAIRY, BigDecimal.valueOf(5.5), 3,
+                "Local Supplier", "Fresh milk", Instant.parse("2024-01-01T00:00:00Z")
+        );
+
+        when(productService.searchProducts(argThat((ProductSearchQuery q) ->
+                q.text().equals("mlk")
+                        && q.category() == Category.DAIRY
+                        && q.limit() == 20
+                        && q.cursor() == null)))
+                .thenReturn(new ProductPage(List.of(milk), "next-token"));
+
+        mockMvc.perform(get("/products/search")
+                        .param("q", "mlk")
+                        .param("category", "DAIRY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Milk"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void autocomplete_passesPrefixAndDefaultLimit() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.suggestProducts("mil", 10))
+                .thenReturn(List.of(new ProductSuggestion(productId, "Milk")));
+
+        mockMvc.perform(get("/products/autocomplete")
+                        .param("prefix", "mil"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(productId.toString()))
+                .andExpect(jsonPath("$[0].name").value("Milk"));
+    }
+
+    @Test
+    void getProduct_returnsVersionAsETag() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.getProduct(productId)).thenReturn(product(productId, 3L));
+
+        mockMvc.perform(get("/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name").value("Milk"));
+    }
+
+    @Test
+    void getProduct_withCurrentETag_returns304WithoutBody() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.getProduct(productId)).thenReturn(product(productId, 3L));
+
+        mockMvc.perform(get("/products/{id}", productId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateProduct_passesIfMatchVersion() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.updateProduct(eq(productId), any(), eq(3L)))
+                .thenReturn(productId);
+
+        UpdateProductRequest request = new UpdateProductRequest(
+                "Milk", Category.DAIRY, BigDecimal.valueOf(4.9), "Local Supplier", "Fresh milk");
+
+        mockMvc.perform(put("/products/{id}", productId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void decreaseStock_withStaleIfMatch_returns412() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        when(productService.decreaseStock(eq(productId), any(), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Product is at version 3"));
+
+        mockMvc.perform(post("/products/{id}/stock/decrease", productId)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockUpdateRequest(1))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void lookupProducts_returnsFoundAndMissing() throws Exception {
+
+        UUID found = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(productService.lookupProducts(List.of(found, missing)))
+                .thenReturn(new ProductLookupResponse(List.of(product(found, 1L).product()), List.of(missing)));
+
+        mockMvc.perform(post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductLookupRequest(List.of(found, missing)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(found.toString()))
+                .andExpect(jsonPath("$.missing[0]").value(missing.toString()));
+    }
+
+    @Test
+    void lookupProducts_withoutIds_returns400() throws Exception {
+
+        mockMvc.perform(post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductLookupRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static VersionedProduct product(UUID productId, long version) {
+        return new VersionedProduct(new ProductResponse(
+                productId,
+                "Milk",
+                Category.DAIRY,
+                BigDecimal.valueOf(5.5),
+                3,
+                "Local Supplier",
+                "Fresh milk",
+                Instant.parse("2024-01-01T00:00:00Z")
+        ), version);
+    }
+}
@@ -0,0 +1,130 @@
+package com.supermarket.catalog.controller;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.exception.PreconditionFailedException;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Conditional requests against a striped product, whose stock writes never touch the
+ * product row.
+ */
+class ProductETagTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private ProductService productService;
+
+    private UUID productId;
+
+    @BeforeEach
+    void createStripedProduct() throws Exception {
+
+        productId = productService.createProduct(new CreateProductRequest(
+                "Striped milk", Category.DAIRY, BigDecimal.valueOf(5.5), "ETag Supplier", 100, null));
+        productService.configureStockStripes(productId, new StockStripesRequest(4));
+    }
+
+    @Test
+    void stripedStockWrites_changeTheETag() throws Exception {
+
+        String before = eTag();
+
+        productService.decreaseStock(productId, new StockUpdateRequest(1), null);
+        String afterDecrease = eTag();
+        assertThat(afterDecrease).isNotEqualTo(before);
+
+        productService.checkout(new CheckoutRequest(List.of(new CheckoutLine(productId, 1))));
+        assertThat(eTag()).isNotIn(before, afterDecrease);
+    }
+
+    @Test
+    void conditionalGet_afterAStripedStockWrite_returnsTheNewStock() throws Exception {
+
+        String before = eTag();
+        productService.increaseStock(productId, new StockUpdateRequest(5), null);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<ProductResponse> entity = get(before, response);
+
+        assertThat(response.getStatus()).isNotEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(entity.getBody().stockQuantity()).isEqualTo(105);
+        assertThat(entity.getHeaders().getETag()).isNotEqualTo(before);
+
+        MockHttpServletResponse unchanged = new MockHttpServletResponse();
+        assertThat(get(entity.getHeaders().getETag(), unchanged)).isNull();
+        assertThat(unchanged.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    void staleIfMatch_isRejectedForStockAndProductWrites() throws Exception {
+
+        long stale = version();
+        productService.decreaseStock(productId, new StockUpdateRequest(1), null);
+
+        assertThatThrownBy(() -> productService.decreaseStock(productId, new StockUpdateRequest(1), stale))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> productService.updateProduct(productId, new UpdateProductRequest(
+                "Striped milk", Category.DAIRY, BigDecimal.valueOf(5.9), "ETag Supplier", null), stale))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        productService.decreaseStock(productId, new StockUpdateRequest(1), version());
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(98);
+    }
+
+    @Test
+    void restriping_neverReturnsToAnEarlierVersion() throws Exception {
+
+        for (int i = 0; i < 5; i++) {
+            productService.decreaseStock(productId, new StockUpdateRequest(1), null);
+        }
+        long striped = version();
+
+        productService.configureStockStripes(productId, new StockStripesRequest(0));
+
+        assertThat(version()).isGreaterThan(striped);
+    }
+
+    // ===== HELPERS =====
+    private long version() throws Exception {
+        return productService.getProduct(productId).version();
+    }
+
+    private String eTag() throws Exception {
+        return get(null, new MockHttpServletResponse()).getHeaders().getETag();
+    }
+
+    private ResponseEntity<ProductResponse> get(String ifNoneMatch, MockHttpServletResponse response) throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/" + productId);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return productController.get(productId, new ServletWebRequest(request, response));
+    }
+}
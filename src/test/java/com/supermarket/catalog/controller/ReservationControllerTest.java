@@ -0,0 +1,106 @@
+package com.supermarket.catalog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.catalog.dto.reservation.ReservationResponse;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.service.StockReservationService;
+import com.supermarket.catalog.validation.HeaderUserValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReservationController.class)
+class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private StockReservationService reservationService;
+
+    @MockBean
+    private HeaderUserValidator headerUserValidator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doReturn(true)
+                .when(headerUserValidator)
+                .preHandle(any(), any(), any());
+    }
+
+    @Test
+    void reserve_returns201WithExpiry() throws Exception {
+
+        UUID productId = UUID.randomUUID();
+        ReserveStockRequest request = new ReserveStockRequest(productId, 2, 600);
+        when(reservationService.reserve(request)).thenReturn(new ReservationResponse(
+                UUID.randomUUID(), productId, 2, Instant.parse("2024-01-01T10:10:00Z")));
+
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.quantity").value(2))
+                .andExpect(jsonPath("$.expiresAt").value("2024-01-01T10:10:00Z"));
+    }
+
+    @Test
+    void reserve_insufficientStock_returns400() throws Exception {
+
+        ReserveStockRequest request = new ReserveStockRequest(UUID.randomUUID(), 5, null);
+        when(reservationService.reserve(request))
+                .thenThrow(new InvalidInputException("Stock cannot be negative"));
+
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reserve_nonPositiveQuantity_returns400() throws Exception {
+
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ReserveStockRequest(UUID.randomUUID(), 0, null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void commit_expired_returns404() throws Exception {
+
+        UUID reservationId = UUID.randomUUID();
+        doThrow(new EntityNotFoundException("Reservation not found or expired: " + reservationId))
+                .when(reservationService).commit(reservationId);
+
+        mockMvc.perform(post("/reservations/{id}/commit", reservationId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void release_returns204() throws Exception {
+
+        mockMvc.perform(delete("/reservations/{id}", UUID.randomUUID()))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,109 @@
+package com.supermarket.catalog.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00.123Z");
+
+    @Test
+    void ids_carryVersionVariantAndTimestamp() {
+
+        UUID id = new UuidV7Generator(Clock.fixed(NOW, ZoneOffset.UTC)).nextId();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(NOW.toEpochMilli());
+    }
+
+    @Test
+    void idsWithinOneMillisecond_areStrictlyIncreasing() {
+
+        UuidV7Generator generator = new UuidV7Generator(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        UUID previous = generator.nextId();
+        // Past 4096 the counter carries into the timestamp, which must stay ordered too
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.nextId();
+            assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()))
+                    .isPositive();
+            previous = next;
+        }
+    }
+
+    @Test
+    void clockSteppingBack_doesNotReorderIds() {
+
+        MutableClock clock = new MutableClock(NOW);
+        UuidV7Generator generator = new UuidV7Generator(clock);
+
+        UUID before = generator.nextId();
+        clock.instant = NOW.minusSeconds(5);
+        UUID after = generator.nextId();
+
+        assertThat(Long.compareUnsigned(after.getMostSignificantBits(), before.getMostSignificantBits()))
+                .isPositive();
+    }
+
+    @Test
+    void concurrentCallers_neverGetTheSameId() throws Exception {
+
+        UuidV7Generator generator = new UuidV7Generator(Clock.systemUTC());
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int caller = 0; caller < 8; caller++) {
+                callers.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        }
+
+        assertThat(ids).hasSize(400_000);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
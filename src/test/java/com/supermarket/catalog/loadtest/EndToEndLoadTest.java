@@ -0,0 +1,336 @@
+package com.supermarket.catalog.loadtest;
+
+import com.supermarket.catalog.SupermarketApplication;
+import com.supermarket.catalog.testinfra.DatasetSeeder;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Release gate: seeds a production-sized dataset, drives a weighted mix of catalog calls
+ * at a fixed arrival rate and fails when the error rate or p99 exceeds its budget.
+ * <p>
+ * Requests are sent on schedule whether or not earlier ones have returned, and latency
+ * is measured from the scheduled send time, so a stalled server shows up in the
+ * percentiles instead of silently lowering the offered load.
+ * <p>
+ * Runs against a Testcontainers PostgreSQL by default, or a local database and an
+ * already running node:
+ * <pre>
+ * mvn test -Ploadtest -Dloadtest.rate=2000 -Dloadtest.duration=PT5M \
+ *     -Dloadtest.db.url=jdbc:postgresql://localhost:5432/catalog \
+ *     -Dloadtest.base-url=http://localhost:8080
+ * </pre>
+ */
+@Tag("loadtest")
+class EndToEndLoadTest {
+
+    private static final long PRODUCTS = Long.getLong("loadtest.products", 5_000_000);
+    private static final long USERS = Long.getLong("loadtest.users", 100_000);
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 1_000);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT1M"));
+    private static final String MIX = System.getProperty("loadtest.mix", "list=60,get=20,increase=5,decrease=5,user=10");
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("loadtest.max-in-flight", 10_000);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001"));
+    private static final long MAX_P99_MILLIS = Long.getLong("loadtest.max-p99-millis", 0);
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.txt"));
+
+    private static final String[] CATEGORIES =
+            {"DAIRY", "MEAT", "VEGETABLES", "FRUITS", "BAKERY", "BEVERAGES", "HOUSEHOLD"};
+    private static final String[] SORTS = {"NAME", "PRICE_ASC", "NEWEST"};
+
+    @Test
+    void catalog_sustainsTargetRateWithinBudgets() throws Exception {
+
+        String baseUrl = System.getProperty("loadtest.base-url");
+        ConfigurableApplicationContext context = baseUrl == null ? startNode() : null;
+        try {
+            DataSource dataSource = context != null ? context.getBean(DataSource.class) : localDataSource();
+
+            long seedingStart = System.nanoTime();
+            DatasetSeeder.seed(dataSource, PRODUCTS, USERS, SEED);
+            System.out.printf("Dataset of %,d products and %,d users ready in %d s%n",
+                    PRODUCTS, USERS, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedingStart));
+
+            if (context != null) {
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            }
+
+            Map<Operation, OperationStats> stats = drive(URI.create(baseUrl));
+            String report = report(stats);
+            System.out.println(report);
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            Files.writeString(REPORT, report);
+
+            long requests = stats.values().stream().mapToLong(OperationStats::total).sum();
+            long errors = stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+            assertThat(requests).isPositive();
+            assertThat((double) errors / requests).isLessThanOrEqualTo(MAX_ERROR_RATE);
+            if (MAX_P99_MILLIS > 0) {
+                stats.forEach((operation, operationStats) ->
+                        assertThat(operationStats.latencies.percentile(0.99) / 1_000)
+                                .as("p99 of %s in ms", operation)
+                                .isLessThanOrEqualTo(MAX_P99_MILLIS));
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    // ===== DRIVER =====
+    private static Map<Operation, OperationStats> drive(URI baseUrl) throws Exception {
+
+        Operation[] schedule = Operation.weighted(MIX);
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long start = System.nanoTime();
+        long measureFrom = start + WARMUP.toNanos();
+        long end = measureFrom + DURATION.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+
+            for (long n = 0; ; n++) {
+                long scheduled = start + n * intervalNanos;
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Operation operation = schedule[random.nextInt(schedule.length)];
+                HttpRequest request = operation.request(baseUrl, random);
+                OperationStats operationStats = scheduled >= measureFrom ? stats.get(operation) : null;
+
+                if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+                    // The server has fallen too far behind; count the request as failed rather than queue it
+                    inFlight.decrementAndGet();
+                    if (operationStats != null) {
+                        operationStats.errors.increment();
+                    }
+                    continue;
+                }
+
+                executor.execute(() -> {
+                    try {
+                        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (operationStats != null) {
+                            operationStats.record(operation, status, System.nanoTime() - scheduled);
+                        }
+                    } catch (Exception e) {
+                        if (operationStats != null) {
+                            operationStats.errors.increment();
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        return stats;
+    }
+
+    private static String report(Map<Operation, OperationStats> stats) {
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Target %,d req/s for %s after %s warm-up, mix %s, %,d products, %,d users%n",
+                RATE, DURATION, WARMUP, MIX, PRODUCTS, USERS));
+        report.append(String.format("%-10s %10s %10s %8s %8s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "rejected", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+
+        long total = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats s = entry.getValue();
+            if (s.total() == 0) {
+                continue;
+            }
+            total += s.total();
+            errors += s.errors.sum();
+            report.append(String.format("%-10s %,10d %10.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(),
+                    s.total(),
+                    s.total() / (double) DURATION.toSeconds(),
+                    s.errors.sum(),
+                    s.rejected.sum(),
+                    s.latencies.percentile(0.50) / 1_000.0,
+                    s.latencies.percentile(0.99) / 1_000.0,
+                    s.latencies.percentile(0.999) / 1_000.0,
+                    s.latencies.max() / 1_000.0));
+        }
+        report.append(String.format("Throughput %.1f req/s, error rate %.4f%%%n",
+                total / (double) DURATION.toSeconds(), total == 0 ? 0 : 100.0 * errors / total));
+        return report.toString();
+    }
+
+    // ===== SETUP =====
+    private static ConfigurableApplicationContext startNode() {
+
+        var postgres = PostgresTestContainer.getInstance();
+
+        return new SpringApplicationBuilder(SupermarketApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.jpa.show-sql=false",
+                        "server.port=0"
+                )
+                .run();
+    }
+
+    private static DataSource localDataSource() {
+
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(System.getProperty("loadtest.db.url", "jdbc:postgresql://localhost:5432/catalog"));
+        dataSource.setUser(System.getProperty("loadtest.db.username", "postgres"));
+        dataSource.setPassword(System.getProperty("loadtest.db.password", "postgres"));
+        return dataSource;
+    }
+
+    // ===== OPERATIONS =====
+    private enum Operation {
+
+        LIST {
+            @Override
+            HttpRequest.Builder builder(URI baseUrl, SplittableRandom random) {
+                return HttpRequest.newBuilder(baseUrl.resolve("/products?limit=20"
+                        + "&category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]
+                        + "&sort=" + SORTS[random.nextInt(SORTS.length)])).GET();
+            }
+        },
+        GET {
+            @Override
+            HttpRequest.Builder builder(URI baseUrl, SplittableRandom random) {
+                return HttpRequest.newBuilder(baseUrl.resolve("/products/" + randomProduct(random))).GET();
+            }
+        },
+        INCREASE {
+            @Override
+            HttpRequest.Builder builder(URI baseUrl, SplittableRandom random) {
+                return stockChange(baseUrl, random, "increase");
+            }
+        },
+        DECREASE {
+            @Override
+            HttpRequest.Builder builder(URI baseUrl, SplittableRandom random) {
+                return stockChange(baseUrl, random, "decrease");
+            }
+        },
+        USER {
+            @Override
+            HttpRequest.Builder builder(URI baseUrl, SplittableRandom random) {
+                return HttpRequest.newBuilder(baseUrl.resolve("/users/"
+                        + DatasetSeeder.userId(random.nextLong(USERS)))).GET();
+            }
+        };
+
+        abstract HttpRequest.Builder builder(URI baseUrl, SplittableRandom random);
+
+        HttpRequest request(URI baseUrl, SplittableRandom random) {
+
+            long user = random.nextLong(USERS);
+            return builder(baseUrl, random)
+                    .header("X-Username", DatasetSeeder.username(user))
+                    .header("X-User-Id", DatasetSeeder.userId(user).toString())
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+
+        /**
+         * Expands a mix like {@code list=60,get=40} into a table that a uniform pick samples by weight.
+         */
+        static Operation[] weighted(String mix) {
+
+            return Arrays.stream(mix.split(","))
+                    .map(String::trim)
+                    .flatMap(entry -> {
+                        String[] parts = entry.split("=");
+                        Operation operation = valueOf(parts[0].trim().toUpperCase());
+                        return Stream.generate(() -> operation).limit(Integer.parseInt(parts[1].trim()));
+                    })
+                    .toArray(Operation[]::new);
+        }
+
+        private static UUID randomProduct(SplittableRandom random) {
+            return DatasetSeeder.productId(random.nextLong(PRODUCTS));
+        }
+
+        private static HttpRequest.Builder stockChange(URI baseUrl, SplittableRandom random, String direction) {
+            return HttpRequest.newBuilder(baseUrl.resolve("/products/" + randomProduct(random) + "/stock/" + direction))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1}"));
+        }
+    }
+
+    private static final class OperationStats {
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        void record(Operation operation, int status, long latencyNanos) {
+
+            if (status >= 500 || status == 401) {
+                errors.increment();
+                return;
+            }
+            // Selling an empty product is a business outcome, not a failure of the service
+            if (operation == Operation.DECREASE && status == 400) {
+                rejected.increment();
+            } else if (status >= 400) {
+                errors.increment();
+                return;
+            }
+            latencies.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        }
+
+        long total() {
+            return latencies.count() + errors.sum();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.supermarket.catalog.metrics;
+
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestStatementsFilterTest extends BaseIntegrationTest {
+
+    private static final String PATTERN = "/products/statement-count-test";
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void jdbcTemplateStatements_areCounted_andABatchCountsOnce() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATTERN);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+
+        new RequestStatementsFilter(statementCounter, meterRegistry).doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> {
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    jdbcTemplate.batchUpdate("UPDATE products SET name = name WHERE id = ?",
+                            List.of(new Object[]{UUID.randomUUID()}, new Object[]{UUID.randomUUID()}));
+                });
+
+        DistributionSummary statements = meterRegistry.get("catalog.request.statements")
+                .tag("uri", PATTERN)
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+    }
+}
@@ -2,12 +2,15 @@ package com.supermarket.catalog.repository;
 
 import com.supermarket.catalog.domain.product.Category;
 import com.supermarket.catalog.domain.product.Product;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.VersionedProduct;
 import com.supermarket.catalog.testinfra.BaseIntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,6 +21,9 @@ class ProductRepositoryTest extends BaseIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
     @Test
     void saveAndFindProduct() {
 
@@ -53,4 +59,30 @@ class ProductRepositoryTest extends BaseIntegrationTest {
                     assertThat(p.getInsertionTime()).isEqualTo(insertionTime);
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void findProduct_readsTheResponseAndVersionWithoutAnEntity() {
+
+        UUID productId = UUID.randomUUID();
+        Instant insertionTime = Instant.parse("2024-01-01T00:00:00Z");
+
+        productRepository.saveAndFlush(Product.builder()
+                .id(productId)
+                .name("Milk")
+                .category(Category.DAIRY)
+                .price(BigDecimal.valueOf(5.90))
+                .stockQuantity(12)
+                .supplier("Local Supplier")
+                .description("Fresh milk")
+                .insertionTime(insertionTime)
+                .build());
+
+        assertThat(productJdbcRepository.findProduct(productId)).contains(new VersionedProduct(
+                new ProductResponse(productId, "Milk", Category.DAIRY, new BigDecimal("5.90"), 12,
+                        "Local Supplier", "Fresh milk", insertionTime),
+                0L));
+
+        List<VersionedProduct> found = productJdbcRepository.findProducts(List.of(productId, UUID.randomUUID()));
+        assertThat(found).extracting(product -> product.product().id()).containsExactly(productId);
+    }
+}
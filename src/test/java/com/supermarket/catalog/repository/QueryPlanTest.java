@@ -0,0 +1,121 @@
+package com.supermarket.catalog.repository;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.service.ProductService;
+import com.supermarket.catalog.service.StockReservationService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.testinfra.ProductSeeder;
+import com.supermarket.catalog.testinfra.QueryPlans;
+import com.supermarket.catalog.testinfra.SqlRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the statements the hot paths actually run, with their real parameters,
+ * against a seeded catalog, and fails on any sequential scan of a large table.
+ * The seeded rows and their statistics roll back with the test transaction.
+ */
+class QueryPlanTest extends BaseIntegrationTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final long LARGE_TABLE_ROWS = 10_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<UUID> productIds;
+
+    @BeforeEach
+    void seed() {
+        ProductSeeder.seedProducts(jdbcTemplate, PRODUCTS);
+        productIds = jdbcTemplate.queryForList("SELECT id FROM products LIMIT 3", UUID.class);
+        productIds.forEach(id -> jdbcTemplate.update("UPDATE products SET stock_quantity = 100 WHERE id = ?", id));
+    }
+
+    @Test
+    void productReadsAndWrites_useIndexes() throws Exception {
+
+        UUID productId = productIds.get(0);
+
+        assertNoSequentialScans(SqlRecorder.record(() -> {
+            productService.getProduct(productId);
+            productService.updateProduct(productId, new UpdateProductRequest(
+                    "Whole milk", Category.DAIRY, BigDecimal.valueOf(6), "Local Supplier", "Fresh milk"), null);
+            productService.increaseStock(productId, new StockUpdateRequest(5), null);
+            productService.decreaseStock(productId, new StockUpdateRequest(5), null);
+            productService.checkout(new CheckoutRequest(productIds.stream()
+                    .map(id -> new CheckoutLine(id, 1))
+                    .toList()));
+        }));
+    }
+
+    @Test
+    void productListings_seekThroughIndexes() throws Exception {
+
+        List<ProductQuery> queries = new ArrayList<>();
+        for (ProductSort sort : ProductSort.values()) {
+            queries.add(ProductQuery.builder().sort(sort).limit(50).build());
+        }
+        queries.add(ProductQuery.builder().category(Category.DAIRY).sort(ProductSort.NAME).limit(50).build());
+        queries.add(ProductQuery.builder().category(Category.DAIRY).sort(ProductSort.PRICE_ASC).limit(50).build());
+        queries.add(ProductQuery.builder().supplier("Supplier 7").sort(ProductSort.NAME).limit(50).build());
+        queries.add(ProductQuery.builder()
+                .minPrice(BigDecimal.valueOf(10)).maxPrice(BigDecimal.valueOf(12))
+                .sort(ProductSort.PRICE_ASC).limit(50).build());
+
+        assertNoSequentialScans(SqlRecorder.record(() -> {
+            for (ProductQuery query : queries) {
+                ProductPage first = productService.listProducts(query);
+                // The second page runs the keyset seek from the cursor
+                productService.listProducts(new ProductQuery(query.category(), query.supplier(),
+                        query.minPrice(), query.maxPrice(), query.sort(), query.limit(), first.nextCursor()));
+            }
+        }));
+    }
+
+    @Test
+    void reservations_useIndexes() throws Exception {
+
+        UUID productId = productIds.get(0);
+
+        assertNoSequentialScans(SqlRecorder.record(() -> {
+            UUID reservationId = reservationService.reserve(new ReserveStockRequest(productId, 1, null)).id();
+            reservationService.availability(productId);
+            reservationService.release(reservationId);
+        }));
+    }
+
+    private void assertNoSequentialScans(List<SqlRecorder.RecordedStatement> statements) throws Exception {
+
+        assertThat(statements).isNotEmpty();
+
+        List<String> scans = new ArrayList<>();
+        for (SqlRecorder.RecordedStatement statement : statements) {
+            scans.addAll(QueryPlans.sequentialScans(jdbcTemplate, statement, LARGE_TABLE_ROWS));
+        }
+        assertThat(scans).isEmpty();
+    }
+}
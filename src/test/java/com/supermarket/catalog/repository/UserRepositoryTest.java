@@ -1,7 +1,10 @@
 package com.supermarket.catalog.repository;
 
 import com.supermarket.catalog.domain.user.User;
+import com.supermarket.catalog.dto.user.UserResponse;
 import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -16,6 +19,9 @@ class UserRepositoryTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void saveAndFindUserById() {
 
@@ -66,4 +72,24 @@ class UserRepositoryTest extends BaseIntegrationTest {
         // then
         assertThat(userRepository.existsByUsername("unique_user")).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findResponseById_leavesThePersistenceContextEmpty() {
+
+        UUID userId = UUID.randomUUID();
+        Instant insertionTime = Instant.parse("2024-01-01T00:00:00Z");
+
+        userRepository.saveAndFlush(User.builder()
+                .id(userId)
+                .username("projected_user")
+                .password("secret")
+                .email("projected@example.com")
+                .insertionTime(insertionTime)
+                .build());
+        entityManager.clear();
+
+        assertThat(userRepository.findResponseById(userId))
+                .contains(new UserResponse(userId, "projected_user", "projected@example.com", insertionTime));
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
@@ -0,0 +1,177 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.inventory.InventoryAggregateResponse;
+import com.supermarket.catalog.dto.inventory.InventoryReconciliationResponse;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.exception.ConflictException;
+import com.supermarket.catalog.repository.InventoryAggregateJdbcRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Commits its changes, since reconciliation scans the table from connections of its own.
+ * Each test uses its own supplier, so other products never show up in its totals.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryAggregateServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String supplier = "Inventory " + UUID.randomUUID();
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID productId : createdProducts) {
+            productService.deleteProduct(productId);
+        }
+    }
+
+    @Test
+    void totals_followCreatesStockChangesAndDeletes() throws Exception {
+
+        UUID milk = create(Category.DAIRY, "2.50", 10);
+        create(Category.DAIRY, "4.00", 5);
+
+        assertThat(supplierTotals()).isEqualTo(totals(2, 15, "45.00"));
+
+        productService.increaseStock(milk, new StockUpdateRequest(4), null);
+        productService.decreaseStock(milk, new StockUpdateRequest(2), null);
+        assertThat(supplierTotals()).isEqualTo(totals(2, 17, "50.00"));
+
+        productService.deleteProduct(milk);
+        createdProducts.remove(milk);
+        assertThat(supplierTotals()).isEqualTo(totals(1, 5, "20.00"));
+    }
+
+    @Test
+    void update_movesTheProductBetweenGroupsAtItsNewPrice() throws Exception {
+
+        UUID product = create(Category.BAKERY, "3.00", 10);
+        String otherSupplier = "Inventory " + UUID.randomUUID();
+
+        productService.updateProduct(product, new UpdateProductRequest(
+                "Moved product", Category.BAKERY, new BigDecimal("5.00"), otherSupplier, null), null);
+
+        assertThat(totalsOf(inventoryAggregateService.bySupplier(), supplier)).isNull();
+        assertThat(totalsOf(inventoryAggregateService.bySupplier(), otherSupplier))
+                .isEqualTo(new InventoryAggregateResponse(otherSupplier, 1, 10, new BigDecimal("50.00")));
+    }
+
+    @Test
+    void stripedStock_countsEveryStripe() throws Exception {
+
+        UUID product = create(Category.BEVERAGES, "2.00", 20);
+
+        productService.configureStockStripes(product, new StockStripesRequest(4));
+        assertThat(supplierTotals()).isEqualTo(totals(1, 20, "40.00"));
+
+        productService.decreaseStock(product, new StockUpdateRequest(3), null);
+        productService.increaseStock(product, new StockUpdateRequest(1), null);
+        assertThat(supplierTotals()).isEqualTo(totals(1, 18, "36.00"));
+
+        productService.configureStockStripes(product, new StockStripesRequest(0));
+        assertThat(supplierTotals()).isEqualTo(totals(1, 18, "36.00"));
+    }
+
+    @Test
+    void reconcile_keepsCorrectTotalsAndRepairsDrift() throws Exception {
+
+        create(Category.FRUITS, "1.50", 8);
+        create(Category.FRUITS, "6.00", 2);
+        InventoryAggregateResponse expected = totals(2, 10, "24.00");
+
+        reconcile();
+        assertThat(supplierTotals()).isEqualTo(expected);
+
+        jdbcTemplate.update("""
+                INSERT INTO inventory_deltas (category, supplier, product_count, units, stock_value)
+                VALUES ('FRUITS', ?, 0, 7, 70)
+                """, supplier);
+        assertThat(supplierTotals()).isNotEqualTo(expected);
+
+        InventoryReconciliationResponse reconciliation = reconcile();
+
+        assertThat(reconciliation.driftedGroups()).isPositive();
+        assertThat(reconciliation.productCount()).isGreaterThanOrEqualTo(2);
+        assertThat(supplierTotals()).isEqualTo(expected);
+    }
+
+    @Test
+    void reconcileParallelism_mustLeaveHalfThePoolToRequests() {
+
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setMaximumPoolSize(10);
+
+            assertThatCode(() -> new InventoryAggregateJdbcRepository(new JdbcTemplate(pool), 4))
+                    .doesNotThrowAnyException();
+            assertThatThrownBy(() -> new InventoryAggregateJdbcRepository(new JdbcTemplate(pool), 5))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    // ===== HELPERS =====
+    private UUID create(Category category, String price, int quantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Inventory product", category, new BigDecimal(price), supplier, quantity, null));
+        createdProducts.add(productId);
+        return productId;
+    }
+
+    private InventoryAggregateResponse supplierTotals() {
+        return totalsOf(inventoryAggregateService.bySupplier(), supplier);
+    }
+
+    private InventoryAggregateResponse totals(long productCount, long units, String stockValue) {
+        return new InventoryAggregateResponse(supplier, productCount, units, new BigDecimal(stockValue));
+    }
+
+    private static InventoryAggregateResponse totalsOf(List<InventoryAggregateResponse> totals, String name) {
+        return totals.stream()
+                .filter(response -> response.name().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // The fold job may hold the lock for a moment
+    private InventoryReconciliationResponse reconcile() throws Exception {
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return inventoryAggregateService.reconcile();
+            } catch (ConflictException e) {
+                if (attempt == 20) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
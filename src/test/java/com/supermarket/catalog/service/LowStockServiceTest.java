@@ -0,0 +1,188 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.LowStockEvent;
+import com.supermarket.catalog.dto.product.LowStockResponse;
+import com.supermarket.catalog.dto.product.ReorderThresholdRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Commits its changes, since the low-stock set is refreshed as each transaction commits.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LowStockServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private LowStockService lowStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID productId : createdProducts) {
+            productService.deleteProduct(productId);
+        }
+    }
+
+    @Test
+    void lowStock_followsThresholdAndStockChanges() throws Exception {
+
+        UUID product = create(10);
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(5));
+        assertThat(lowStock(product)).isNull();
+
+        productService.decreaseStock(product, new StockUpdateRequest(6), null);
+        assertThat(lowStock(product))
+                .extracting(LowStockResponse::stockQuantity, LowStockResponse::reorderThreshold)
+                .containsExactly(4, 5);
+
+        productService.increaseStock(product, new StockUpdateRequest(1), null);
+        assertThat(lowStock(product)).isNull();
+    }
+
+    @Test
+    void clearingTheThreshold_removesTheProduct() throws Exception {
+
+        UUID product = create(2);
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(3));
+        assertThat(lowStock(product)).isNotNull();
+
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(null));
+        assertThat(lowStock(product)).isNull();
+    }
+
+    @Test
+    void stripedStock_countsEveryStripe() throws Exception {
+
+        UUID product = create(12);
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(10));
+        productService.configureStockStripes(product, new StockStripesRequest(4));
+        assertThat(lowStock(product)).isNull();
+
+        productService.decreaseStock(product, new StockUpdateRequest(3), null);
+        assertThat(lowStock(product).stockQuantity()).isEqualTo(9);
+
+        productService.configureStockStripes(product, new StockStripesRequest(0));
+        assertThat(lowStock(product).stockQuantity()).isEqualTo(9);
+    }
+
+    @Test
+    void thresholdSetOnAStripedProduct_watchesItsStripeWrites() throws Exception {
+
+        UUID product = create(12);
+        productService.configureStockStripes(product, new StockStripesRequest(4));
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(10));
+        assertThat(lowStock(product)).isNull();
+
+        // Found at commit, not by the sweep a minute later
+        productService.decreaseStock(product, new StockUpdateRequest(3), null);
+        assertThat(lowStock(product).stockQuantity()).isEqualTo(9);
+
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(null));
+        assertThat(lowStock(product)).isNull();
+        productService.decreaseStock(product, new StockUpdateRequest(1), null);
+        assertThat(lowStock(product)).isNull();
+    }
+
+    @Test
+    void crossings_arePushedToSubscribers() throws Exception {
+
+        UUID product = create(10);
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(5));
+        BlockingQueue<LowStockEvent> events = new LinkedBlockingQueue<>();
+
+        try (LowStockService.Subscription subscription = lowStockService.subscribe((name, event) -> {
+            if (event != null && event.productId().equals(product)) {
+                events.add(event);
+            }
+        })) {
+            productService.decreaseStock(product, new StockUpdateRequest(8), null);
+            productService.decreaseStock(product, new StockUpdateRequest(1), null);
+            productService.increaseStock(product, new StockUpdateRequest(9), null);
+
+            assertThat(events.poll(10, TimeUnit.SECONDS)).isEqualTo(new LowStockEvent(product, true, 2, 5));
+            assertThat(events.poll(10, TimeUnit.SECONDS)).isEqualTo(new LowStockEvent(product, false, 10, 5));
+            assertThat(events.poll(1, TimeUnit.SECONDS)).isNull();
+        }
+    }
+
+    @Test
+    void subscriptionsClosedAsSoonAsOpened_leaveNoSubscriberBehind() throws Exception {
+
+        UUID product = create(10);
+        lowStockService.setReorderThreshold(product, new ReorderThresholdRequest(5));
+        Gauge subscribers = meterRegistry.get("catalog.low_stock.subscribers").gauge();
+        double before = subscribers.value();
+        AtomicInteger delivered = new AtomicInteger();
+
+        for (int i = 0; i < 200; i++) {
+            lowStockService.subscribe((name, event) -> delivered.incrementAndGet()).close();
+        }
+        assertThat(subscribers.value()).isEqualTo(before);
+
+        // Wait on a live subscriber, so the crossing has been relayed to every open one
+        BlockingQueue<LowStockEvent> events = new LinkedBlockingQueue<>();
+        try (LowStockService.Subscription subscription = lowStockService.subscribe((name, event) -> {
+            if (event != null && event.productId().equals(product)) {
+                events.add(event);
+            }
+        })) {
+            productService.decreaseStock(product, new StockUpdateRequest(8), null);
+            assertThat(events.poll(10, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThat(delivered).hasValue(0);
+        assertThat(subscribers.value()).isEqualTo(before);
+    }
+
+    @Test
+    void setReorderThreshold_unknownProduct_throws() {
+
+        assertThatThrownBy(() -> lowStockService.setReorderThreshold(UUID.randomUUID(), new ReorderThresholdRequest(1)))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    // ===== HELPERS =====
+    private UUID create(int quantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Low stock product", Category.HOUSEHOLD, new BigDecimal("1.00"), "Low Stock Supplier", quantity, null));
+        createdProducts.add(productId);
+        return productId;
+    }
+
+    private LowStockResponse lowStock(UUID productId) throws Exception {
+        return lowStockService.listLowStock(1_000).stream()
+                .filter(response -> response.productId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,191 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductChange;
+import com.supermarket.catalog.dto.product.ProductChangeWindow;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.exception.GoneException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductChangeJdbcRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.testinfra.PostgresTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Commits its changes, since the feed only shows committed transactions.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductChangeServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private ProductChangeJdbcRepository productChangeRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID productId : createdProducts) {
+            productService.deleteProduct(productId);
+        }
+    }
+
+    @Test
+    void resumedRead_returnsOnlyLaterChangesWithTheirCurrentFields() throws Exception {
+
+        UUID updated = create("Till bread");
+        UUID deleted = create("Till butter");
+        UUID untouched = create("Till jam");
+        Set<UUID> ours = Set.of(updated, deleted, untouched);
+
+        Feed full = read(null, ours);
+        assertThat(full.changes()).extracting(ProductChange::id).containsExactlyInAnyOrder(updated, deleted, untouched);
+
+        productService.updateProduct(updated, new UpdateProductRequest(
+                "Till bread", Category.BAKERY, new BigDecimal("3.10"), "Till Supplier", null), null);
+        productService.increaseStock(untouched, new StockUpdateRequest(5), null);
+        productService.deleteProduct(deleted);
+        createdProducts.remove(deleted);
+
+        Feed delta = read(full.token(), ours);
+        assertThat(delta.changes()).hasSize(2);
+        assertThat(delta.changes()).filteredOn(change -> change.id().equals(updated))
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.deleted()).isFalse();
+                    assertThat(change.price()).isEqualByComparingTo("3.10");
+                });
+        assertThat(delta.changes()).filteredOn(change -> change.id().equals(deleted))
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.deleted()).isTrue();
+                    assertThat(change.name()).isNull();
+                });
+
+        assertThat(read(delta.token(), ours).changes()).isEmpty();
+    }
+
+    @Test
+    void lineTokens_resumeAfterTheirEntry() throws Exception {
+
+        UUID first = create("Till first");
+        UUID second = create("Till second");
+
+        List<ProductChange> changes = read(null, Set.of(first, second)).changes();
+        assertThat(changes).extracting(ProductChange::id).containsExactly(first, second);
+
+        assertThat(read(changes.get(0).token(), Set.of(first, second)).changes())
+                .extracting(ProductChange::id)
+                .containsExactly(second);
+    }
+
+    @Test
+    void tokenOlderThanPurgedTombstones_isGone() throws Exception {
+
+        UUID product = create("Till gone");
+        String token = read(null, Set.of(product)).token();
+        productService.deleteProduct(product);
+        createdProducts.remove(product);
+
+        productChangeRepository.purgeTombstones(Instant.now().plusSeconds(60));
+
+        assertThatThrownBy(() -> productChangeService.openWindow(token))
+                .isInstanceOf(GoneException.class);
+        assertThat(productChangeService.openWindow(null)).isNotNull();
+    }
+
+    @Test
+    void longTransaction_holdsTheFeedBackUntilItEnds() throws Exception {
+
+        var postgres = PostgresTestContainer.getInstance();
+        try (Connection writer = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                // Takes a transaction id, as a write would
+                statement.execute("SELECT pg_current_xact_id()");
+            }
+
+            UUID product = create("Till held back");
+            ProductChangeWindow held = productChangeService.openWindow(null);
+            List<UUID> changed = new ArrayList<>();
+            productChangeService.streamChanges(held, change -> changed.add(change.id()));
+
+            assertThat(changed).doesNotContain(product);
+            assertThat(held.heldBack()).isPositive();
+
+            writer.rollback();
+            assertThat(read(null, Set.of(product)).changes()).extracting(ProductChange::id).containsExactly(product);
+        }
+    }
+
+    @Test
+    void malformedToken_isRejected() {
+
+        assertThatThrownBy(() -> productChangeService.openWindow("not a token"))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    // ===== HELPERS =====
+    private UUID create(String name) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                name, Category.BAKERY, new BigDecimal("2.00"), "Till Supplier", 10, null));
+        createdProducts.add(productId);
+        return productId;
+    }
+
+    /**
+     * Reads one window once every transaction committed so far is in it, keeping the
+     * changes of the given products.
+     */
+    private Feed read(String since, Set<UUID> productIds) throws Exception {
+
+        // Background jobs may still hold the horizon below the last commit for a moment
+        long started = jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmax(pg_current_snapshot())::text::bigint", Long.class);
+        while (productChangeRepository.horizon().through() < started) {
+            Thread.sleep(10);
+        }
+
+        ProductChangeWindow window = productChangeService.openWindow(since);
+        List<ProductChange> changes = new ArrayList<>();
+        productChangeService.streamChanges(window, change -> {
+            if (productIds.contains(change.id())) {
+                changes.add(change);
+            }
+        });
+        return new Feed(changes, window.until().encode());
+    }
+
+    private record Feed(List<ProductChange> changes, String token) {}
+}
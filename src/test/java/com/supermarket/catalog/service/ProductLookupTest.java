@@ -0,0 +1,62 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductLookupResponse;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductLookupTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void lookup_keepsTheRequestOrderAndListsMissingIds() throws Exception {
+
+        UUID bread = create("Rye bread", 4);
+        UUID butter = create("Salted butter", 0);
+        UUID jam = create("Plum jam", 7);
+        UUID unknown = UUID.randomUUID();
+        // The lookup reads through JDBC, which does not flush the persistence context
+        entityManager.flush();
+
+        ProductLookupResponse response = productService.lookupProducts(List.of(jam, unknown, bread, jam, butter));
+
+        assertThat(response.products()).extracting(ProductResponse::id).containsExactly(jam, bread, butter);
+        assertThat(response.products()).extracting(ProductResponse::stockQuantity).containsExactly(7, 4, 0);
+        assertThat(response.missing()).containsExactly(unknown);
+    }
+
+    @Test
+    void tooManyIds_areRejected() {
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_001; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        assertThatThrownBy(() -> productService.lookupProducts(ids))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    private UUID create(String name, int stockQuantity) throws Exception {
+        return productService.createProduct(new CreateProductRequest(
+                name, Category.BAKERY, BigDecimal.valueOf(2.5), "Lookup Supplier", stockQuantity, null));
+    }
+}
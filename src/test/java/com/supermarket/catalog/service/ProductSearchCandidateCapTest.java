@@ -0,0 +1,93 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A search with more matches than {@code max-candidates} returns the best of them, wherever
+ * they sit in id order, and cuts every page from the same candidates.
+ */
+@TestPropertySource(properties = "catalog.search.max-candidates=3")
+class ProductSearchCandidateCapTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<UUID> supplierMatches = new ArrayList<>();
+    private UUID nameMatch;
+
+    @BeforeEach
+    void createProducts() throws Exception {
+
+        for (int i = 0; i < 8; i++) {
+            supplierMatches.add(create("Rye crackers " + i, "Numbat Foods"));
+        }
+        // The newest id, so the last of all in id order
+        nameMatch = create("Numbat biscuit", "Alpine Foods");
+
+        // Search reads through JDBC, which does not flush the persistence context
+        entityManager.flush();
+    }
+
+    @Test
+    void bestMatch_isReturnedThoughItsIdIsPastTheCap() throws Exception {
+
+        List<UUID> all = ids(search(null, 20));
+
+        assertThat(all).hasSize(3);
+        assertThat(all.get(0)).isEqualTo(nameMatch);
+        assertThat(all.subList(1, 3)).isSubsetOf(supplierMatches);
+    }
+
+    @Test
+    void pagesOfACappedSearch_neitherSkipNorRepeat() throws Exception {
+
+        List<UUID> all = ids(search(null, 20));
+
+        List<UUID> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPage page = search(cursor, 1);
+            paged.addAll(ids(page));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(all);
+    }
+
+    private UUID create(String name, String supplier) throws Exception {
+        return productService.createProduct(new CreateProductRequest(
+                name, Category.BAKERY, BigDecimal.valueOf(2.5), supplier, 10, null));
+    }
+
+    private ProductPage search(String cursor, int limit) throws Exception {
+        return productService.searchProducts(ProductSearchQuery.builder()
+                .text("numbat")
+                .limit(limit)
+                .cursor(cursor)
+                .build());
+    }
+
+    private static List<UUID> ids(ProductPage page) {
+        return page.items().stream().map(ProductResponse::id).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductPage;
+import com.supermarket.catalog.dto.product.ProductResponse;
+import com.supermarket.catalog.dto.product.ProductSearchQuery;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSearchTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UUID chocolate;
+    private UUID spread;
+    private UUID oatDrink;
+
+    @BeforeEach
+    void createProducts() throws Exception {
+
+        chocolate = create("Quokka chocolate bar", Category.BAKERY, "Alpine Foods", "Dark chocolate");
+        spread = create("Hazelnut spread", Category.BAKERY, "Quokka Foods", "With cocoa");
+        oatDrink = create("Quokka oat drink", Category.BEVERAGES, "Alpine Foods", "Barista edition");
+
+        // Search reads through JDBC, which does not flush the persistence context
+        entityManager.flush();
+    }
+
+    @Test
+    void nameMatches_rankAboveSupplierMatches() throws Exception {
+
+        List<UUID> ids = ids(search("quokka", null, 20));
+
+        assertThat(ids).hasSize(3);
+        assertThat(ids.subList(0, 2)).containsExactlyInAnyOrder(chocolate, oatDrink);
+        assertThat(ids.get(2)).isEqualTo(spread);
+    }
+
+    @Test
+    void wordPrefixes_match() throws Exception {
+        assertThat(ids(search("quok choc", null, 20))).containsExactly(chocolate);
+    }
+
+    @Test
+    void misspelledNames_match() throws Exception {
+        assertThat(ids(search("Quokka choclate", null, 20))).containsExactly(chocolate);
+    }
+
+    @Test
+    void category_filtersResults() throws Exception {
+        assertThat(ids(search("quokka", Category.BEVERAGES, 20))).containsExactly(oatDrink);
+    }
+
+    @Test
+    void pages_followTheRankingWithoutGapsOrRepeats() throws Exception {
+
+        List<UUID> all = ids(search("quokka", null, 20));
+
+        List<UUID> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPage page = productService.searchProducts(ProductSearchQuery.builder()
+                    .text("quokka")
+                    .limit(1)
+                    .cursor(cursor)
+                    .build());
+            paged.addAll(ids(page));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(all);
+    }
+
+    @Test
+    void cursorOfAnotherSearch_isRejected() throws Exception {
+
+        String cursor = search("quokka", null, 1).nextCursor();
+
+        assertThatThrownBy(() -> productService.searchProducts(ProductSearchQuery.builder()
+                .text("chocolate")
+                .limit(1)
+                .cursor(cursor)
+                .build()))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void textWithoutWords_isRejected() {
+
+        assertThatThrownBy(() -> search("&|!:*", null, 20))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    private ProductPage search(String text, Category category, int limit) throws InvalidInputException {
+        return productService.searchProducts(ProductSearchQuery.builder()
+                .text(text)
+                .category(category)
+                .limit(limit)
+                .build());
+    }
+
+    private UUID create(String name, Category category, String supplier, String description) throws Exception {
+        return productService.createProduct(new CreateProductRequest(
+                name, category, BigDecimal.valueOf(3.5), supplier, 10, description));
+    }
+
+    private static List<UUID> ids(ProductPage page) {
+        return page.items().stream().map(ProductResponse::id).toList();
+    }
+}
@@ -0,0 +1,225 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stock deltas must commit from many threads, so this class opts out of the
+ * per-test rollback of {@link BaseIntegrationTest} and cleans up after itself.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceConcurrencyTest extends BaseIntegrationTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(createdProducts);
+        createdProducts.clear();
+    }
+
+    @Test
+    void parallelIncreasesAndDecreases_areNotLost() throws Exception {
+
+        UUID productId = createProduct(10_000);
+
+        List<Callable<UUID>> tasks = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            tasks.add(() -> productService.increaseStock(productId, new StockUpdateRequest(3), null));
+            tasks.add(() -> productService.decreaseStock(productId, new StockUpdateRequest(2), null));
+        }
+
+        runAll(tasks, new AtomicInteger());
+
+        assertThat(productService.getProduct(productId).product().stockQuantity())
+                .isEqualTo(10_000 + 2_500 * 3 - 2_500 * 2);
+    }
+
+    @Test
+    void parallelDecreases_neverGoBelowZero() throws Exception {
+
+        UUID productId = createProduct(1_000);
+
+        List<Callable<UUID>> tasks = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            tasks.add(() -> productService.decreaseStock(productId, new StockUpdateRequest(1), null));
+        }
+
+        AtomicInteger rejected = new AtomicInteger();
+        runAll(tasks, rejected);
+
+        assertThat(rejected).hasValue(2_000);
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+    }
+
+    @Test
+    void stripedProduct_parallelDecreases_areNotLost() throws Exception {
+
+        UUID productId = createProduct(1_000);
+        productService.configureStockStripes(productId, new StockStripesRequest(8));
+
+        List<Callable<UUID>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            tasks.add(() -> productService.decreaseStock(productId, new StockUpdateRequest(1), null));
+            if (i % 3 == 0) {
+                tasks.add(() -> productService.increaseStock(productId, new StockUpdateRequest(1), null));
+            }
+        }
+
+        AtomicInteger rejected = new AtomicInteger();
+        runAll(tasks, rejected);
+
+        // 1,000 + 500 units in, and every decrease that was not rejected took one out
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(rejected.get());
+    }
+
+    @Test
+    void stripedProduct_keepsItsStockWhenStripedAndUnstriped() throws Exception {
+
+        UUID productId = createProduct(103);
+
+        productService.configureStockStripes(productId, new StockStripesRequest(4));
+        productService.decreaseStock(productId, new StockUpdateRequest(3), null);
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(100);
+
+        productService.checkout(new CheckoutRequest(List.of(new CheckoutLine(productId, 60))));
+        productService.configureStockStripes(productId, new StockStripesRequest(0));
+
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(40);
+        assertThatThrownBy(() -> productService.decreaseStock(productId, new StockUpdateRequest(41), null))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void parallelOverlappingBaskets_commitWithoutDeadlock() throws Exception {
+
+        List<UUID> productIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            productIds.add(createProduct(1_000));
+        }
+        List<UUID> reversed = new ArrayList<>(productIds);
+        Collections.reverse(reversed);
+
+        List<Callable<UUID>> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            List<UUID> basket = i % 2 == 0 ? productIds : reversed;
+            tasks.add(() -> {
+                productService.checkout(new CheckoutRequest(basket.stream()
+                        .map(id -> new CheckoutLine(id, 1))
+                        .toList()));
+                return null;
+            });
+        }
+
+        runAll(tasks, new AtomicInteger());
+
+        for (UUID productId : productIds) {
+            assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(800);
+        }
+    }
+
+    @Test
+    void checkout_withOneShortLine_leavesEveryProductUntouched() throws Exception {
+
+        UUID plenty = createProduct(10);
+        UUID scarce = createProduct(1);
+
+        CheckoutRequest basket = new CheckoutRequest(List.of(
+                new CheckoutLine(plenty, 5),
+                new CheckoutLine(scarce, 2)
+        ));
+
+        assertThatThrownBy(() -> productService.checkout(basket))
+                .isInstanceOf(InvalidInputException.class);
+
+        assertThat(productService.getProduct(plenty).product().stockQuantity()).isEqualTo(10);
+        assertThat(productService.getProduct(scarce).product().stockQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void checkout_withRepeatedLinesOverflowingAnInt_isRejected() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        CheckoutRequest basket = new CheckoutRequest(List.of(
+                new CheckoutLine(productId, Integer.MAX_VALUE),
+                new CheckoutLine(productId, Integer.MAX_VALUE)
+        ));
+
+        assertThatThrownBy(() -> productService.checkout(basket))
+                .isInstanceOf(InvalidInputException.class);
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(10);
+    }
+
+    private void runAll(List<Callable<UUID>> tasks, AtomicInteger rejected) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (Callable<UUID> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return task.call();
+                    } catch (InvalidInputException e) {
+                        rejected.incrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<UUID> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID createProduct(int initialQuantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Milk",
+                Category.DAIRY,
+                BigDecimal.valueOf(5.5),
+                "Local Supplier",
+                initialQuantity,
+                "Fresh milk"
+        ));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+}
@@ -0,0 +1,216 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.ProductQuery;
+import com.supermarket.catalog.dto.product.ProductSort;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.product.UpdateProductRequest;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.dto.user.CreateUserRequest;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.repository.UserRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import com.supermarket.catalog.testinfra.SqlRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Statements per operation are a contract: each test names the endpoint it backs and the
+ * most statements it may run, including the ones issued at commit. Cache invalidations
+ * count, as each one is a NOTIFY round trip. Runs outside a test transaction, so that
+ * commits flush as they do in production, and cleans up after itself.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatementBudgetTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+    private final List<UUID> createdUsers = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(createdProducts);
+        userRepository.deleteAllById(createdUsers);
+        createdProducts.clear();
+        createdUsers.clear();
+    }
+
+    // ===== PRODUCTS =====
+    @Test
+    void postProducts_insertsOnly() throws Exception {
+        assertBudget(1, () -> createdProducts.add(productService.createProduct(milk(10))));
+    }
+
+    @Test
+    void getProduct_readsOnceThenServesFromCache() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        assertBudget(1, () -> productService.getProduct(productId));
+        assertBudget(0, () -> productService.getProduct(productId));
+    }
+
+    @Test
+    void postProductsLookup_isOneQuery() throws Exception {
+
+        List<UUID> productIds = List.of(createProduct(10), createProduct(20), createProduct(30));
+        productService.getProduct(productIds.get(1));
+
+        // The cached product is left out of the query, which still reads all the others at once
+        assertBudget(1, () -> productService.lookupProducts(productIds));
+    }
+
+    @Test
+    void getProducts_isOneQuery() throws Exception {
+
+        createProduct(10);
+
+        assertBudget(1, () -> productService.listProducts(ProductQuery.builder()
+                .category(Category.DAIRY)
+                .sort(ProductSort.PRICE_ASC)
+                .limit(20)
+                .build()));
+    }
+
+    @Test
+    void getAutocomplete_isServedFromMemory() throws Exception {
+
+        createProduct(10);
+
+        assertBudget(0, () -> productService.suggestProducts("milk", 10));
+    }
+
+    @Test
+    void putProduct_updatesAndInvalidates() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        assertBudget(2, () -> productService.updateProduct(productId, new UpdateProductRequest(
+                "Whole milk", Category.DAIRY, BigDecimal.valueOf(6), "Local Supplier", "Fresh milk"), null));
+    }
+
+    @Test
+    void stockIncreaseAndDecrease_updateAndInvalidate() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        assertBudget(2, () -> productService.increaseStock(productId, new StockUpdateRequest(5), null));
+        assertBudget(2, () -> productService.decreaseStock(productId, new StockUpdateRequest(5), null));
+    }
+
+    @Test
+    void rejectedStockDecrease_readsStateOnce() throws Exception {
+
+        UUID productId = createProduct(1);
+
+        assertBudget(2, () -> assertThatThrownBy(() ->
+                productService.decreaseStock(productId, new StockUpdateRequest(5), null))
+                .isInstanceOf(InvalidInputException.class));
+    }
+
+    @Test
+    void checkout_isOneBatchWhateverTheBasketSize() throws Exception {
+
+        List<CheckoutLine> lines = List.of(
+                new CheckoutLine(createProduct(10), 1),
+                new CheckoutLine(createProduct(10), 2),
+                new CheckoutLine(createProduct(10), 3));
+
+        assertBudget(2, () -> productService.checkout(new CheckoutRequest(lines)));
+    }
+
+    @Test
+    void deleteProduct_checksLoadsAndDeletes() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        assertBudget(4, () -> productService.deleteProduct(productId));
+    }
+
+    // ===== RESERVATIONS =====
+    @Test
+    void reservationLifecycle_staysWithinBudget() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        UUID committed = reservationService.reserve(new ReserveStockRequest(productId, 2, null)).id();
+        UUID released = reservationService.reserve(new ReserveStockRequest(productId, 2, null)).id();
+
+        assertBudget(3, () -> reservationService.reserve(new ReserveStockRequest(productId, 1, null)));
+        assertBudget(1, () -> reservationService.commit(committed));
+        assertBudget(3, () -> reservationService.release(released));
+    }
+
+    // ===== USERS =====
+    @Test
+    void userLifecycle_staysWithinBudget() throws Exception {
+
+        UUID[] userId = new UUID[1];
+        // Two uniqueness checks and the INSERT; a new user is persisted without a SELECT
+        assertBudget(3, () -> userId[0] = userService.createUser(
+                new CreateUserRequest("budget-cashier", "secret", "budget-cashier@example.com")));
+        createdUsers.add(userId[0]);
+
+        assertBudget(1, () -> userService.getUser(userId[0]));
+        assertBudget(3, () -> userService.deleteUser(userId[0]));
+    }
+
+    // ===== HELPERS =====
+    private static void assertBudget(int budget, SqlRecorder.Operation operation) throws Exception {
+
+        List<SqlRecorder.RecordedStatement> statements = SqlRecorder.record(operation);
+
+        assertThat(statements)
+                .as("statements run, budget %d:%n%s", budget, String.join("\n",
+                        statements.stream().map(SqlRecorder.RecordedStatement::sql).toList()))
+                .hasSizeLessThanOrEqualTo(budget);
+    }
+
+    private UUID createProduct(int initialQuantity) throws Exception {
+
+        UUID productId = productService.createProduct(milk(initialQuantity));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+
+    private static CreateProductRequest milk(int initialQuantity) {
+        return new CreateProductRequest(
+                "Milk",
+                Category.DAIRY,
+                BigDecimal.valueOf(5.5),
+                "Local Supplier",
+                initialQuantity,
+                "Fresh milk"
+        );
+    }
+}
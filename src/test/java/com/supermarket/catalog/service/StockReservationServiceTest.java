@@ -0,0 +1,127 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockStripesRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.dto.reservation.ReservationResponse;
+import com.supermarket.catalog.dto.reservation.ReserveStockRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reservations schedule their expiry after commit, so this class opts out of
+ * the per-test rollback of {@link BaseIntegrationTest} and cleans up after itself.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "catalog.reservations.tick=20ms")
+class StockReservationServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(createdProducts);
+        createdProducts.clear();
+    }
+
+    @Test
+    void reserve_holdsStockUntilCommitted() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        ReservationResponse reservation = reservationService.reserve(new ReserveStockRequest(productId, 4, null));
+        assertThat(reservationService.availability(productId).available()).isEqualTo(6);
+        assertThat(reservationService.availability(productId).reserved()).isEqualTo(4);
+
+        reservationService.commit(reservation.id());
+
+        assertThat(reservationService.availability(productId).available()).isEqualTo(6);
+        assertThat(reservationService.availability(productId).reserved()).isZero();
+        assertThatThrownBy(() -> reservationService.release(reservation.id()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void release_returnsStock() throws Exception {
+
+        UUID productId = createProduct(10);
+
+        ReservationResponse reservation = reservationService.reserve(new ReserveStockRequest(productId, 10, null));
+        assertThatThrownBy(() -> productService.decreaseStock(productId, new StockUpdateRequest(1), null))
+                .isInstanceOf(InvalidInputException.class);
+
+        reservationService.release(reservation.id());
+
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void reserve_beyondAvailable_isRejected() throws Exception {
+
+        UUID productId = createProduct(3);
+        reservationService.reserve(new ReserveStockRequest(productId, 2, null));
+
+        assertThatThrownBy(() -> reservationService.reserve(new ReserveStockRequest(productId, 2, null)))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void expiredReservation_returnsStockAndCannotBeCommitted() throws Exception {
+
+        UUID productId = createProduct(5);
+        productService.configureStockStripes(productId, new StockStripesRequest(2));
+
+        ReservationResponse reservation = reservationService.reserve(new ReserveStockRequest(productId, 5, 1));
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reservationService.availability(productId).reserved() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(reservationService.availability(productId).available()).isEqualTo(5);
+        assertThatThrownBy(() -> reservationService.commit(reservation.id()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private UUID createProduct(int initialQuantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Bread",
+                Category.BAKERY,
+                BigDecimal.valueOf(2.5),
+                "Local Bakery",
+                initialQuantity,
+                "Sourdough"
+        ));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+}
@@ -0,0 +1,215 @@
+package com.supermarket.catalog.service;
+
+import com.supermarket.catalog.domain.product.Category;
+import com.supermarket.catalog.dto.product.CheckoutLine;
+import com.supermarket.catalog.dto.product.CheckoutRequest;
+import com.supermarket.catalog.dto.product.CreateProductRequest;
+import com.supermarket.catalog.dto.product.StockUpdateRequest;
+import com.supermarket.catalog.exception.EntityNotFoundException;
+import com.supermarket.catalog.exception.InvalidInputException;
+import com.supermarket.catalog.repository.ProductRepository;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Buffered increases are flushed by other threads, so this class opts out of the
+ * per-test rollback of {@link BaseIntegrationTest} and cleans up after itself.
+ * The flush interval is long enough that only decreases and the size threshold flush.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockWriteBehindTest extends BaseIntegrationTest {
+
+    private static final int FLUSH_THRESHOLD = 500;
+    private static final int POOL_SIZE = 10;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void writeBehind(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("catalog.stock.write-behind.enabled", () -> "true");
+        registry.add("catalog.stock.write-behind.node-id", () -> "write-behind-test-" + UUID.randomUUID());
+        registry.add("catalog.stock.write-behind.log-dir",
+                Files.createTempDirectory("stock-increments")::toString);
+        registry.add("catalog.stock.write-behind.flush-interval", () -> "1h");
+        registry.add("catalog.stock.write-behind.flush-threshold", () -> FLUSH_THRESHOLD);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(createdProducts);
+        createdProducts.clear();
+    }
+
+    @Test
+    void decrease_seesBufferedIncreases() throws Exception {
+
+        UUID productId = createProduct(0);
+
+        for (int i = 0; i < 40; i++) {
+            productService.increaseStock(productId, new StockUpdateRequest(1), null);
+        }
+        productService.decreaseStock(productId, new StockUpdateRequest(40), null);
+
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+        assertThatThrownBy(() -> productService.decreaseStock(productId, new StockUpdateRequest(1), null))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void checkout_seesBufferedIncreases() throws Exception {
+
+        UUID productId = createProduct(1);
+        productService.increaseStock(productId, new StockUpdateRequest(12), null);
+
+        productService.checkout(new CheckoutRequest(List.of(new CheckoutLine(productId, 13))));
+
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+    }
+
+    @Test
+    void decrease_flushesOnlyItsOwnProduct() throws Exception {
+
+        UUID decreased = createProduct(0);
+        UUID untouched = createProduct(0);
+        productService.increaseStock(decreased, new StockUpdateRequest(5), null);
+        productService.increaseStock(untouched, new StockUpdateRequest(7), null);
+
+        productService.decreaseStock(decreased, new StockUpdateRequest(5), null);
+
+        // A flush ahead of the segments marks each product it applied
+        assertThat(marks(decreased)).isOne();
+        assertThat(marks(untouched)).isZero();
+
+        productService.decreaseStock(untouched, new StockUpdateRequest(7), null);
+        assertThat(marks(untouched)).isOne();
+    }
+
+    @Test
+    void rejectedDecrease_keepsTheIncreasesItFlushed() throws Exception {
+
+        UUID productId = createProduct(0);
+        productService.increaseStock(productId, new StockUpdateRequest(3), null);
+
+        assertThatThrownBy(() -> productService.decreaseStock(productId, new StockUpdateRequest(5), null))
+                .isInstanceOf(InvalidInputException.class);
+
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void moreConcurrentDecreasesThanConnections_neverWaitForASecondConnection() throws Exception {
+
+        int decreases = POOL_SIZE * 4;
+        List<UUID> productIds = new ArrayList<>();
+        for (int i = 0; i < decreases; i++) {
+            UUID productId = createProduct(0);
+            productService.increaseStock(productId, new StockUpdateRequest(2), null);
+            productIds.add(productId);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(decreases);
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (UUID productId : productIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return productService.decreaseStock(productId, new StockUpdateRequest(2), null);
+                }));
+            }
+            start.countDown();
+            // A decrease waiting on a second connection would fail after the pool's connection timeout
+            for (Future<UUID> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (UUID productId : productIds) {
+            assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+        }
+    }
+
+    @Test
+    void parallelIncreases_areCoalescedAndNotLost() throws Exception {
+
+        UUID productId = createProduct(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (int i = 0; i < FLUSH_THRESHOLD * 4; i++) {
+                futures.add(executor.submit(
+                        () -> productService.increaseStock(productId, new StockUpdateRequest(3), null)));
+            }
+            for (Future<UUID> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Some of these were flushed by the size threshold, the rest by the decrease
+        productService.decreaseStock(productId, new StockUpdateRequest(FLUSH_THRESHOLD * 4 * 3), null);
+        assertThat(productService.getProduct(productId).product().stockQuantity()).isZero();
+    }
+
+    @Test
+    void increase_ofMissingProduct_isRejectedBeforeBuffering() {
+
+        assertThatThrownBy(() -> productService.increaseStock(UUID.randomUUID(), new StockUpdateRequest(1), null))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private int marks(UUID productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM stock_increment_marks WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private UUID createProduct(int initialQuantity) throws Exception {
+
+        UUID productId = productService.createProduct(new CreateProductRequest(
+                "Water",
+                Category.BEVERAGES,
+                BigDecimal.valueOf(0.9),
+                "Spring Co",
+                initialQuantity,
+                "Still water, case of 12"
+        ));
+        createdProducts.add(productId);
+
+        return productId;
+    }
+}
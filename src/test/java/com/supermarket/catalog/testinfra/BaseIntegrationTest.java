@@ -2,12 +2,14 @@ package com.supermarket.catalog.testinfra;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
+@Import(SqlRecorder.class)
 @ActiveProfiles("test")
 @Transactional
 public abstract class BaseIntegrationTest {
@@ -0,0 +1,168 @@
+package com.supermarket.catalog.testinfra;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Streams a reproducible products and users dataset into PostgreSQL with COPY. Ids are
+ * derived from the row index, so a load driver can address any seeded row without
+ * reading the ids back, and the same seed always produces the same rows.
+ * <p>
+ * A dataset that is already in place is kept, so repeated runs against a reused
+ * container or local database only pay for seeding once.
+ */
+public final class DatasetSeeder {
+
+    private static final String SUPPLIER_PREFIX = "Load Supplier ";
+    private static final String USERNAME_PREFIX = "load-user-";
+
+    // Version 4 and IETF variant bits, so seeded ids look like any other random UUID
+    private static final long PRODUCT_ID_HIGH = 0x10ad_0000_0000_4000L;
+    private static final long USER_ID_HIGH = 0x10ad_0001_0000_4000L;
+    private static final long ID_VARIANT = 0x8000_0000_0000_0000L;
+
+    private static final String[] CATEGORIES =
+            {"DAIRY", "MEAT", "VEGETABLES", "FRUITS", "BAKERY", "BEVERAGES", "HOUSEHOLD"};
+
+    // Names are brand, adjective, noun and size, so searches match realistic fractions of the catalog
+    public static final String[] BRANDS = {
+            "Alpine", "Golden", "Nordic", "Valley", "Sunrise", "Harvest", "Meadow", "Coastal",
+            "Heritage", "Orchard", "Prairie", "Summit", "Riverside", "Evergreen", "Highland", "Willow",
+            "Maple", "Cedar", "Bluebell", "Oakwood", "Pinecrest", "Silverleaf", "Greenfield", "Stonebridge"};
+    public static final String[] ADJECTIVES = {
+            "organic", "fresh", "whole", "light", "classic", "smoked", "roasted", "sweet",
+            "spicy", "creamy", "crunchy", "wholegrain", "unsalted", "natural", "premium", "frozen",
+            "toasted", "mild", "extra", "rustic"};
+    public static final String[] NOUNS = {
+            "milk", "yogurt", "cheese", "butter", "bread", "bagels", "croissant", "muffins",
+            "chicken", "sausages", "salmon", "bacon", "tomatoes", "potatoes", "carrots", "spinach",
+            "apples", "bananas", "strawberries", "oranges", "coffee", "tea", "juice", "lemonade",
+            "detergent", "sponges", "napkins", "chocolate", "cereal", "crackers", "granola", "hummus",
+            "pasta", "rice", "olives", "almonds", "honey", "jam", "peanut butter", "ketchup"};
+    private static final String[] SIZES = {"100g", "250g", "500g", "1kg", "250ml", "500ml", "1L", "2L", "6 pack", "12 pack"};
+
+    private DatasetSeeder() {
+    }
+
+    public static UUID productId(long index) {
+        return new UUID(PRODUCT_ID_HIGH, ID_VARIANT | index);
+    }
+
+    public static UUID userId(long index) {
+        return new UUID(USER_ID_HIGH, ID_VARIANT | index);
+    }
+
+    public static String username(long index) {
+        return USERNAME_PREFIX + index;
+    }
+
+    /**
+     * Makes the database hold exactly {@code products} seeded products and {@code users}
+     * seeded users, reseeding a table whose seeded row count does not match.
+     */
+    public static void seed(DataSource dataSource, long products, long users, long seed)
+            throws SQLException, IOException {
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // The dataset can be regenerated, so skip the WAL flush per commit
+                statement.execute("SET LOCAL synchronous_commit = off");
+            }
+
+            if (count(connection, "SELECT count(*) FROM products WHERE supplier LIKE '" + SUPPLIER_PREFIX + "%'") != products) {
+                execute(connection, "DELETE FROM products WHERE supplier LIKE '" + SUPPLIER_PREFIX + "%'");
+                copyProducts(connection, products, new SplittableRandom(seed));
+            }
+            if (count(connection, "SELECT count(*) FROM users WHERE username LIKE '" + USERNAME_PREFIX + "%'") != users) {
+                execute(connection, "DELETE FROM users WHERE username LIKE '" + USERNAME_PREFIX + "%'");
+                copyUsers(connection, users);
+            }
+            connection.commit();
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "ANALYZE products");
+            execute(connection, "ANALYZE users");
+        }
+    }
+
+    // ===== COPY =====
+    private static void copyProducts(Connection connection, long count, SplittableRandom random)
+            throws SQLException, IOException {
+
+        Instant epoch = Instant.parse("2024-01-01T00:00:00Z");
+        String sql = "COPY products (id, name, category, price, stock_quantity, supplier, description, insertion_time) FROM STDIN";
+
+        try (Writer out = copyWriter(connection, sql)) {
+            for (long i = 0; i < count; i++) {
+                out.append(productId(i).toString()).append('\t')
+                        .append(BRANDS[random.nextInt(BRANDS.length)]).append(' ')
+                        .append(ADJECTIVES[random.nextInt(ADJECTIVES.length)]).append(' ')
+                        .append(NOUNS[random.nextInt(NOUNS.length)]).append(' ')
+                        .append(SIZES[random.nextInt(SIZES.length)]).append('\t')
+                        .append(CATEGORIES[random.nextInt(CATEGORIES.length)]).append('\t')
+                        .append(Integer.toString(1 + random.nextInt(100))).append('.')
+                        .append(twoDigits(random.nextInt(100))).append('\t')
+                        .append(Integer.toString(random.nextInt(1_000))).append('\t')
+                        .append(SUPPLIER_PREFIX).append(Integer.toString(random.nextInt(500))).append('\t')
+                        .append("Seeded product ").append(Long.toString(i)).append('\t')
+                        .append(epoch.plusSeconds(i).toString()).append('\n');
+            }
+        }
+    }
+
+    private static void copyUsers(Connection connection, long count) throws SQLException, IOException {
+
+        Instant epoch = Instant.parse("2024-01-01T00:00:00Z");
+        String sql = "COPY users (id, username, password, email, insertion_time) FROM STDIN";
+
+        try (Writer out = copyWriter(connection, sql)) {
+            for (long i = 0; i < count; i++) {
+                out.append(userId(i).toString()).append('\t')
+                        .append(username(i)).append('\t')
+                        .append("secret").append('\t')
+                        .append(username(i)).append("@example.com").append('\t')
+                        .append(epoch.plusSeconds(i).toString()).append('\n');
+            }
+        }
+    }
+
+    private static Writer copyWriter(Connection connection, String sql) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        return new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(pgConnection, sql, 1 << 16), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
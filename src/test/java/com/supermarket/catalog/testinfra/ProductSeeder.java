@@ -0,0 +1,32 @@
+package com.supermarket.catalog.testinfra;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Generates large product tables server-side, for benchmarks and query-plan checks.
+ */
+public final class ProductSeeder {
+
+    private static final String SEED_PRODUCTS = """
+            INSERT INTO products (id, name, category, price, stock_quantity,
+                                  supplier, description, insertion_time)
+            SELECT gen_random_uuid(),
+                   'Product ' || lpad(g::text, 8, '0'),
+                   (ARRAY['DAIRY', 'MEAT', 'VEGETABLES', 'FRUITS',
+                          'BAKERY', 'BEVERAGES', 'HOUSEHOLD'])[1 + g % 7],
+                   round((1 + random() * 100)::numeric, 2),
+                   (random() * 100)::int,
+                   'Supplier ' || (g % 200),
+                   'Seeded product ' || g,
+                   now() - g * interval '1 second'
+              FROM generate_series(1, ?) AS g
+            """;
+
+    private ProductSeeder() {
+    }
+
+    public static void seedProducts(JdbcTemplate jdbcTemplate, int count) {
+        jdbcTemplate.update(SEED_PRODUCTS, count);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+}
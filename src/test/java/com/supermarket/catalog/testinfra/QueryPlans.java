@@ -0,0 +1,62 @@
+package com.supermarket.catalog.testinfra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Explains recorded statements with their recorded parameters and reports the
+ * sequential scans they plan over large tables.
+ */
+public final class QueryPlans {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private QueryPlans() {
+    }
+
+    /**
+     * @param minRows tables the planner estimates below this size may be scanned
+     * @return one line per offending scan, naming the table and the statement
+     */
+    public static List<String> sequentialScans(JdbcTemplate jdbcTemplate,
+                                               SqlRecorder.RecordedStatement statement,
+                                               long minRows) throws Exception {
+
+        if (!explainable(statement.sql())) {
+            return List.of();
+        }
+
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN (FORMAT JSON) " + statement.sql(), String.class, statement.parameters().toArray());
+
+        List<String> scans = new ArrayList<>();
+        collect(JSON.readTree(plan).get(0).get("Plan"), jdbcTemplate, statement.sql(), minRows, scans);
+        return scans;
+    }
+
+    private static void collect(JsonNode node, JdbcTemplate jdbcTemplate, String sql, long minRows, List<String> scans) {
+
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String table = node.path("Relation Name").asText();
+            Double rows = jdbcTemplate.queryForObject(
+                    "SELECT reltuples FROM pg_class WHERE oid = to_regclass(?)", Double.class, table);
+            if (rows != null && rows >= minRows) {
+                scans.add("Seq Scan on " + table + " (" + rows.longValue() + " rows) in: " + sql.strip());
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, jdbcTemplate, sql, minRows, scans);
+        }
+    }
+
+    private static boolean explainable(String sql) {
+        String verb = sql.stripLeading().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        return verb.equals("SELECT") || verb.equals("WITH") || verb.equals("INSERT")
+                || verb.equals("UPDATE") || verb.equals("DELETE");
+    }
+}
@@ -0,0 +1,59 @@
+package com.supermarket.catalog.testinfra;
+
+import com.supermarket.catalog.metrics.StatementListeningDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the application DataSource so a test can record every statement the current
+ * thread executes, whether it comes from Hibernate or from JdbcTemplate, together
+ * with its last bound parameters. A JDBC batch is recorded once, as one round trip.
+ * <p>
+ * It sees statements the way the {@code catalog.request.statements} count does, through the
+ * same {@link StatementListeningDataSource}. Nothing is recorded outside {@link #record},
+ * so other tests only pay for the proxies.
+ */
+public class SqlRecorder implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    public record RecordedStatement(String sql, List<Object> parameters) {}
+
+    /**
+     * Runs the operation and returns the statements it executed on this thread, in order.
+     */
+    public static List<RecordedStatement> record(Operation operation) throws Exception {
+
+        List<RecordedStatement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            operation.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource
+                ? new StatementListeningDataSource(dataSource, SqlRecorder::executed, true)
+                : bean;
+    }
+
+    private static void executed(String sql, List<Object> parameters) {
+
+        List<RecordedStatement> recording = RECORDING.get();
+        if (recording != null) {
+            recording.add(new RecordedStatement(sql, parameters));
+        }
+    }
+}
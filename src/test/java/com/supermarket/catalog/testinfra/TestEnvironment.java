@@ -15,7 +15,8 @@ public final class TestEnvironment {
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
 
-        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // Schema comes from the Flyway migrations, exactly as in production
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
         registry.add("spring.jpa.show-sql", () -> "false");
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.supermarket.catalog.validation;
+
+import com.supermarket.catalog.cache.UserAuthCache;
+import com.supermarket.catalog.dto.user.CreateUserRequest;
+import com.supermarket.catalog.dto.user.UpdateUserRequest;
+import com.supermarket.catalog.exception.UnauthorizedException;
+import com.supermarket.catalog.service.UserService;
+import com.supermarket.catalog.testinfra.BaseIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeaderUserValidatorTest extends BaseIntegrationTest {
+
+    @Autowired
+    private HeaderUserValidator headerUserValidator;
+
+    @Autowired
+    private UserAuthCache userAuthCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedRequests_areServedFromCache() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("cashier", "secret", "cashier@example.com"));
+        long hitsBefore = userAuthCache.stats().hits();
+
+        assertThat(preHandle(userId, "cashier")).isTrue();
+        assertThat(preHandle(userId, "cashier")).isTrue();
+
+        assertThat(userAuthCache.stats().hits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void renamedUser_isRejectedImmediately() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("cashier", "secret", "cashier@example.com"));
+        preHandle(userId, "cashier");
+
+        userService.updateUser(userId, new UpdateUserRequest("head_cashier", "secret", "cashier@example.com"));
+
+        assertThatThrownBy(() -> preHandle(userId, "cashier"))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(preHandle(userId, "head_cashier")).isTrue();
+    }
+
+    @Test
+    void deletedUser_isRejectedImmediately() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("cashier", "secret", "cashier@example.com"));
+        preHandle(userId, "cashier");
+
+        userService.deleteUser(userId);
+
+        assertThatThrownBy(() -> preHandle(userId, "cashier"))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void outcomes_areCounted() throws Exception {
+
+        UUID userId = userService.createUser(new CreateUserRequest("cashier", "secret", "cashier@example.com"));
+        double acceptedBefore = authRequests("accepted");
+        double invalidBefore = authRequests("invalid_user");
+        double missingBefore = authRequests("missing_headers");
+
+        preHandle(userId, "cashier");
+        assertThatThrownBy(() -> preHandle(userId, "manager"))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> headerUserValidator.preHandle(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(authRequests("accepted")).isEqualTo(acceptedBefore + 1);
+        assertThat(authRequests("invalid_user")).isEqualTo(invalidBefore + 1);
+        assertThat(authRequests("missing_headers")).isEqualTo(missingBefore + 1);
+    }
+
+    private double authRequests(String outcome) {
+        return meterRegistry.get("catalog.auth.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private boolean preHandle(UUID userId, String username) throws UnauthorizedException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Id", userId.toString());
+        request.addHeader("X-Username", username);
+
+        return headerUserValidator.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+}